@@ -0,0 +1,310 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gerador de carga HTTP para os endpoints /api/*.
+ * Usa apenas a JDK, então roda direto do código-fonte:
+ *
+ *   java bench/CargaHttp.java http://localhost:8080 30 400
+ *   java bench/CargaHttp.java http://localhost:8080 60 200 --sem-popular --medicos=20000 --pacientes=2000000
+ *       --diagnosticos=10000000 --mix=paciente:30,porPaciente:30,periodoMedico:25,lista:15
+ *
+ * Argumentos: URL base, duração em segundos, clientes simultâneos e as opções:
+ * - --medicos, --pacientes, --diagnosticos: quantidade cadastrada (IDs sorteados de 1 até ela)
+ * - --sem-popular: usa os dados já gerados no servidor (GeradorDados) em vez de cadastrar via /batch
+ * - --mix: peso de cada endpoint (medico, paciente, porPaciente, periodoPaciente, periodoMedico, lista)
+ * Mostra vazão e percentis de latência das respostas com sucesso, e as recusas (429/503) e erros
+ * contados à parte, no total e por endpoint.
+ */
+public class CargaHttp {
+
+    private static final String MIX_PADRAO = "medico:35,paciente:35,porPaciente:20,lista:10";
+
+    private static int medicos = 200;
+    private static int pacientes = 2_000;
+    private static int diagnosticos = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        List<String> posicionais = new ArrayList<>();
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                String[] partes = arg.substring(2).split("=", 2);
+                opcoes.put(partes[0], partes.length > 1 ? partes[1] : "true");
+            } else {
+                posicionais.add(arg);
+            }
+        }
+        String base = posicionais.size() > 0 ? posicionais.get(0) : "http://localhost:8080";
+        int segundos = posicionais.size() > 1 ? Integer.parseInt(posicionais.get(1)) : 30;
+        int clientes = posicionais.size() > 2 ? Integer.parseInt(posicionais.get(2)) : 400;
+        medicos = Integer.parseInt(opcoes.getOrDefault("medicos", String.valueOf(medicos)));
+        pacientes = Integer.parseInt(opcoes.getOrDefault("pacientes", String.valueOf(pacientes)));
+        diagnosticos = Integer.parseInt(opcoes.getOrDefault("diagnosticos", String.valueOf(diagnosticos)));
+        Mix mix = Mix.ler(opcoes.getOrDefault("mix", MIX_PADRAO));
+
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        if (!opcoes.containsKey("sem-popular")) {
+            popular(http, base);
+        }
+
+        // Aquecimento de 5 segundos, descartado
+        executar(http, base, 5, clientes, mix);
+        Resultado resultado = executar(http, base, segundos, clientes, mix);
+        resultado.imprimir(segundos, mix);
+    }
+
+    private static void popular(HttpClient http, String base) throws Exception {
+        StringBuilder corpoMedicos = new StringBuilder("[");
+        for (int i = 0; i < medicos; i++) {
+            corpoMedicos.append(i > 0 ? "," : "")
+                    .append("{\"nome\":\"Dr. ").append(i)
+                    .append("\",\"crm\":\"CARGA").append(i)
+                    .append("\",\"especialidade\":\"Esp ").append(i % 12).append("\"}");
+        }
+        post(http, base + "/api/medicos/batch", corpoMedicos.append("]").toString());
+
+        StringBuilder corpoPacientes = new StringBuilder("[");
+        for (int i = 0; i < pacientes; i++) {
+            corpoPacientes.append(i > 0 ? "," : "")
+                    .append("{\"nome\":\"Paciente ").append(i)
+                    .append("\",\"cpf\":\"C").append(i).append("\"}");
+        }
+        post(http, base + "/api/pacientes/batch", corpoPacientes.append("]").toString());
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder corpoDiagnosticos = new StringBuilder("[");
+        for (int i = 0; i < diagnosticos; i++) {
+            corpoDiagnosticos.append(i > 0 ? "," : "")
+                    .append("{\"paciente\":{\"id\":").append(1 + random.nextInt(pacientes))
+                    .append("},\"medico\":{\"id\":").append(1 + random.nextInt(medicos))
+                    .append("},\"descricao\":\"Diagnóstico de carga ").append(i).append("\"}");
+        }
+        post(http, base + "/api/diagnosticos/batch", corpoDiagnosticos.append("]").toString());
+    }
+
+    private static void post(HttpClient http, String url, String corpo) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                .build();
+        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Falha ao popular " + url + ": HTTP " + response.statusCode());
+        }
+    }
+
+    /**
+     * Cada cliente é uma virtual thread que envia requisições em sequência
+     * (endpoints sorteados conforme o mix) até o prazo acabar.
+     * Só as respostas com sucesso (status < 400) entram na latência; recusas (429/503) e erros
+     * (demais status e falhas de conexão) são só contados, por endpoint.
+     */
+    private static Resultado executar(HttpClient http, String base, int segundos, int clientes, Mix mix)
+            throws Exception {
+        long fim = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+        Resultado resultado = new Resultado(mix.nomes().length);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clientes; c++) {
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < fim) {
+                        int endpoint = mix.sortear(random);
+                        String url = base + caminho(mix.nomes[endpoint], random);
+                        long inicio = System.nanoTime();
+                        int status;
+                        try {
+                            status = http.send(HttpRequest.newBuilder(URI.create(url)).GET().build(),
+                                    HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        resultado.registrar(endpoint, status, System.nanoTime() - inicio);
+                    }
+                    return null;
+                });
+            }
+        }
+        return resultado;
+    }
+
+    private static String caminho(String endpoint, ThreadLocalRandom random) {
+        return switch (endpoint) {
+            case "medico" -> "/api/medicos/" + (1 + random.nextInt(medicos));
+            case "paciente" -> "/api/pacientes/" + (1 + random.nextInt(pacientes));
+            case "porPaciente" -> "/api/diagnosticos/paciente/" + (1 + random.nextInt(pacientes));
+            case "periodoPaciente" -> "/api/diagnosticos/paciente/" + (1 + random.nextInt(pacientes))
+                    + "/periodo" + periodo(random, 365);
+            case "periodoMedico" -> "/api/diagnosticos/medico/" + (1 + random.nextInt(medicos))
+                    + "/periodo" + periodo(random, 30);
+            case "lista" -> "/api/diagnosticos?limit=50&after=" + random.nextInt(diagnosticos);
+            default -> throw new IllegalArgumentException("Endpoint desconhecido no mix: " + endpoint);
+        };
+    }
+
+    // Janela de dias dentro dos últimos dois anos, primeira página de 50
+    private static String periodo(ThreadLocalRandom random, int dias) {
+        LocalDate fim = LocalDate.now().minusDays(random.nextInt(730 - dias));
+        return "?inicio=" + fim.minusDays(dias) + "&fim=" + fim + "&limit=50";
+    }
+
+    /**
+     * Endpoints e pesos, no formato nome:peso,nome:peso
+     */
+    private record Mix(String[] nomes, int[] acumulado) {
+
+        static Mix ler(String texto) {
+            Map<String, String> pesos = new LinkedHashMap<>();
+            for (String item : texto.split(",")) {
+                String[] partes = item.split(":");
+                pesos.put(partes[0].trim(), partes[1].trim());
+            }
+            String[] nomes = pesos.keySet().toArray(String[]::new);
+            int[] acumulado = new int[nomes.length];
+            int soma = 0;
+            for (int i = 0; i < nomes.length; i++) {
+                caminho(nomes[i], ThreadLocalRandom.current()); // falha já na leitura se o nome não existir
+                soma += Integer.parseInt(pesos.get(nomes[i]));
+                acumulado[i] = soma;
+            }
+            return new Mix(nomes, acumulado);
+        }
+
+        int sortear(ThreadLocalRandom random) {
+            int sorteio = random.nextInt(acumulado[acumulado.length - 1]);
+            int i = 0;
+            while (sorteio >= acumulado[i]) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    /**
+     * Contagens e latências de uma execução, compartilhadas por todos os clientes
+     * (memória fixa, independente da duração e da vazão)
+     */
+    private static final class Resultado {
+
+        private final Histograma total = new Histograma();
+        private final Histograma[] porEndpoint;
+        private final LongAdder[] rejeitadas;
+        private final LongAdder[] erros;
+
+        Resultado(int endpoints) {
+            porEndpoint = new Histograma[endpoints];
+            rejeitadas = new LongAdder[endpoints];
+            erros = new LongAdder[endpoints];
+            for (int e = 0; e < endpoints; e++) {
+                porEndpoint[e] = new Histograma();
+                rejeitadas[e] = new LongAdder();
+                erros[e] = new LongAdder();
+            }
+        }
+
+        void registrar(int endpoint, int status, long nanos) {
+            if (status == 429 || status == 503) {
+                rejeitadas[endpoint].increment();
+            } else if (status < 200 || status >= 400) {
+                erros[endpoint].increment();
+            } else {
+                total.registrar(nanos);
+                porEndpoint[endpoint].registrar(nanos);
+            }
+        }
+
+        void imprimir(int segundos, Mix mix) {
+            long totalRejeitadas = Arrays.stream(rejeitadas).mapToLong(LongAdder::sum).sum();
+            long totalErros = Arrays.stream(erros).mapToLong(LongAdder::sum).sum();
+            System.out.printf("sucesso=%d rejeitadas=%d erros=%d vazao=%.1f req/s %s%n",
+                    total.quantidade(), totalRejeitadas, totalErros, total.quantidade() / (double) segundos,
+                    total.percentis());
+            for (int e = 0; e < porEndpoint.length; e++) {
+                System.out.printf("  %-16s sucesso=%d rejeitadas=%d erros=%d vazao=%.1f req/s %s%n", mix.nomes()[e],
+                        porEndpoint[e].quantidade(), rejeitadas[e].sum(), erros[e].sum(),
+                        porEndpoint[e].quantidade() / (double) segundos, porEndpoint[e].percentis());
+            }
+        }
+    }
+
+    /**
+     * Histograma de latências no estilo do HdrHistogram, em microssegundos:
+     * - 128 faixas por potência de 2 (erro relativo abaixo de 1%), de 1 µs a ~12 dias, em 2.240 contadores
+     * - Contadores atômicos: todos os clientes registram no mesmo histograma, sem amostras guardadas
+     */
+    static final class Histograma {
+
+        private static final int SUBFAIXAS = 64;   // metade das faixas de cada potência de 2
+        private static final long MAXIMO = (1L << 40) - 1;
+
+        private final AtomicLongArray contagens = new AtomicLongArray(34 * SUBFAIXAS + SUBFAIXAS);
+        private final LongAdder quantidade = new LongAdder();
+        private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+        void registrar(long nanos) {
+            long micros = Math.min(Math.max(nanos / 1_000, 0), MAXIMO);
+            contagens.incrementAndGet(indice(micros));
+            quantidade.increment();
+            maximo.accumulate(micros);
+        }
+
+        long quantidade() {
+            return quantidade.sum();
+        }
+
+        String percentis() {
+            return String.format("p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms",
+                    percentil(0.50), percentil(0.90), percentil(0.99), percentil(0.999), maximo.get() / 1_000.0);
+        }
+
+        // Maior valor da faixa que contém o percentil, como o HdrHistogram
+        double percentil(double p) {
+            long total = quantidade();
+            if (total == 0) {
+                return 0;
+            }
+            long alvo = Math.max(1, (long) Math.ceil(p * total));
+            long acumulado = 0;
+            for (int i = 0; i < contagens.length(); i++) {
+                acumulado += contagens.get(i);
+                if (acumulado >= alvo) {
+                    return Math.min(maiorValor(i), maximo.get()) / 1_000.0;
+                }
+            }
+            return maximo.get() / 1_000.0;
+        }
+
+        // Abaixo de 128 µs uma faixa por valor; acima, 64 faixas para cada potência de 2
+        static int indice(long micros) {
+            int expoente = 63 - Long.numberOfLeadingZeros(micros | (2 * SUBFAIXAS - 1)) - 6;
+            return expoente * SUBFAIXAS + (int) (micros >>> expoente);
+        }
+
+        static long maiorValor(int indice) {
+            int expoente = Math.max(0, indice / SUBFAIXAS - 1);
+            long faixa = indice - (long) expoente * SUBFAIXAS;
+            return ((faixa + 1) << expoente) - 1;
+        }
+    }
+}
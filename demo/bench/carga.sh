@@ -0,0 +1,38 @@
+#!/usr/bin/env sh
+# Teste de carga sobre a massa sintética do GeradorDados: sobe a aplicação com o perfil
+# "carga" (1 milhão de diagnósticos) ou "carga,carga10m" (10 milhões) e dispara o CargaHttp.
+#
+# Uso: bench/carga.sh [1m|10m] [segundos] [clientes] [mix]
+#   bench/carga.sh 10m 120 200 paciente:30,porPaciente:30,periodoMedico:25,lista:15
+set -e
+
+VOLUME=${1:-1m}
+SEGUNDOS=${2:-60}
+CLIENTES=${3:-200}
+MIX=${4:-medico:25,paciente:25,porPaciente:20,periodoPaciente:10,periodoMedico:10,lista:10}
+PORTA=8080
+cd "$(dirname "$0")/.."
+
+if [ "$VOLUME" = "10m" ]; then
+    PERFIS=carga,carga10m
+    HEAP=-Xmx4g
+    TAMANHO="--medicos=20000 --pacientes=2000000 --diagnosticos=10000000"
+else
+    PERFIS=carga
+    HEAP=-Xmx2g
+    TAMANHO="--medicos=2000 --pacientes=200000 --diagnosticos=1000000"
+fi
+
+./mvnw -q -DskipTests package
+JAR=$(ls target/primeiraapi-*.jar | head -n 1)
+
+java $HEAP -jar "$JAR" --server.port=$PORTA --spring.profiles.active=$PERFIS > "target/carga-$VOLUME.log" 2>&1 &
+PID=$!
+# /health só responde 200 depois que a geração de dados terminou (aplicação pronta)
+until curl -sf "http://localhost:$PORTA/health" > /dev/null; do sleep 2; done
+
+echo "== $VOLUME ($MIX)"
+java bench/CargaHttp.java "http://localhost:$PORTA" "$SEGUNDOS" "$CLIENTES" --sem-popular $TAMANHO "--mix=$MIX"
+
+kill $PID
+wait $PID 2> /dev/null || true
@@ -0,0 +1,31 @@
+#!/usr/bin/env sh
+# Compara vazão e latência p99 dos endpoints /api/* com threads de plataforma
+# (pool do Tomcat) e com virtual threads (perfil "virtual").
+#
+# Uso: bench/comparar-threads.sh [segundos] [clientes]
+set -e
+
+SEGUNDOS=${1:-30}
+CLIENTES=${2:-400}
+PORTA=8080
+cd "$(dirname "$0")/.."
+
+./mvnw -q -DskipTests package
+JAR=$(ls target/primeiraapi-*.jar | head -n 1)
+
+for MODO in plataforma virtual; do
+    PERFIL=""
+    if [ "$MODO" = "virtual" ]; then
+        PERFIL="--spring.profiles.active=virtual"
+    fi
+
+    java -jar "$JAR" --server.port=$PORTA --spring.jpa.show-sql=false --limites.ativo=false $PERFIL > "target/carga-$MODO.log" 2>&1 &
+    PID=$!
+    until curl -s "http://localhost:$PORTA/health" > /dev/null; do sleep 1; done
+
+    echo "== $MODO"
+    java bench/CargaHttp.java "http://localhost:$PORTA" "$SEGUNDOS" "$CLIENTES"
+
+    kill $PID
+    wait $PID 2> /dev/null || true
+done
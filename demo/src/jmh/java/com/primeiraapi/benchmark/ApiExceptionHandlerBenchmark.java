@@ -0,0 +1,84 @@
+package com.primeiraapi.benchmark;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.primeiraapi.exception.ApiExceptionHandler;
+
+/**
+ * Caminho de erro: criação da exceção + ApiExceptionHandler,
+ * isolado e através do DispatcherServlet (MockMvc).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiExceptionHandlerBenchmark {
+
+    private final ApiExceptionHandler handler = new ApiExceptionHandler();
+    private MockMvc mockMvc;
+
+    @Setup
+    public void preparar() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new ControllerComErro())
+                .setControllerAdvice(handler)
+                .build();
+    }
+
+    @Benchmark
+    public ResponseEntity<String> tratarResponseStatusException() {
+        return handler.handleResponseStatusException(
+                new ResponseStatusException(HttpStatus.NOT_FOUND, "Paciente não encontrado"));
+    }
+
+    @Benchmark
+    public ResponseEntity<String> tratarIllegalArgumentException() {
+        return handler.handleIllegalArgumentException(new IllegalArgumentException("CPF já cadastrado"));
+    }
+
+    @Benchmark
+    public MvcResult requisicaoComErro404() throws Exception {
+        return mockMvc.perform(get("/erro/404")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult requisicaoComErro400() throws Exception {
+        return mockMvc.perform(get("/erro/400")).andReturn();
+    }
+
+    @RestController
+    public static class ControllerComErro {
+
+        @GetMapping("/erro/404")
+        public String naoEncontrado() {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Paciente não encontrado");
+        }
+
+        @GetMapping("/erro/400")
+        public String requisicaoInvalida() {
+            throw new IllegalArgumentException("CPF já cadastrado");
+        }
+    }
+}
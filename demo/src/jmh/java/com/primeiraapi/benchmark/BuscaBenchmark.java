@@ -0,0 +1,108 @@
+package com.primeiraapi.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.primeiraapi.dto.ResultadoBusca;
+import com.primeiraapi.service.IndiceBusca;
+
+/**
+ * Latência de busca no IndiceBusca com 1 milhão de diagnósticos sintéticos.
+ * O vocabulário tem distribuição desigual: poucos termos muito frequentes e muitos raros.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class BuscaBenchmark {
+
+    private static final String[] COMUNS = {
+        "dor", "febre", "inflamação", "repouso", "antibiótico", "pressão", "exame", "retorno"
+    };
+    private static final String[] ORGAOS = {
+        "pulmão", "fígado", "rim", "coração", "estômago", "joelho", "coluna", "garganta",
+        "ouvido", "pele", "tireoide", "pâncreas", "intestino", "bexiga", "ombro", "tornozelo"
+    };
+    private static final String[] RAROS = {
+        "sarcoidose", "amiloidose", "feocromocitoma", "acromegalia", "porfiria", "histoplasmose"
+    };
+
+    @Param("1000000")
+    private int diagnosticos;
+
+    private IndiceBusca indice;
+
+    @Setup(Level.Trial)
+    public void indexar() throws Exception {
+        indice = new IndiceBusca();
+        SplittableRandom random = new SplittableRandom(42);
+        for (long id = 1; id <= diagnosticos; id++) {
+            indice.indexarDiagnostico(SerializacaoBenchmark.novoDiagnostico(id, descricao(random), recomendacao(random)));
+        }
+        indice.atualizarLeitura();
+    }
+
+    @TearDown(Level.Trial)
+    public void fechar() throws Exception {
+        indice.fechar();
+    }
+
+    @Benchmark
+    public ResultadoBusca termoComum() {
+        return indice.buscar("inflamação", IndiceBusca.TIPO_DIAGNOSTICO, 0, 20);
+    }
+
+    @Benchmark
+    public ResultadoBusca termoRaro() {
+        return indice.buscar("porfiria", IndiceBusca.TIPO_DIAGNOSTICO, 0, 20);
+    }
+
+    @Benchmark
+    public ResultadoBusca doisTermos() {
+        return indice.buscar("dor joelho", null, 0, 20);
+    }
+
+    @Benchmark
+    public ResultadoBusca fraseExata() {
+        return indice.buscar("\"inflamação no pulmão\"", null, 0, 20);
+    }
+
+    @Benchmark
+    public ResultadoBusca paginaProfunda() {
+        return indice.buscar("febre", null, 40, 20);
+    }
+
+    private static String descricao(SplittableRandom random) {
+        String texto = COMUNS[zipf(random, COMUNS.length)] + " no " + ORGAOS[random.nextInt(ORGAOS.length)];
+        if (random.nextInt(1000) == 0) {
+            texto += " suspeita de " + RAROS[random.nextInt(RAROS.length)];
+        }
+        return texto;
+    }
+
+    private static String recomendacao(SplittableRandom random) {
+        return COMUNS[zipf(random, COMUNS.length)] + " e " + COMUNS[zipf(random, COMUNS.length)]
+                + " por " + (1 + random.nextInt(10)) + " dias";
+    }
+
+    // Índice com probabilidade decrescente (aproximação de Zipf)
+    private static int zipf(SplittableRandom random, int tamanho) {
+        return (int) Math.min(tamanho - 1, Math.floor(-Math.log(1 - random.nextDouble()) * tamanho / 4));
+    }
+}
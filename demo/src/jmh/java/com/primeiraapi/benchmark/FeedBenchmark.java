@@ -0,0 +1,112 @@
+package com.primeiraapi.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.primeiraapi.dto.EventoDiagnostico;
+import com.primeiraapi.service.FeedDiagnosticos;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Publicação de eventos de diagnóstico com milhares de assinaturas abertas.
+ * - filtro=todos: todo evento vai para todos os assinantes; filtro=medico: assinantes
+ *   espalhados entre 100 médicos, cada evento só chega aos do seu médico
+ * - lentos: percentual de assinantes que levam 5 ms por evento; a vazão de publicação
+ *   não deve cair com eles (a fila deles enche e os eventos são descartados)
+ * - Entregues e descartados de cada rodada são impressos ao final
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class FeedBenchmark {
+
+    private static final int MEDICOS = 100;
+
+    @Param({"1000", "5000", "10000"})
+    private int assinantes;
+
+    @Param({"todos", "medico"})
+    private String filtro;
+
+    @Param({"0", "10"})
+    private int lentos;
+
+    private SimpleMeterRegistry registry;
+    private FeedDiagnosticos feed;
+    private List<FeedDiagnosticos.Assinante> assinaturas;
+    private final LongAdder entregues = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        registry = new SimpleMeterRegistry();
+        feed = new FeedDiagnosticos(Jackson2ObjectMapperBuilder.json().build(), registry,
+                256, assinantes, 15, "descartar");
+        assinaturas = new ArrayList<>(assinantes);
+        for (int i = 0; i < assinantes; i++) {
+            boolean lento = i % 100 < lentos;
+            Long medicoId = "medico".equals(filtro) ? (long) (i % MEDICOS) + 1 : null;
+            assinaturas.add(feed.assinar(medicoId, null, new FeedDiagnosticos.Destino() {
+                @Override
+                public void enviar(FeedDiagnosticos.Mensagem mensagem) {
+                    if (lento) {
+                        try {
+                            Thread.sleep(5);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    entregues.increment();
+                }
+
+                @Override
+                public void manterViva() {
+                }
+
+                @Override
+                public void encerrar(boolean lento) {
+                }
+            }));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        System.out.printf("%nassinantes=%d entregues=%d descartados=%.0f%n", feed.getAssinantes(),
+                entregues.sum(), registry.counter("diagnosticos.stream.descartados").count());
+        assinaturas.forEach(FeedDiagnosticos.Assinante::cancelar);
+    }
+
+    @Benchmark
+    public void publicar() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long medicoId = random.nextInt(MEDICOS) + 1;
+        feed.publicar(new EventoDiagnostico(EventoDiagnostico.ATUALIZADO, random.nextLong(1, 1_000_000),
+                random.nextLong(1, 100_000), medicoId, 1L, "Hipertensão arterial sistêmica",
+                "Retorno em 30 dias", LocalDateTime.now()));
+    }
+}
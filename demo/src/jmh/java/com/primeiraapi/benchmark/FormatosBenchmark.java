@@ -0,0 +1,97 @@
+package com.primeiraapi.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.primeiraapi.model.Diagnostico;
+
+/**
+ * Tamanho e custo de CPU dos formatos de resposta (JSON, CBOR, Smile) em uma página de diagnósticos,
+ * com os mesmos pacientes e médicos se repetindo ao longo da lista (como em /paciente/{id}).
+ * - Tamanhos (puro e com gzip) são impressos no início de cada fork
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatosBenchmark {
+
+    private static final int TAMANHO_LISTA = 500;
+    private static final int PACIENTES_DISTINTOS = 50;
+    private static final TypeReference<List<Diagnostico>> LISTA = new TypeReference<>() {};
+
+    @Param({"json", "cbor", "smile"})
+    private String formato;
+
+    private ObjectMapper objectMapper;
+    private List<Diagnostico> diagnosticos;
+    private byte[] codificado;
+
+    @Setup
+    public void preparar() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().factory(fabrica(formato)).build();
+        diagnosticos = new ArrayList<>(TAMANHO_LISTA);
+        for (int i = 0; i < TAMANHO_LISTA; i++) {
+            Diagnostico diagnostico = SerializacaoBenchmark.novoDiagnostico(i % PACIENTES_DISTINTOS);
+            diagnostico.setId((long) i);
+            diagnosticos.add(diagnostico);
+        }
+        codificado = objectMapper.writeValueAsBytes(diagnosticos);
+        System.out.printf("%n%s: %d bytes, %d bytes com gzip%n", formato, codificado.length, gzip(codificado).length);
+    }
+
+    private static JsonFactory fabrica(String formato) {
+        return switch (formato) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build();
+            default -> new JsonFactory();
+        };
+    }
+
+    @Benchmark
+    public byte[] codificar() throws Exception {
+        return objectMapper.writeValueAsBytes(diagnosticos);
+    }
+
+    @Benchmark
+    public byte[] codificarComGzip() throws Exception {
+        return gzip(objectMapper.writeValueAsBytes(diagnosticos));
+    }
+
+    @Benchmark
+    public List<Diagnostico> decodificar() throws Exception {
+        return objectMapper.readValue(codificado, LISTA);
+    }
+
+    private static byte[] gzip(byte[] dados) throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(dados.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(dados);
+        }
+        return saida.toByteArray();
+    }
+}
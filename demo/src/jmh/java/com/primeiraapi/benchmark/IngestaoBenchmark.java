@@ -0,0 +1,92 @@
+package com.primeiraapi.benchmark;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.primeiraapi.PrimeiraapiApplication;
+import com.primeiraapi.model.Diagnostico;
+import com.primeiraapi.model.Medico;
+import com.primeiraapi.model.Paciente;
+import com.primeiraapi.service.DiagnosticoService;
+import com.primeiraapi.service.IngestaoDiagnosticos;
+import com.primeiraapi.service.MedicoService;
+import com.primeiraapi.service.PacienteService;
+
+/**
+ * Criação de diagnósticos sob concorrência: um commit por requisição (create)
+ * contra a fila de ingestão com gravação em lote (um commit por lote).
+ * - A fila é pequena: com ela cheia o produtor tenta de novo, então a vazão medida
+ *   é a vazão sustentada do gravador, e não só o custo de enfileirar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class IngestaoBenchmark {
+
+    private ConfigurableApplicationContext contexto;
+    private DiagnosticoService diagnosticoService;
+    private IngestaoDiagnosticos ingestao;
+
+    private Paciente paciente;
+    private Medico medico;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        contexto = new SpringApplicationBuilder(PrimeiraapiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false",
+                        "busca.reindexar-ao-iniciar=false",
+                        "diagnosticos.ingestao.assincrona=true",
+                        "diagnosticos.ingestao.capacidade=2000")
+                .run();
+        diagnosticoService = contexto.getBean(DiagnosticoService.class);
+        ingestao = contexto.getBean(IngestaoDiagnosticos.class);
+
+        medico = contexto.getBean(MedicoService.class).create(new Medico("Dr. Ingestão", "BENCH-ING", "Clínica Geral"));
+        paciente = contexto.getBean(PacienteService.class).create(new Paciente("Paciente Ingestão", "BENCH-ING"));
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Diagnostico commitPorRequisicao() {
+        return diagnosticoService.create(new Diagnostico(paciente, medico, "Diagnóstico síncrono"));
+    }
+
+    @Benchmark
+    public UUID filaComCommitEmLote() {
+        Diagnostico diagnostico = new Diagnostico(paciente, medico, "Diagnóstico enfileirado");
+        Optional<UUID> token;
+        while ((token = ingestao.enfileirar(diagnostico)).isEmpty()) {
+            // Fila cheia: espera o gravador liberar espaço, como um cliente respeitando o Retry-After
+            Thread.onSpinWait();
+        }
+        return token.get();
+    }
+}
@@ -0,0 +1,93 @@
+package com.primeiraapi.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.primeiraapi.model.Diagnostico;
+import com.primeiraapi.model.Medico;
+import com.primeiraapi.model.Paciente;
+
+/**
+ * Serialização Jackson de Diagnostico com Paciente e Medico aninhados,
+ * com o mesmo ObjectMapper padrão que o Spring Boot configura.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacaoBenchmark {
+
+    private static final int TAMANHO_LISTA = 100;
+
+    private ObjectMapper objectMapper;
+    private Diagnostico diagnostico;
+    private List<Diagnostico> diagnosticos;
+    private byte[] diagnosticoJson;
+
+    @Setup
+    public void preparar() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        diagnosticos = new ArrayList<>(TAMANHO_LISTA);
+        for (int i = 0; i < TAMANHO_LISTA; i++) {
+            diagnosticos.add(novoDiagnostico(i));
+        }
+        diagnostico = diagnosticos.get(0);
+        diagnosticoJson = objectMapper.writeValueAsBytes(diagnostico);
+    }
+
+    @Benchmark
+    public byte[] serializarDiagnostico() throws Exception {
+        return objectMapper.writeValueAsBytes(diagnostico);
+    }
+
+    @Benchmark
+    public byte[] serializarListaDeDiagnosticos() throws Exception {
+        return objectMapper.writeValueAsBytes(diagnosticos);
+    }
+
+    @Benchmark
+    public Diagnostico desserializarDiagnostico() throws Exception {
+        return objectMapper.readValue(diagnosticoJson, Diagnostico.class);
+    }
+
+    static Diagnostico novoDiagnostico(long id) {
+        return novoDiagnostico(id, "Inflamação no pulmão esquerdo",
+                "Repouso de 3 dias, antibióticos prescritos, acompanhamento em 1 semana");
+    }
+
+    static Diagnostico novoDiagnostico(long id, String descricao, String recomendacoes) {
+        Paciente paciente = new Paciente("Maria Santos " + id, String.format("%011d", id));
+        paciente.setId(id);
+        paciente.setDataNascimento(LocalDate.of(1990, 5, 15));
+        paciente.setTelefone("(84)99999-1111");
+        paciente.setEmail("maria" + id + "@email.com");
+        paciente.setHistoricoMedico("Pressão alta controlada. ".repeat(20));
+
+        Medico medico = new Medico("Dr. João Silva", "CRM" + (id % 40), "Cardiologia");
+        medico.setId(id % 40);
+        medico.setTelefone("(84)99999-0000");
+        medico.setEmail("joao@hospital.com");
+
+        Diagnostico diagnostico = new Diagnostico(paciente, medico, descricao);
+        diagnostico.setId(id);
+        diagnostico.setRecomendacoes(recomendacoes);
+        return diagnostico;
+    }
+}
@@ -0,0 +1,128 @@
+package com.primeiraapi.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.primeiraapi.PrimeiraapiApplication;
+import com.primeiraapi.dto.PaginaCursor;
+import com.primeiraapi.model.Diagnostico;
+import com.primeiraapi.model.Medico;
+import com.primeiraapi.model.Paciente;
+import com.primeiraapi.service.DiagnosticoService;
+import com.primeiraapi.service.MedicoService;
+import com.primeiraapi.service.PacienteService;
+
+/**
+ * CRUD dos serviços contra o H2 em memória, com o contexto Spring completo (sem servidor web).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServicoCrudBenchmark {
+
+    private static final int DIAGNOSTICOS_POR_PACIENTE = 50;
+
+    private final AtomicLong sequencia = new AtomicLong();
+
+    private ConfigurableApplicationContext contexto;
+    private PacienteService pacienteService;
+    private MedicoService medicoService;
+    private DiagnosticoService diagnosticoService;
+
+    private Medico medico;
+    private Paciente paciente;          // histórico fixo, usado nas leituras
+    private Paciente pacienteEscrita;   // recebe os diagnósticos criados no benchmark
+    private Diagnostico diagnostico;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        contexto = new SpringApplicationBuilder(PrimeiraapiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false")
+                .run();
+        pacienteService = contexto.getBean(PacienteService.class);
+        medicoService = contexto.getBean(MedicoService.class);
+        diagnosticoService = contexto.getBean(DiagnosticoService.class);
+
+        medico = medicoService.create(new Medico("Dr. Benchmark", "BENCH-CRM", "Clínica Geral"));
+        paciente = pacienteService.create(new Paciente("Paciente Benchmark", "BENCH-CPF"));
+        pacienteEscrita = pacienteService.create(new Paciente("Paciente Escrita", "BENCH-CPF-2"));
+        for (int i = 0; i < DIAGNOSTICOS_POR_PACIENTE; i++) {
+            diagnostico = diagnosticoService.create(new Diagnostico(paciente, medico, "Diagnóstico " + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Paciente criarPaciente() {
+        return pacienteService.create(new Paciente("Paciente", "B" + sequencia.incrementAndGet()));
+    }
+
+    @Benchmark
+    public Medico criarMedico() {
+        return medicoService.create(new Medico("Dr. Medico", "B" + sequencia.incrementAndGet(), "Cardiologia"));
+    }
+
+    @Benchmark
+    public Diagnostico criarDiagnostico() {
+        return diagnosticoService.create(new Diagnostico(pacienteEscrita, medico, "Diagnóstico de escrita"));
+    }
+
+    @Benchmark
+    public Paciente buscarPacientePorId() {
+        return pacienteService.findOrThrow(paciente.getId());
+    }
+
+    @Benchmark
+    public Diagnostico buscarDiagnosticoPorId() {
+        return diagnosticoService.findOrThrow(diagnostico.getId());
+    }
+
+    @Benchmark
+    public List<Diagnostico> listarDiagnosticosDoPaciente() {
+        return diagnosticoService.findByPacienteId(paciente.getId());
+    }
+
+    @Benchmark
+    public PaginaCursor<Diagnostico> paginaDeDiagnosticos() {
+        return diagnosticoService.findPagina(null, PaginaCursor.LIMITE_PADRAO);
+    }
+
+    @Benchmark
+    public Medico atualizarMedico() {
+        Medico dados = new Medico();
+        dados.setTelefone("(84)9" + (sequencia.incrementAndGet() % 10_000_000));
+        return medicoService.update(medico.getId(), dados);
+    }
+
+    @Benchmark
+    public void criarERemoverPaciente() {
+        Paciente criado = pacienteService.create(new Paciente("Temporário", "T" + sequencia.incrementAndGet()));
+        pacienteService.delete(criado.getId());
+    }
+}
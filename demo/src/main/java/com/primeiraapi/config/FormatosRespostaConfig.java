@@ -0,0 +1,36 @@
+package com.primeiraapi.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+/**
+ * Formatos de resposta além do JSON, escolhidos pelo cabeçalho Accept (e Content-Type nas requisições):
+ * - application/cbor
+ * - application/x-jackson-smile
+ * Os dois usam o mesmo builder do ObjectMapper JSON do Spring Boot (datas, módulos, etc.),
+ * então o conteúdo é o mesmo, só muda a codificação.
+ * - No Smile, textos repetidos (nomes, especialidades, e-mails do mesmo médico/paciente
+ *   em vários diagnósticos) viram referências para a primeira ocorrência
+ */
+@Configuration
+public class FormatosRespostaConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build()).build());
+    }
+}
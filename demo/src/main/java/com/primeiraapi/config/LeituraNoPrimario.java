@@ -0,0 +1,62 @@
+package com.primeiraapi.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Marca a thread atual para ler do banco primário em vez das réplicas (leia o que escreveu):
+ * - Ativada quando a própria requisição abre uma transação de escrita
+ * - Ativada pelo cookie que o filtro devolve nas escritas, durante o atraso tolerado das réplicas
+ * - Limpa pelo filtro ao fim de cada requisição
+ * - Fora de uma requisição (tarefas agendadas, threads de pools) a escrita só a ativa até o fim
+ *   da própria transação: a thread volta ao pool sem ficar presa ao primário
+ */
+public final class LeituraNoPrimario {
+
+    private static final ThreadLocal<Boolean> ATIVA = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> EM_REQUISICAO = new ThreadLocal<>();
+
+    private LeituraNoPrimario() {
+    }
+
+    /**
+     * Chamado pelo filtro no início da requisição: quem a limpa no fim é ele
+     */
+    public static void iniciarRequisicao() {
+        EM_REQUISICAO.set(Boolean.TRUE);
+    }
+
+    public static void ativar() {
+        ATIVA.set(Boolean.TRUE);
+    }
+
+    /**
+     * Transação de escrita aberta na thread: dentro de uma requisição vale até o fim dela,
+     * fora de uma é desfeita no commit/rollback da transação
+     */
+    static void ativarNaEscrita() {
+        if (EM_REQUISICAO.get() != null) {
+            ativar();
+            return;
+        }
+        if (ativa() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        ativar();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                ATIVA.remove();
+            }
+        });
+    }
+
+    public static boolean ativa() {
+        return ATIVA.get() != null;
+    }
+
+    public static void limpar() {
+        ATIVA.remove();
+        EM_REQUISICAO.remove();
+    }
+}
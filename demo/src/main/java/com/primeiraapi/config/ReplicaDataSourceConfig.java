@@ -0,0 +1,112 @@
+package com.primeiraapi.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Leituras nas réplicas, escritas no primário (ativado por app.datasource.replica.urls):
+ * - Primário: spring.datasource.* (como sem réplicas)
+ * - Réplicas: uma URL por réplica, mesmo usuário/senha do primário, pools somente leitura
+ * - Leia o que escreveu: depois de uma escrita o cliente recebe um cookie que manda suas leituras
+ *   para o primário por app.datasource.replica.atraso-maximo (atraso tolerado das réplicas)
+ */
+@Configuration
+@ConditionalOnProperty("app.datasource.replica.urls")
+public class ReplicaDataSourceConfig {
+
+    static final String COOKIE_LER_PRIMARIO = "ler-primario";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primarioDataSource(DataSourceProperties propriedades) {
+        return propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public RoteamentoDataSource roteamentoDataSource(HikariDataSource primarioDataSource,
+                                                     DataSourceProperties propriedades,
+                                                     @Value("${app.datasource.replica.urls}") List<String> urls) {
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = propriedades.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i).trim())
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setReadOnly(true);
+            replica.setMaximumPoolSize(primarioDataSource.getMaximumPoolSize());
+            replicas.add(replica);
+        }
+        return new RoteamentoDataSource(primarioDataSource, replicas);
+    }
+
+    // DataSource usado pelo JPA: só pede a conexão real ao roteamento no primeiro comando SQL
+    @Bean
+    @Primary
+    public DataSource dataSource(RoteamentoDataSource roteamentoDataSource) {
+        return new LazyConnectionDataSourceProxy(roteamentoDataSource);
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> leituraAposEscritaFilter(
+            @Value("${app.datasource.replica.atraso-maximo:2s}") Duration atrasoMaximo) {
+        long segundos = Math.max(1, atrasoMaximo.toSeconds() + (atrasoMaximo.toMillisPart() > 0 ? 1 : 0));
+        OncePerRequestFilter filtro = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain chain) throws ServletException, IOException {
+                LeituraNoPrimario.iniciarRequisicao();
+                if (WebUtils.getCookie(request, COOKIE_LER_PRIMARIO) != null) {
+                    LeituraNoPrimario.ativar();
+                }
+                if (escrita(request.getMethod())) {
+                    // Antes do chain: depois o corpo da resposta já pode ter sido enviado
+                    response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE_LER_PRIMARIO, "1")
+                            .path("/")
+                            .maxAge(segundos)
+                            .httpOnly(true)
+                            .sameSite("Lax")
+                            .build()
+                            .toString());
+                }
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    LeituraNoPrimario.limpar();
+                }
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> registro = new FilterRegistrationBean<>(filtro);
+        registro.addUrlPatterns("/api/*");
+        return registro;
+    }
+
+    private static boolean escrita(String metodo) {
+        return !"GET".equals(metodo) && !"HEAD".equals(metodo) && !"OPTIONS".equals(metodo);
+    }
+}
@@ -0,0 +1,64 @@
+package com.primeiraapi.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Escolhe o banco de cada conexão:
+ * - Transação somente leitura (@Transactional(readOnly = true), leituras dos repositórios) → uma réplica,
+ *   em rodízio, a não ser que a thread precise ler o que acabou de escrever (LeituraNoPrimario)
+ * - Qualquer outra (escritas, inicialização do schema) → primário
+ *
+ * Precisa ficar atrás de um LazyConnectionDataSourceProxy: a conexão real só é pedida no primeiro
+ * comando SQL, quando o Spring já registrou se a transação é somente leitura.
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARIO = "primario";
+
+    private final List<String> replicas;
+    private final List<HikariDataSource> poolsReplicas;
+    private final AtomicInteger proxima = new AtomicInteger();
+
+    public RoteamentoDataSource(DataSource primario, List<HikariDataSource> replicas) {
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(PRIMARIO, primario);
+        for (HikariDataSource replica : replicas) {
+            destinos.put(replica.getPoolName(), replica);
+        }
+        this.replicas = replicas.stream().map(HikariDataSource::getPoolName).toList();
+        this.poolsReplicas = replicas;
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(primario);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                // Escrita: o resto da requisição (ou da transação, fora de uma) lê do primário
+                LeituraNoPrimario.ativarNaEscrita();
+            }
+            return PRIMARIO;
+        }
+        if (LeituraNoPrimario.ativa()) {
+            return PRIMARIO;
+        }
+        return replicas.get(Math.floorMod(proxima.getAndIncrement(), replicas.size()));
+    }
+
+    @Override
+    public void destroy() {
+        poolsReplicas.forEach(HikariDataSource::close);
+    }
+}
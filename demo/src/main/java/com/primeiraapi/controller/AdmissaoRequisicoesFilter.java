@@ -0,0 +1,218 @@
+package com.primeiraapi.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Controle de admissão na frente dos endpoints /api/*:
+ * - Limite por cliente (X-API-Key ou IP): balde de fichas, excedeu → 429 + Retry-After
+ * - Só chaves configuradas (limites.chaves-api) ganham balde próprio; chave desconhecida conta
+ *   no balde do IP: trocar de chave a cada requisição não escapa do limite nem enche o mapa de clientes
+ * - Limite de concorrência por tipo de endpoint: listagens/lotes/exportação (pesadas),
+ *   leituras por ID e escritas têm vagas separadas; sem vaga → 503 + Retry-After
+ * - Sem locks: cada cliente é um AtomicLong atualizado por CAS e as vagas são Semaphores
+ *   consultados com tryAcquire (quem não consegue vaga é recusado na hora, não espera)
+ */
+@Component
+public class AdmissaoRequisicoesFilter extends OncePerRequestFilter {
+
+    static final String CABECALHO_API_KEY = "X-API-Key";
+
+    // Endpoints que leem muitas linhas: listagens, exportação, buscas, análises e lotes
+    private static final Pattern PESADAS = Pattern.compile(
+            "/api/(diagnosticos|pacientes|medicos)/?"
+            + "|/api/diagnosticos/(export|(paciente|medico)/[^/]+(/periodo)?)"
+            + "|/api/(busca|analises)(/.*)?"
+            + "|/api/[^/]+/batch");
+
+    // Assinaturas SSE ficam abertas por minutos: quem as limita é o FeedDiagnosticos, não as vagas
+    private static final String STREAM = "/api/diagnosticos/stream";
+
+    private static final String RETRY_AFTER_SEM_VAGA = "1";
+
+    private enum Tipo { PESADA, LEITURA, ESCRITA }
+
+    private final ObjectMapper objectMapper;
+    private final boolean ativo;
+    private final long intervaloNanos;
+    private final long toleranciaNanos;
+    private final Map<Tipo, Semaphore> vagas;
+    private final Set<String> chavesConhecidas;
+    private final Counter recusadasPorCliente;
+    private final Counter recusadasPorConcorrencia;
+
+    // Próximo instante (nanoTime) "teórico" de chegada de cada cliente; expira sem uso
+    private final Cache<String, AtomicLong> clientes = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
+
+    public AdmissaoRequisicoesFilter(ObjectMapper objectMapper,
+                                     MeterRegistry registry,
+                                     @Value("${limites.ativo:true}") boolean ativo,
+                                     @Value("${limites.requisicoes-por-segundo:100}") int requisicoesPorSegundo,
+                                     @Value("${limites.rajada:200}") int rajada,
+                                     @Value("${limites.concorrencia.pesadas:8}") int pesadas,
+                                     @Value("${limites.concorrencia.leituras:64}") int leituras,
+                                     @Value("${limites.concorrencia.escritas:32}") int escritas,
+                                     @Value("${limites.chaves-api:}") List<String> chavesConhecidas) {
+        this.objectMapper = objectMapper;
+        this.ativo = ativo;
+        this.intervaloNanos = TimeUnit.SECONDS.toNanos(1) / requisicoesPorSegundo;
+        this.toleranciaNanos = intervaloNanos * rajada;
+        this.vagas = Map.of(
+                Tipo.PESADA, new Semaphore(pesadas),
+                Tipo.LEITURA, new Semaphore(leituras),
+                Tipo.ESCRITA, new Semaphore(escritas));
+        this.chavesConhecidas = Set.copyOf(chavesConhecidas);
+        this.recusadasPorCliente = registry.counter("http.requisicoes.recusadas", "motivo", "limite_cliente");
+        this.recusadasPorConcorrencia = registry.counter("http.requisicoes.recusadas", "motivo", "concorrencia");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !ativo || !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long esperaNanos = consumirFicha(cliente(request));
+        if (esperaNanos > 0) {
+            recusadasPorCliente.increment();
+            long segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            recusar(response, HttpStatus.TOO_MANY_REQUESTS, String.valueOf(segundos),
+                    "Limite de requisições excedido, tente novamente mais tarde");
+            return;
+        }
+
+        if (STREAM.equals(caminho(request))) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Semaphore vaga = vagas.get(tipo(request));
+        if (!vaga.tryAcquire()) {
+            recusadasPorConcorrencia.increment();
+            recusar(response, HttpStatus.SERVICE_UNAVAILABLE, RETRY_AFTER_SEM_VAGA,
+                    "Servidor ocupado, tente novamente em instantes");
+            return;
+        }
+
+        AtomicBoolean liberada = new AtomicBoolean();
+        Runnable liberar = () -> {
+            if (liberada.compareAndSet(false, true)) {
+                vaga.release();
+            }
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Exportação (StreamingResponseBody): a vaga só é devolvida quando a resposta termina
+                request.getAsyncContext().addListener(new LiberarAoTerminar(liberar));
+            } else {
+                liberar.run();
+            }
+        }
+    }
+
+    /**
+     * Algoritmo GCRA (equivalente a um balde de fichas): cada requisição empurra o instante
+     * teórico do cliente em um intervalo; aceita enquanto ele não passar de agora + rajada.
+     *
+     * @return 0 se a requisição foi aceita, senão quantos nanossegundos o cliente deve esperar
+     */
+    private long consumirFicha(String cliente) {
+        AtomicLong teorico = clientes.get(cliente, c -> new AtomicLong(System.nanoTime()));
+        long agora = System.nanoTime();
+        while (true) {
+            long atual = teorico.get();
+            long proximo = (atual - agora > 0 ? atual : agora) + intervaloNanos;
+            long espera = proximo - agora - toleranciaNanos;
+            if (espera > 0) {
+                return espera;
+            }
+            if (teorico.compareAndSet(atual, proximo)) {
+                return 0;
+            }
+        }
+    }
+
+    private String cliente(HttpServletRequest request) {
+        String apiKey = request.getHeader(CABECALHO_API_KEY);
+        return apiKey != null && chavesConhecidas.contains(apiKey) ? "chave:" + apiKey : "ip:" + request.getRemoteAddr();
+    }
+
+    private static String caminho(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static Tipo tipo(HttpServletRequest request) {
+        if (PESADAS.matcher(caminho(request)).matches()) {
+            return Tipo.PESADA;
+        }
+        String metodo = request.getMethod();
+        return "GET".equals(metodo) || "HEAD".equals(metodo) ? Tipo.LEITURA : Tipo.ESCRITA;
+    }
+
+    private void recusar(HttpServletResponse response, HttpStatus status, String retryAfter, String mensagem)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), Map.of("mensagem", mensagem));
+    }
+
+    private record LiberarAoTerminar(Runnable liberar) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            liberar.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            liberar.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            liberar.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Novo ciclo assíncrono: continua escutando o mesmo contexto
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
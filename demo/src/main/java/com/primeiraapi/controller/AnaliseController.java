@@ -0,0 +1,83 @@
+package com.primeiraapi.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.primeiraapi.dto.ContagemPeriodo;
+import com.primeiraapi.dto.MedicoRanking;
+import com.primeiraapi.service.AnaliseService;
+
+/**
+ * Controller dos painéis de análise (lidos da tabela de resumo, sem varrer os diagnósticos)
+ */
+@CrossOrigin("*")
+@RestController
+@RequestMapping("/api/analises")
+public class AnaliseController {
+
+    private static final int PERIODO_PADRAO_DIAS = 30;
+    private static final int RANKING_MAXIMO = 100;
+
+    private final AnaliseService service;
+
+    public AnaliseController(AnaliseService service) {
+        this.service = service;
+    }
+
+    /**
+     * DIAGNÓSTICOS POR ESPECIALIDADE
+     * - ?inicio=2024-01-01&fim=2024-01-31 (padrão: últimos 30 dias)
+     * - ?periodo=dia ou semana
+     */
+    @GetMapping("/especialidades")
+    public ResponseEntity<List<ContagemPeriodo>> porEspecialidade(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @RequestParam(defaultValue = AnaliseService.PERIODO_DIA) String periodo) {
+        LocalDate ate = fim == null ? LocalDate.now() : fim;
+        LocalDate de = inicio == null ? ate.minusDays(PERIODO_PADRAO_DIAS) : inicio;
+        validarPeriodo(de, ate);
+        return ResponseEntity.ok(service.porEspecialidade(de, ate, periodo));
+    }
+
+    /**
+     * MÉDICOS COM MAIS DIAGNÓSTICOS
+     * - ?inicio=...&fim=... (padrão: últimos 30 dias)
+     * - ?limite=10 (máximo 100)
+     */
+    @GetMapping("/medicos/ranking")
+    public ResponseEntity<List<MedicoRanking>> rankingMedicos(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @RequestParam(defaultValue = "10") int limite) {
+        LocalDate ate = fim == null ? LocalDate.now() : fim;
+        LocalDate de = inicio == null ? ate.minusDays(PERIODO_PADRAO_DIAS) : inicio;
+        validarPeriodo(de, ate);
+        return ResponseEntity.ok(service.rankingMedicos(de, ate, Math.min(Math.max(limite, 1), RANKING_MAXIMO)));
+    }
+
+    /**
+     * RECONSTRUIR O RESUMO A PARTIR DOS DIAGNÓSTICOS
+     */
+    @PostMapping("/reconstruir")
+    public ResponseEntity<Map<String, Object>> reconstruir() {
+        int linhas = service.reconstruir();
+        return ResponseEntity.ok(Map.of("mensagem", "Análises reconstruídas", "linhas", linhas));
+    }
+
+    private static void validarPeriodo(LocalDate inicio, LocalDate fim) {
+        if (inicio.isAfter(fim)) {
+            throw new IllegalArgumentException("Data inicial deve ser anterior à final");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.primeiraapi.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.primeiraapi.dto.ResultadoBusca;
+import com.primeiraapi.service.IndiceBusca;
+
+/**
+ * Controller da busca textual em diagnósticos e históricos de pacientes
+ */
+@CrossOrigin("*")
+@RestController
+@RequestMapping("/api/busca")
+public class BuscaController {
+
+    private static final int TAMANHO_MAXIMO = 100;
+
+    private final IndiceBusca indice;
+
+    public BuscaController(IndiceBusca indice) {
+        this.indice = indice;
+    }
+
+    /**
+     * BUSCAR POR TEXTO (ranqueado por relevância)
+     * - ?q=termos da busca
+     * - ?tipo=diagnostico ou paciente (opcional)
+     * - ?pagina=0&tamanho=20
+     */
+    @GetMapping
+    public ResponseEntity<ResultadoBusca> buscar(@RequestParam String q,
+                                                 @RequestParam(required = false) String tipo,
+                                                 @RequestParam(defaultValue = "0") int pagina,
+                                                 @RequestParam(defaultValue = "20") int tamanho) {
+        if (q.isBlank()) {
+            throw new IllegalArgumentException("Informe o texto da busca");
+        }
+        if (tipo != null && !IndiceBusca.TIPO_DIAGNOSTICO.equals(tipo) && !IndiceBusca.TIPO_PACIENTE.equals(tipo)) {
+            throw new IllegalArgumentException("Tipo deve ser diagnostico ou paciente");
+        }
+        int tamanhoPagina = Math.min(Math.max(tamanho, 1), TAMANHO_MAXIMO);
+        int paginaValida = Math.min(Math.max(pagina, 0), IndiceBusca.MAXIMO_RESULTADOS);
+        return ResponseEntity.ok(indice.buscar(q, tipo, paginaValida, tamanhoPagina));
+    }
+}
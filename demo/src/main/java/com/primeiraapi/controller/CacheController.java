@@ -0,0 +1,48 @@
+package com.primeiraapi.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Controller com as estatísticas dos caches em memória
+ */
+@CrossOrigin("*")
+@RestController
+public class CacheController {
+
+    private final CacheManager cacheManager;
+
+    public CacheController(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Acertos, falhas e despejos de cada cache
+     */
+    @GetMapping("/cache/estatisticas")
+    public ResponseEntity<?> estatisticas() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        for (String nome : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(nome) instanceof CaffeineCache cache) {
+                CacheStats stats = cache.getNativeCache().stats();
+                response.put(nome, Map.of(
+                        "tamanho", cache.getNativeCache().estimatedSize(),
+                        "acertos", stats.hitCount(),
+                        "falhas", stats.missCount(),
+                        "taxaAcerto", stats.hitRate(),
+                        "despejos", stats.evictionCount()
+                ));
+            }
+        }
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,64 @@
+package com.primeiraapi.controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+/**
+ * Guarda os bytes do corpo dos POST com Idempotency-Key, antes da conversão para a entidade:
+ * - RespostasIdempotentes compara as repetições pelo que o cliente enviou, e não pela entidade
+ *   convertida (que preenche campos como a data do diagnóstico na hora da requisição)
+ * - Sem o cabeçalho, o corpo segue direto para o conversor
+ */
+@ControllerAdvice
+class CorpoIdempotente extends RequestBodyAdviceAdapter {
+
+    static final String ATRIBUTO = CorpoIdempotente.class.getName() + ".corpo";
+
+    @Override
+    public boolean supports(MethodParameter parametro, Type tipo,
+                            Class<? extends HttpMessageConverter<?>> conversor) {
+        return true;
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage mensagem, MethodParameter parametro, Type tipo,
+                                           Class<? extends HttpMessageConverter<?>> conversor) throws IOException {
+        RequestAttributes requisicao = RequestContextHolder.getRequestAttributes();
+        if (requisicao == null || !mensagem.getHeaders().containsKey(RespostasIdempotentes.CABECALHO)) {
+            return mensagem;
+        }
+        byte[] corpo = mensagem.getBody().readAllBytes();
+        requisicao.setAttribute(ATRIBUTO, corpo, RequestAttributes.SCOPE_REQUEST);
+        return new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(corpo);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return mensagem.getHeaders();
+            }
+        };
+    }
+
+    /**
+     * Corpo guardado da requisição atual (vazio quando não houve corpo)
+     */
+    static byte[] atual() {
+        RequestAttributes requisicao = RequestContextHolder.getRequestAttributes();
+        Object corpo = requisicao == null ? null : requisicao.getAttribute(ATRIBUTO, RequestAttributes.SCOPE_REQUEST);
+        return corpo instanceof byte[] bytes ? bytes : new byte[0];
+    }
+}
@@ -1,23 +1,51 @@
 package com.primeiraapi.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.primeiraapi.dto.CamposDiagnostico;
+import com.primeiraapi.dto.PaginaCursor;
+import com.primeiraapi.dto.PaginaPeriodo;
+import com.primeiraapi.dto.ResultadoLote;
+import com.primeiraapi.dto.StatusIngestao;
+import com.primeiraapi.dto.VersaoAgregada;
 import com.primeiraapi.model.Diagnostico;
+import com.primeiraapi.service.ArquivamentoDiagnosticos;
 import com.primeiraapi.service.DiagnosticoService;
+import com.primeiraapi.service.FeedDiagnosticos;
+import com.primeiraapi.service.IngestaoDiagnosticos;
 
 /**
  * Controller responsável por expor os endpoints REST da entidade Diagnóstico.
@@ -28,63 +56,268 @@ import com.primeiraapi.service.DiagnosticoService;
 @RequestMapping("/api/diagnosticos")
 public class DiagnosticoController {
 
+    // Segundos sugeridos ao cliente quando a fila de ingestão está cheia
+    private static final String RETRY_AFTER_FILA_CHEIA = "1";
+
+    // Duração máxima de uma conexão /stream (o EventSource do navegador reconecta sozinho)
+    private static final long STREAM_TIMEOUT_MS = 30 * 60 * 1000L;
+
     private final DiagnosticoService service;
+    private final IngestaoDiagnosticos ingestao;
+    private final FeedDiagnosticos feed;
+    private final ObjectMapper objectMapper;
+    private final RespostasIdempotentes idempotentes;
+    private final ArquivamentoDiagnosticos arquivamento;
 
-    public DiagnosticoController(DiagnosticoService service) {
+    public DiagnosticoController(DiagnosticoService service, IngestaoDiagnosticos ingestao,
+                                 FeedDiagnosticos feed, ObjectMapper objectMapper,
+                                 RespostasIdempotentes idempotentes, ArquivamentoDiagnosticos arquivamento) {
         this.service = service;
+        this.ingestao = ingestao;
+        this.feed = feed;
+        this.objectMapper = objectMapper;
+        this.idempotentes = idempotentes;
+        this.arquivamento = arquivamento;
     }
 
     /**
-     * BUSCAR TODOS OS DIAGNÓSTICOS
+     * BUSCAR TODOS OS DIAGNÓSTICOS (paginado por cursor)
+     * - ?after=ID do último registro recebido (opcional)
+     * - ?limit=tamanho da página (padrão 50, máximo 500)
+     * - ?fields=campos&expand=paciente,medico: resposta enxuta (ver CamposDiagnostico)
      */
     @GetMapping
-    public ResponseEntity<?> listarTodos() {
-        List<Diagnostico> diagnosticos = service.findAll();
-        if (diagnosticos.isEmpty()) {
+    public ResponseEntity<?> listarTodos(@RequestParam(required = false) Long after,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String fields,
+                                         @RequestParam(required = false) String expand) {
+        if (projecao(fields, expand)) {
+            return ResponseEntity.ok(service.findPaginaProjetada(CamposDiagnostico.of(fields, expand), after, limit));
+        }
+        PaginaCursor<Diagnostico> pagina = service.findPagina(after, limit);
+        if (after == null && pagina.itens().isEmpty()) {
             return ResponseEntity.ok(Map.of("mensagem", "Nenhum diagnóstico cadastrado"));
         }
-        return ResponseEntity.ok(diagnosticos);
+        // ETag da página: If-None-Match igual devolve 304 sem serializar
+        String etag = VersaoAgregada.of(pagina.itens(), Diagnostico::getId, DiagnosticoController::versao).etag();
+        return ResponseEntity.ok().eTag(etag).body(pagina);
+    }
+
+    /**
+     * EXPORTAR TODOS OS DIAGNÓSTICOS (NDJSON)
+     * - Um diagnóstico por linha, escrito na resposta conforme é lido do banco
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        StreamingResponseBody corpo = saida -> service.exportar(diagnostico -> {
+            try {
+                saida.write(objectMapper.writeValueAsBytes(diagnostico));
+                saida.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(corpo);
+    }
+
+    /**
+     * ACOMPANHAR ALTERAÇÕES (Server-Sent Events)
+     * - Eventos "criado", "atualizado" e "removido", enviados depois do commit
+     * - ?medicoId= / ?pacienteId=: filtro aplicado no servidor (com os dois, valem ambos)
+     * - Cliente que não acompanha o ritmo recebe o evento "lento" e é desconectado
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Long medicoId,
+                             @RequestParam(required = false) Long pacienteId) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        FeedDiagnosticos.Assinante assinante = feed.assinar(medicoId, pacienteId, new FeedDiagnosticos.Destino() {
+            @Override
+            public void enviar(FeedDiagnosticos.Mensagem mensagem) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(mensagem.sequencia()))
+                        .name(mensagem.tipo())
+                        .data(mensagem.json(), MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void manterViva() throws IOException {
+                emitter.send(SseEmitter.event().comment("ping"));
+            }
+
+            @Override
+            public void encerrar(boolean lento) {
+                try {
+                    if (lento) {
+                        emitter.send(SseEmitter.event().name("lento")
+                                .data(Map.of("mensagem", "Eventos chegando mais rápido do que o cliente consome"),
+                                        MediaType.APPLICATION_JSON));
+                    }
+                    emitter.complete();
+                } catch (IOException | IllegalStateException e) {
+                    // conexão já encerrada pelo cliente
+                }
+            }
+        });
+        emitter.onCompletion(assinante::cancelar);
+        emitter.onTimeout(assinante::cancelar);
+        emitter.onError(erro -> assinante.cancelar());
+        return emitter;
     }
 
     /**
      * BUSCAR DIAGNÓSTICO POR ID
+     * - ?fields= / ?expand=: só os campos pedidos
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Diagnostico> buscarPorId(@PathVariable Long id) {
+    public ResponseEntity<?> buscarPorId(@PathVariable Long id,
+                                         @RequestParam(required = false) String fields,
+                                         @RequestParam(required = false) String expand,
+                                         WebRequest request) {
+        if (projecao(fields, expand)) {
+            return ResponseEntity.ok(service.findProjetadoOrThrow(CamposDiagnostico.of(fields, expand), id));
+        }
+        // If-None-Match: compara só as versões, sem carregar nem serializar o diagnóstico
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            String etag = ETags.de(id, service.findVersaoOrThrow(id));
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
         Diagnostico diagnostico = service.findOrThrow(id);
-        return ResponseEntity.ok(diagnostico);
+        return ResponseEntity.ok().eTag(ETags.de(id, versao(diagnostico))).body(diagnostico);
     }
 
     /**
      * BUSCAR DIAGNÓSTICOS DE UM PACIENTE
+     * - ?fields= / ?expand=: só os campos pedidos, em páginas por cursor (?after=, ?limit=) como a listagem geral
      */
     @GetMapping("/paciente/{pacienteId}")
-    public ResponseEntity<?> buscarPorPaciente(@PathVariable Long pacienteId) {
-        List<Diagnostico> diagnosticos = service.findByPacienteId(pacienteId);
-        if (diagnosticos.isEmpty()) {
-            return ResponseEntity.ok(Map.of("mensagem", "Nenhum diagnóstico para este paciente"));
+    public ResponseEntity<?> buscarPorPaciente(@PathVariable Long pacienteId,
+                                               @RequestParam(required = false) String fields,
+                                               @RequestParam(required = false) String expand,
+                                               @RequestParam(required = false) Long after,
+                                               @RequestParam(required = false) Integer limit,
+                                               WebRequest request) {
+        if (projecao(fields, expand)) {
+            return ResponseEntity.ok(service.findProjetadosByPacienteId(CamposDiagnostico.of(fields, expand),
+                    pacienteId, after, limit));
         }
-        return ResponseEntity.ok(diagnosticos);
+        return listaComEtag(request,
+                () -> service.findVersaoByPacienteId(pacienteId),
+                () -> service.findByPacienteId(pacienteId),
+                "Nenhum diagnóstico para este paciente");
     }
 
     /**
      * BUSCAR DIAGNÓSTICOS DE UM MÉDICO
+     * - ?fields= / ?expand=: como na busca por paciente
      */
     @GetMapping("/medico/{medicoId}")
-    public ResponseEntity<?> buscarPorMedico(@PathVariable Long medicoId) {
-        List<Diagnostico> diagnosticos = service.findByMedicoId(medicoId);
+    public ResponseEntity<?> buscarPorMedico(@PathVariable Long medicoId,
+                                             @RequestParam(required = false) String fields,
+                                             @RequestParam(required = false) String expand,
+                                             @RequestParam(required = false) Long after,
+                                             @RequestParam(required = false) Integer limit,
+                                             WebRequest request) {
+        if (projecao(fields, expand)) {
+            return ResponseEntity.ok(service.findProjetadosByMedicoId(CamposDiagnostico.of(fields, expand),
+                    medicoId, after, limit));
+        }
+        return listaComEtag(request,
+                () -> service.findVersaoByMedicoId(medicoId),
+                () -> service.findByMedicoId(medicoId),
+                "Nenhum diagnóstico para este médico");
+    }
+
+    /**
+     * BUSCAR DIAGNÓSTICOS DE UM PACIENTE EM UM PERÍODO (mais recentes primeiro)
+     * - ?inicio=2024-01-01&fim=2024-01-31 (datas inclusivas)
+     * - ?after=cursor da página anterior, ?limit=tamanho da página (padrão 50, máximo 500)
+     */
+    @GetMapping("/paciente/{pacienteId}/periodo")
+    public ResponseEntity<PaginaPeriodo<Diagnostico>> buscarPorPacienteEPeriodo(
+            @PathVariable Long pacienteId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(service.findPeriodoByPacienteId(pacienteId, inicio, fim, after, limit));
+    }
+
+    /**
+     * BUSCAR DIAGNÓSTICOS DE UM MÉDICO EM UM PERÍODO (mais recentes primeiro)
+     * - Mesmos parâmetros da busca por paciente
+     */
+    @GetMapping("/medico/{medicoId}/periodo")
+    public ResponseEntity<PaginaPeriodo<Diagnostico>> buscarPorMedicoEPeriodo(
+            @PathVariable Long medicoId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(service.findPeriodoByMedicoId(medicoId, inicio, fim, after, limit));
+    }
+
+    /**
+     * Com ?fields= ou ?expand= a consulta traz só os campos pedidos (sem eles, a resposta completa de sempre)
+     */
+    private static boolean projecao(String fields, String expand) {
+        return fields != null || expand != null;
+    }
+
+    /**
+     * Responde uma lista de diagnósticos com ETag (versão agregada)
+     * - Com If-None-Match: consulta só a versão agregada e devolve 304 se nada mudou
+     * - Sem If-None-Match (ou versão diferente): carrega a lista normalmente
+     */
+    private ResponseEntity<?> listaComEtag(WebRequest request,
+                                           Supplier<VersaoAgregada> versaoAgregada,
+                                           Supplier<List<Diagnostico>> carregar,
+                                           String mensagemVazia) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            String etag = versaoAgregada.get().etag();
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+        List<Diagnostico> diagnosticos = carregar.get();
+        String etag = VersaoAgregada.of(diagnosticos, Diagnostico::getId, DiagnosticoController::versao).etag();
         if (diagnosticos.isEmpty()) {
-            return ResponseEntity.ok(Map.of("mensagem", "Nenhum diagnóstico para este médico"));
+            return ResponseEntity.ok().eTag(etag).body(Map.of("mensagem", mensagemVazia));
         }
-        return ResponseEntity.ok(diagnosticos);
+        return ResponseEntity.ok().eTag(etag).body(diagnosticos);
+    }
+
+    /**
+     * Versão do diagnóstico somada às do paciente e do médico que vão junto na resposta
+     */
+    private static Long versao(Diagnostico diagnostico) {
+        return diagnostico.getVersao()
+                + diagnostico.getPaciente().getVersao()
+                + diagnostico.getMedico().getVersao();
     }
 
     /**
      * CADASTRAR NOVO DIAGNÓSTICO
+     * - Com diagnosticos.ingestao.assincrona=true responde 202 com um token
+     *   e o diagnóstico é gravado em lote logo em seguida
+     * - Idempotency-Key opcional: repetir o POST com a mesma chave devolve a mesma resposta
+     *   (o mesmo diagnóstico ou o mesmo token), sem cadastrar de novo
      */
     @PostMapping
-    public ResponseEntity<?> salvar(@RequestBody Diagnostico diagnostico) {
+    public ResponseEntity<?> salvar(@RequestBody Diagnostico diagnostico,
+                                    @RequestHeader(name = RespostasIdempotentes.CABECALHO, required = false)
+                                    String chaveIdempotencia) {
+        return idempotentes.executar(chaveIdempotencia, "POST /api/diagnosticos", () -> cadastrar(diagnostico));
+    }
+
+    private ResponseEntity<?> cadastrar(Diagnostico diagnostico) {
         try {
+            if (ingestao.isAssincrona()) {
+                return enfileirar(diagnostico);
+            }
             Diagnostico novoDiagnostico = service.create(diagnostico);
             URI location = ServletUriComponentsBuilder
                     .fromCurrentRequest()
@@ -102,6 +335,58 @@ public class DiagnosticoController {
         }
     }
 
+    private ResponseEntity<?> enfileirar(Diagnostico diagnostico) {
+        Optional<UUID> token = ingestao.enfileirar(diagnostico);
+        if (token.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_FILA_CHEIA)
+                    .body(Map.of("mensagem", "Fila de diagnósticos cheia, tente novamente"));
+        }
+        URI location = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .path("/ingestao/{token}")
+                .buildAndExpand(token.get())
+                .toUri();
+        return ResponseEntity.accepted()
+                .location(location)
+                .body(StatusIngestao.pendente(token.get()));
+    }
+
+    /**
+     * SITUAÇÃO DE UM DIAGNÓSTICO ENVIADO PELA INGESTÃO ASSÍNCRONA
+     * - PENDENTE, CRIADO (com id) ou FALHOU (com erro)
+     */
+    @GetMapping("/ingestao/{token}")
+    public ResponseEntity<StatusIngestao> situacaoIngestao(@PathVariable UUID token) {
+        return ingestao.situacao(token)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND, "Token de ingestão não encontrado ou expirado"));
+    }
+
+    /**
+     * CADASTRAR DIAGNÓSTICOS EM LOTE
+     * - Recebe um array JSON e responde com o resultado de cada registro
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ResultadoLote> salvarEmLote(@RequestBody List<Diagnostico> diagnosticos) {
+        return ResponseEntity.ok(service.createEmLote(diagnosticos));
+    }
+
+    /**
+     * ARQUIVAR DIAGNÓSTICOS ANTIGOS AGORA (sem esperar o agendamento)
+     * - Move para o arquivo os anteriores a arquivamento.idade-dias; continuam nas consultas
+     *   por ID e por período, mas não podem mais ser alterados
+     */
+    @PostMapping("/arquivamento")
+    public ResponseEntity<Map<String, Object>> arquivar() {
+        int arquivados = arquivamento.arquivar();
+        return ResponseEntity.ok(Map.of(
+                "mensagem", "Arquivamento concluído",
+                "arquivados", arquivados
+        ));
+    }
+
     /**
      * ATUALIZAR DIAGNÓSTICO
      */
@@ -118,6 +403,26 @@ public class DiagnosticoController {
         }
     }
 
+    /**
+     * ATUALIZAR CAMPOS DO DIAGNÓSTICO (um único UPDATE)
+     * - Só descricao/recomendacoes presentes no JSON são alterados
+     * - "versao" opcional: 409 se o diagnóstico mudou desde a leitura
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> atualizarCampos(@PathVariable Long id, @RequestBody Map<String, Object> campos) {
+        try {
+            Diagnostico dados = objectMapper.convertValue(campos, Diagnostico.class);
+            Diagnostico atualizado = service.patch(id, dados, campos.keySet());
+            return ResponseEntity.ok(Map.of(
+                    "mensagem", "Diagnóstico atualizado com sucesso",
+                    "id", atualizado.getId(),
+                    "versao", atualizado.getVersao()
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("erro", e.getMessage()));
+        }
+    }
+
     /**
      * DELETAR DIAGNÓSTICO
      */
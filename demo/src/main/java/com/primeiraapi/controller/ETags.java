@@ -0,0 +1,13 @@
+package com.primeiraapi.controller;
+
+/**
+ * Geração de ETags fortes a partir do ID e da versão (@Version) da entidade
+ */
+final class ETags {
+
+    private ETags() {}
+
+    static String de(Long id, Long versao) {
+        return "\"" + id + "-" + versao + "\"";
+    }
+}
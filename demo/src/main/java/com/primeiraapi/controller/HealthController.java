@@ -1,8 +1,14 @@
 package com.primeiraapi.controller;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.springframework.boot.actuate.health.CompositeHealth;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,6 +21,12 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class HealthController {
 
+    private final HealthEndpoint healthEndpoint;
+
+    public HealthController(HealthEndpoint healthEndpoint) {
+        this.healthEndpoint = healthEndpoint;
+    }
+
     /**
      * Endpoint raiz - retorna informações sobre a API
      */
@@ -27,16 +39,32 @@ public class HealthController {
         response.put("endpoints", Map.of(
                 "medicos", "/api/medicos",
                 "pacientes", "/api/pacientes",
-                "diagnosticos", "/api/diagnosticos"
+                "diagnosticos", "/api/diagnosticos",
+                "metricas", "/actuator/prometheus"
         ));
         return ResponseEntity.ok(response);
     }
 
     /**
-     * Health check simples
+     * Health check de prontidão
+     * - Usa os indicadores do Actuator (inclui conexão com o banco)
+     * - Responde 503 quando algum componente está fora do ar
      */
     @GetMapping("/health")
     public ResponseEntity<?> healthCheck() {
-        return ResponseEntity.ok(Map.of("status", "OK"));
+        HealthComponent saude = healthEndpoint.health();
+        boolean pronto = Status.UP.equals(saude.getStatus());
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", pronto ? "OK" : "INDISPONIVEL");
+        if (saude instanceof CompositeHealth composto) {
+            Map<String, String> componentes = new LinkedHashMap<>();
+            composto.getComponents().forEach((nome, componente) ->
+                    componentes.put(nome, componente.getStatus().getCode()));
+            response.put("componentes", componentes);
+        }
+        return ResponseEntity
+                .status(pronto ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(response);
     }
 }
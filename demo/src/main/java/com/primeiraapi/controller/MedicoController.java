@@ -4,18 +4,30 @@ import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.primeiraapi.dto.PaginaCursor;
+import com.primeiraapi.dto.ResultadoLote;
+import com.primeiraapi.dto.VersaoAgregada;
 import com.primeiraapi.model.Medico;
 import com.primeiraapi.service.MedicoService;
 
@@ -29,37 +41,70 @@ import com.primeiraapi.service.MedicoService;
 public class MedicoController {
 
     private final MedicoService service;
+    private final ObjectMapper objectMapper;
+    private final RespostasIdempotentes idempotentes;
 
-    public MedicoController(MedicoService service) {
+    public MedicoController(MedicoService service, ObjectMapper objectMapper, RespostasIdempotentes idempotentes) {
         this.service = service;
+        this.objectMapper = objectMapper;
+        this.idempotentes = idempotentes;
     }
 
     /**
-     * BUSCAR TODOS OS MÉDICOS
+     * BUSCAR TODOS OS MÉDICOS (paginado por cursor)
+     * - ?after=ID do último registro recebido (opcional)
+     * - ?limit=tamanho da página (padrão 50, máximo 500)
      */
     @GetMapping
-    public ResponseEntity<?> listarTodos() {
-        List<Medico> medicos = service.findAll();
-        if (medicos.isEmpty()) {
+    public ResponseEntity<?> listarTodos(@RequestParam(required = false) Long after,
+                                         @RequestParam(required = false) Integer limit) {
+        PaginaCursor<Medico> pagina = service.findPagina(after, limit);
+        if (after == null && pagina.itens().isEmpty()) {
             return ResponseEntity.ok(Map.of("mensagem", "Nenhum médico cadastrado"));
         }
-        return ResponseEntity.ok(medicos);
+        // ETag da página: If-None-Match igual devolve 304 sem serializar
+        String etag = VersaoAgregada.of(pagina.itens(), Medico::getId, Medico::getVersao).etag();
+        return ResponseEntity.ok().eTag(etag).body(pagina);
     }
 
     /**
      * BUSCAR MÉDICO POR ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Medico> buscarPorId(@PathVariable Long id) {
+    public ResponseEntity<Medico> buscarPorId(@PathVariable Long id, WebRequest request) {
+        // If-None-Match: compara só a versão, sem carregar nem serializar a entidade
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            String etag = ETags.de(id, service.findVersaoOrThrow(id));
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
         Medico medico = service.findOrThrow(id);
+        return ResponseEntity.ok().eTag(ETags.de(id, medico.getVersao())).body(medico);
+    }
+
+    /**
+     * BUSCAR MÉDICO POR CRM
+     */
+    @GetMapping("/crm/{crm}")
+    public ResponseEntity<Medico> buscarPorCrm(@PathVariable String crm) {
+        Medico medico = service.findByCrm(crm)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Médico não encontrado"));
         return ResponseEntity.ok(medico);
     }
 
     /**
      * CADASTRAR NOVO MÉDICO
+     * - Idempotency-Key opcional: repetir o POST com a mesma chave devolve a mesma resposta
      */
     @PostMapping
-    public ResponseEntity<?> salvar(@RequestBody Medico medico) {
+    public ResponseEntity<?> salvar(@RequestBody Medico medico,
+                                    @RequestHeader(name = RespostasIdempotentes.CABECALHO, required = false)
+                                    String chaveIdempotencia) {
+        return idempotentes.executar(chaveIdempotencia, "POST /api/medicos", () -> cadastrar(medico));
+    }
+
+    private ResponseEntity<?> cadastrar(Medico medico) {
         try {
             Medico novoMedico = service.create(medico);
             URI location = ServletUriComponentsBuilder
@@ -78,6 +123,15 @@ public class MedicoController {
         }
     }
 
+    /**
+     * CADASTRAR MÉDICOS EM LOTE
+     * - Recebe um array JSON e responde com o resultado de cada registro
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ResultadoLote> salvarEmLote(@RequestBody List<Medico> medicos) {
+        return ResponseEntity.ok(service.createEmLote(medicos));
+    }
+
     /**
      * ATUALIZAR MÉDICO
      */
@@ -94,6 +148,27 @@ public class MedicoController {
         }
     }
 
+    /**
+     * ATUALIZAR CAMPOS DO MÉDICO (um único UPDATE)
+     * - Só os campos presentes no JSON são alterados (null explícito limpa o campo)
+     * - "versao" opcional: 409 se o medico mudou desde a leitura
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> atualizarCampos(@PathVariable Long id, @RequestBody Map<String, Object> campos) {
+        try {
+            Medico dados = objectMapper.convertValue(campos, Medico.class);
+            Medico atualizado = service.patch(id, dados, campos.keySet());
+            return ResponseEntity.ok()
+                    .eTag(ETags.de(id, atualizado.getVersao()))
+                    .body(Map.of(
+                            "mensagem", "Médico atualizado com sucesso",
+                            "medico", atualizado
+                    ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("erro", e.getMessage()));
+        }
+    }
+
     /**
      * DELETAR MÉDICO
      */
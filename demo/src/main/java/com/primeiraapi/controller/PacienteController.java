@@ -4,20 +4,34 @@ import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.primeiraapi.dto.PaginaCursor;
+import com.primeiraapi.dto.ResultadoLote;
+import com.primeiraapi.dto.VersaoAgregada;
 import com.primeiraapi.model.Paciente;
+import com.primeiraapi.model.ResumoPaciente;
 import com.primeiraapi.service.PacienteService;
+import com.primeiraapi.service.ResumoPacientes;
 
 /**
  * Controller responsável por expor os endpoints REST da entidade Paciente.
@@ -29,37 +43,92 @@ import com.primeiraapi.service.PacienteService;
 public class PacienteController {
 
     private final PacienteService service;
+    private final ObjectMapper objectMapper;
+    private final RespostasIdempotentes idempotentes;
+    private final ResumoPacientes resumos;
 
-    public PacienteController(PacienteService service) {
+    public PacienteController(PacienteService service, ObjectMapper objectMapper, RespostasIdempotentes idempotentes,
+                              ResumoPacientes resumos) {
         this.service = service;
+        this.objectMapper = objectMapper;
+        this.idempotentes = idempotentes;
+        this.resumos = resumos;
     }
 
     /**
-     * BUSCAR TODOS OS PACIENTES
+     * BUSCAR TODOS OS PACIENTES (paginado por cursor)
+     * - ?after=ID do último registro recebido (opcional)
+     * - ?limit=tamanho da página (padrão 50, máximo 500)
      */
     @GetMapping
-    public ResponseEntity<?> listarTodos() {
-        List<Paciente> pacientes = service.findAll();
-        if (pacientes.isEmpty()) {
+    public ResponseEntity<?> listarTodos(@RequestParam(required = false) Long after,
+                                         @RequestParam(required = false) Integer limit) {
+        PaginaCursor<Paciente> pagina = service.findPagina(after, limit);
+        if (after == null && pagina.itens().isEmpty()) {
             return ResponseEntity.ok(Map.of("mensagem", "Nenhum paciente cadastrado"));
         }
-        return ResponseEntity.ok(pacientes);
+        // ETag da página: If-None-Match igual devolve 304 sem serializar
+        String etag = VersaoAgregada.of(pagina.itens(), Paciente::getId, Paciente::getVersao).etag();
+        return ResponseEntity.ok().eTag(etag).body(pagina);
     }
 
     /**
      * BUSCAR PACIENTE POR ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Paciente> buscarPorId(@PathVariable Long id) {
+    public ResponseEntity<Paciente> buscarPorId(@PathVariable Long id, WebRequest request) {
+        // If-None-Match: compara só a versão, sem carregar nem serializar a entidade
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            String etag = ETags.de(id, service.findVersaoOrThrow(id));
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
         Paciente paciente = service.findOrThrow(id);
+        return ResponseEntity.ok().eTag(ETags.de(id, paciente.getVersao())).body(paciente);
+    }
+
+    /**
+     * RESUMO DOS DIAGNÓSTICOS DO PACIENTE
+     * - Quantidade, data, ID e médico do último diagnóstico, especialidades já atendidas
+     * - Lido da tabela de resumo (uma linha por paciente), sem percorrer os diagnósticos
+     */
+    @GetMapping("/{id}/resumo")
+    public ResponseEntity<ResumoPaciente> buscarResumo(@PathVariable Long id) {
+        return ResponseEntity.ok(resumos.findOrThrow(id));
+    }
+
+    /**
+     * RECALCULAR OS RESUMOS DE TODOS OS PACIENTES A PARTIR DOS DIAGNÓSTICOS
+     */
+    @PostMapping("/resumos/reparar")
+    public ResponseEntity<Map<String, Object>> repararResumos() {
+        int resumidos = resumos.reparar();
+        return ResponseEntity.ok(Map.of("mensagem", "Resumos recalculados", "resumos", resumidos));
+    }
+
+    /**
+     * BUSCAR PACIENTE POR CPF
+     */
+    @GetMapping("/cpf/{cpf}")
+    public ResponseEntity<Paciente> buscarPorCpf(@PathVariable String cpf) {
+        Paciente paciente = service.findByCpf(cpf)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Paciente não encontrado"));
         return ResponseEntity.ok(paciente);
     }
 
     /**
      * CADASTRAR NOVO PACIENTE
+     * - Idempotency-Key opcional: repetir o POST com a mesma chave devolve a mesma resposta
      */
     @PostMapping
-    public ResponseEntity<?> salvar(@RequestBody Paciente paciente) {
+    public ResponseEntity<?> salvar(@RequestBody Paciente paciente,
+                                    @RequestHeader(name = RespostasIdempotentes.CABECALHO, required = false)
+                                    String chaveIdempotencia) {
+        return idempotentes.executar(chaveIdempotencia, "POST /api/pacientes", () -> cadastrar(paciente));
+    }
+
+    private ResponseEntity<?> cadastrar(Paciente paciente) {
         try {
             Paciente novoPaciente = service.create(paciente);
             URI location = ServletUriComponentsBuilder
@@ -78,6 +147,15 @@ public class PacienteController {
         }
     }
 
+    /**
+     * CADASTRAR PACIENTES EM LOTE
+     * - Recebe um array JSON e responde com o resultado de cada registro
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ResultadoLote> salvarEmLote(@RequestBody List<Paciente> pacientes) {
+        return ResponseEntity.ok(service.createEmLote(pacientes));
+    }
+
     /**
      * ATUALIZAR PACIENTE
      */
@@ -94,6 +172,27 @@ public class PacienteController {
         }
     }
 
+    /**
+     * ATUALIZAR CAMPOS DO PACIENTE (um único UPDATE)
+     * - Só os campos presentes no JSON são alterados (null explícito limpa o campo)
+     * - "versao" opcional: 409 se o paciente mudou desde a leitura
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> atualizarCampos(@PathVariable Long id, @RequestBody Map<String, Object> campos) {
+        try {
+            Paciente dados = objectMapper.convertValue(campos, Paciente.class);
+            Paciente atualizado = service.patch(id, dados, campos.keySet());
+            return ResponseEntity.ok()
+                    .eTag(ETags.de(id, atualizado.getVersao()))
+                    .body(Map.of(
+                            "mensagem", "Paciente atualizado com sucesso",
+                            "paciente", atualizado
+                    ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("erro", e.getMessage()));
+        }
+    }
+
     /**
      * DELETAR PACIENTE
      */
@@ -0,0 +1,261 @@
+package com.primeiraapi.controller;
+
+import java.io.IOException;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.primeiraapi.model.RespostaIdempotente;
+import com.primeiraapi.repository.RespostaIdempotenteRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Respostas dos POST guardadas pela chave Idempotency-Key enviada pelo cliente:
+ * - Repetição com a mesma chave e o mesmo corpo recebe a resposta guardada (status, Location
+ *   e corpo) com o cabeçalho Idempotent-Replayed, sem cadastrar de novo
+ * - Mesma chave com outro corpo → 422; o corpo é comparado como chegou (JSON canônico)
+ * - Locks por listra (hash da chave) só para consultar e reservar a chave: de duas tentativas
+ *   simultâneas com a mesma chave, a primeira reserva e cadastra fora do lock, e a segunda
+ *   espera a reserva e recebe a resposta guardada; chaves diferentes não esperam cadastros alheios
+ * - Cache limitado em memória com validade; com idempotencia.persistir=true também na
+ *   tabela respostas_idempotentes (sobrevive a reinícios)
+ * - Respostas 5xx não são guardadas: a repetição tenta de novo
+ */
+@Component
+class RespostasIdempotentes {
+
+    static final String CABECALHO = "Idempotency-Key";
+    static final String CABECALHO_REPETIDA = "Idempotent-Replayed";
+
+    private static final int LISTRAS = 256;
+    private static final int TAMANHO_MAXIMO_CHAVE = 255;
+    private static final Duration INTERVALO_LIMPEZA = Duration.ofHours(1);
+
+    private record Guardada(String impressao, int status, String location, JsonNode corpo) {
+    }
+
+    // Chave sendo cadastrada agora; resposta completa com null quando nada foi guardado
+    private record Reserva(String impressao, CompletableFuture<Guardada> resposta) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter canonico;
+    private final RespostaIdempotenteRepository repository;
+    private final boolean persistir;
+    private final Duration validade;
+    private final Cache<String, Guardada> respostas;
+    private final ReentrantLock[] listras = new ReentrantLock[LISTRAS];
+    private final Map<String, Reserva> emAndamento = new ConcurrentHashMap<>();
+    private final AtomicLong proximaLimpeza = new AtomicLong();
+    private final Counter repetidas;
+    private final Counter conflitos;
+
+    RespostasIdempotentes(ObjectMapper objectMapper,
+                          RespostaIdempotenteRepository repository,
+                          MeterRegistry registry,
+                          @Value("${idempotencia.capacidade:100000}") long capacidade,
+                          @Value("${idempotencia.validade:24h}") Duration validade,
+                          @Value("${idempotencia.persistir:false}") boolean persistir) {
+        this.objectMapper = objectMapper;
+        this.canonico = objectMapper.writer(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.repository = repository;
+        this.persistir = persistir;
+        this.validade = validade;
+        this.respostas = Caffeine.newBuilder()
+                .maximumSize(capacidade)
+                .expireAfterWrite(validade)
+                .build();
+        for (int i = 0; i < LISTRAS; i++) {
+            listras[i] = new ReentrantLock();
+        }
+        this.repetidas = registry.counter("idempotencia.requisicoes", "resultado", "repetida");
+        this.conflitos = registry.counter("idempotencia.requisicoes", "resultado", "conflito");
+    }
+
+    /**
+     * Executa o cadastro uma única vez por chave (sem chave, executa sempre)
+     * - A impressão é o corpo recebido em JSON canônico (chaves ordenadas), não a entidade convertida
+     * - Sob o lock da listra só se consulta e reserva a chave; o cadastro roda fora dele, e as
+     *   repetições simultâneas esperam a reserva terminar para receber a mesma resposta
+     *
+     * @param rota método e caminho, para a mesma chave em endpoints diferentes não colidir
+     */
+    ResponseEntity<?> executar(String chave, String rota, Supplier<ResponseEntity<?>> cadastrar) {
+        if (chave == null) {
+            return cadastrar.get();
+        }
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            return ResponseEntity.badRequest().body(Map.of("erro",
+                    CABECALHO + " deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres"));
+        }
+        String id = rota + " " + chave;
+        String impressao = impressao(CorpoIdempotente.atual());
+
+        while (true) {
+            Reserva reserva;
+            boolean minha = false;
+            ReentrantLock lock = listras[listra(id)];
+            lock.lock();
+            try {
+                Guardada guardada = buscar(id);
+                if (guardada != null) {
+                    return responderGuardada(guardada, impressao);
+                }
+                reserva = emAndamento.get(id);
+                if (reserva == null) {
+                    reserva = new Reserva(impressao, new CompletableFuture<>());
+                    emAndamento.put(id, reserva);
+                    minha = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (minha) {
+                return cadastrarReservada(id, reserva, cadastrar);
+            }
+            if (!reserva.impressao().equals(impressao)) {
+                return conflito();
+            }
+            // Quem reservou não guardou resposta (5xx ou exceção): tenta de novo
+            Guardada guardada = reserva.resposta().join();
+            if (guardada != null) {
+                return responderGuardada(guardada, impressao);
+            }
+        }
+    }
+
+    private ResponseEntity<?> cadastrarReservada(String id, Reserva reserva, Supplier<ResponseEntity<?>> cadastrar) {
+        Guardada guardada = null;
+        try {
+            ResponseEntity<?> resposta = cadastrar.get();
+            if (!resposta.getStatusCode().is5xxServerError()) {
+                guardada = guardar(id, reserva.impressao(), resposta);
+            }
+            return resposta;
+        } finally {
+            // Sai da reserva sob o lock: quem consultar depois já encontra a resposta guardada
+            ReentrantLock lock = listras[listra(id)];
+            lock.lock();
+            try {
+                emAndamento.remove(id);
+            } finally {
+                lock.unlock();
+            }
+            reserva.resposta().complete(guardada);
+        }
+    }
+
+    private ResponseEntity<?> responderGuardada(Guardada guardada, String impressao) {
+        if (!guardada.impressao().equals(impressao)) {
+            return conflito();
+        }
+        repetidas.increment();
+        return repetir(guardada);
+    }
+
+    private ResponseEntity<?> conflito() {
+        conflitos.increment();
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of("erro",
+                CABECALHO + " já usada com outro conteúdo"));
+    }
+
+    private Guardada buscar(String id) {
+        Guardada guardada = respostas.getIfPresent(id);
+        if (guardada != null || !persistir) {
+            return guardada;
+        }
+        Instant limite = Instant.now().minus(validade);
+        guardada = repository.findById(id)
+                .filter(linha -> linha.getCriadaEm().isAfter(limite))
+                .map(linha -> new Guardada(linha.getImpressao(), linha.getStatus(), linha.getLocation(),
+                        lerCorpo(linha.getCorpo())))
+                .orElse(null);
+        if (guardada != null) {
+            respostas.put(id, guardada);
+        }
+        return guardada;
+    }
+
+    private Guardada guardar(String id, String impressao, ResponseEntity<?> resposta) {
+        URI location = resposta.getHeaders().getLocation();
+        Guardada guardada = new Guardada(impressao, resposta.getStatusCode().value(),
+                location == null ? null : location.toString(), objectMapper.valueToTree(resposta.getBody()));
+        respostas.put(id, guardada);
+        if (persistir) {
+            limparVencidas();
+            repository.save(new RespostaIdempotente(id, impressao, guardada.status(), guardada.location(),
+                    guardada.corpo().toString(), Instant.now()));
+        }
+        return guardada;
+    }
+
+    private ResponseEntity<?> repetir(Guardada guardada) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.status(guardada.status())
+                .header(CABECALHO_REPETIDA, "true");
+        if (guardada.location() != null) {
+            resposta.location(URI.create(guardada.location()));
+        }
+        return resposta.body(guardada.corpo());
+    }
+
+    // No máximo uma limpeza da tabela por intervalo, feita por quem grava
+    private void limparVencidas() {
+        long agora = System.currentTimeMillis();
+        long proxima = proximaLimpeza.get();
+        if (agora >= proxima && proximaLimpeza.compareAndSet(proxima, agora + INTERVALO_LIMPEZA.toMillis())) {
+            repository.removerCriadasAntesDe(Instant.now().minus(validade));
+        }
+    }
+
+    private static int listra(String id) {
+        int hash = id.hashCode();
+        return (hash ^ (hash >>> 16)) & (LISTRAS - 1);
+    }
+
+    // Mesmo JSON com outra ordem de chaves ou outros espaços tem a mesma impressão
+    private String impressao(byte[] corpo) {
+        byte[] normalizado;
+        try {
+            normalizado = canonico.writeValueAsBytes(objectMapper.readValue(corpo, Object.class));
+        } catch (IOException e) {
+            normalizado = corpo;
+        }
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(normalizado));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Falha ao calcular a impressão da requisição", e);
+        }
+    }
+
+    private JsonNode lerCorpo(String corpo) {
+        try {
+            return objectMapper.readTree(corpo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Resposta idempotente guardada inválida", e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.primeiraapi.dto;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Forma da resposta de diagnósticos pedida pelo cliente (?fields= e ?expand=).
+ * - diagnostico: campos do próprio diagnóstico (id sempre incluído)
+ * - paciente / medico: campos da entidade expandida (vazio = não expandir, só pacienteId/medicoId)
+ *
+ * Exemplos:
+ * - ?fields=id,descricao                    → só id e descrição
+ * - ?expand=medico                          → diagnóstico + médico completo, paciente só pelo ID
+ * - ?fields=descricao,paciente.nome         → descrição + { paciente: { id, nome } }
+ */
+public record CamposDiagnostico(Set<String> diagnostico, Set<String> paciente, Set<String> medico) {
+
+    public static final List<String> CAMPOS_DIAGNOSTICO = List.of(
+            "id", "descricao", "recomendacoes", "dataDiagnostico", "versao", "pacienteId", "medicoId");
+    public static final List<String> CAMPOS_PACIENTE = List.of(
+            "id", "nome", "cpf", "dataNascimento", "telefone", "email", "historicoMedico", "versao");
+    public static final List<String> CAMPOS_MEDICO = List.of(
+            "id", "nome", "crm", "especialidade", "telefone", "email", "versao");
+
+    private static final String PACIENTE = "paciente";
+    private static final String MEDICO = "medico";
+
+    /**
+     * Interpreta ?fields= e ?expand= (listas separadas por vírgula)
+     * - Campo desconhecido: IllegalArgumentException (400)
+     * - "paciente.nome" em fields já expande o paciente, só com os campos pedidos
+     */
+    public static CamposDiagnostico of(String fields, String expand) {
+        Set<String> expandir = separar(expand);
+        for (String relacao : expandir) {
+            if (!PACIENTE.equals(relacao) && !MEDICO.equals(relacao)) {
+                throw new IllegalArgumentException("Expansão desconhecida: " + relacao + " (use paciente ou medico)");
+            }
+        }
+
+        Set<String> diagnostico = new LinkedHashSet<>();
+        Set<String> paciente = new LinkedHashSet<>();
+        Set<String> medico = new LinkedHashSet<>();
+        for (String campo : separar(fields)) {
+            if (campo.startsWith(PACIENTE + ".")) {
+                paciente.add(validar(campo.substring(PACIENTE.length() + 1), CAMPOS_PACIENTE, campo));
+            } else if (campo.startsWith(MEDICO + ".")) {
+                medico.add(validar(campo.substring(MEDICO.length() + 1), CAMPOS_MEDICO, campo));
+            } else {
+                diagnostico.add(validar(campo, CAMPOS_DIAGNOSTICO, campo));
+            }
+        }
+
+        // Sem ?fields= de diagnóstico: todos; relação expandida sem campos: todos os dela
+        if (diagnostico.isEmpty() && (fields == null || paciente.isEmpty() && medico.isEmpty())) {
+            diagnostico.addAll(CAMPOS_DIAGNOSTICO);
+            if (expandir.contains(PACIENTE)) {
+                diagnostico.remove("pacienteId");
+            }
+            if (expandir.contains(MEDICO)) {
+                diagnostico.remove("medicoId");
+            }
+        }
+        diagnostico.add("id");
+        if (expandir.contains(PACIENTE) && paciente.isEmpty()) {
+            paciente.addAll(CAMPOS_PACIENTE);
+        }
+        if (expandir.contains(MEDICO) && medico.isEmpty()) {
+            medico.addAll(CAMPOS_MEDICO);
+        }
+        return new CamposDiagnostico(ordenar(diagnostico, CAMPOS_DIAGNOSTICO),
+                ordenar(paciente, CAMPOS_PACIENTE), ordenar(medico, CAMPOS_MEDICO));
+    }
+
+    private static Set<String> separar(String lista) {
+        Set<String> itens = new LinkedHashSet<>();
+        if (lista != null) {
+            Arrays.stream(lista.split(",")).map(String::trim).filter(s -> !s.isEmpty()).forEach(itens::add);
+        }
+        return itens;
+    }
+
+    private static String validar(String campo, List<String> permitidos, String original) {
+        if (!permitidos.contains(campo)) {
+            throw new IllegalArgumentException("Campo desconhecido: " + original);
+        }
+        return campo;
+    }
+
+    // Mantém a ordem da entidade e garante o id de cada parte incluída
+    private static Set<String> ordenar(Set<String> pedidos, List<String> ordem) {
+        Set<String> ordenados = new LinkedHashSet<>();
+        if (!pedidos.isEmpty()) {
+            ordenados.add("id");
+            ordem.stream().filter(pedidos::contains).forEach(ordenados::add);
+        }
+        return ordenados;
+    }
+}
@@ -0,0 +1,8 @@
+package com.primeiraapi.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Quantidade de diagnósticos de uma especialidade em um período (dia ou semana iniciada em "inicio")
+ */
+public record ContagemPeriodo(String especialidade, LocalDate inicio, Long quantidade) {}
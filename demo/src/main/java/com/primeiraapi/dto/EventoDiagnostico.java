@@ -0,0 +1,31 @@
+package com.primeiraapi.dto;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.primeiraapi.model.Diagnostico;
+
+/**
+ * Alteração de um diagnóstico enviada às assinaturas de /api/diagnosticos/stream.
+ * - tipo: criado, atualizado ou removido (removido só traz id, paciente e médico)
+ * - pacienteId e medicoId: usados no filtro das assinaturas
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EventoDiagnostico(String tipo, Long id, Long pacienteId, Long medicoId, Long versao,
+                                String descricao, String recomendacoes, LocalDateTime dataDiagnostico) {
+
+    public static final String CRIADO = "criado";
+    public static final String ATUALIZADO = "atualizado";
+    public static final String REMOVIDO = "removido";
+
+    // Paciente e médico podem ser proxies não carregados: getId() não dispara consulta
+    public static EventoDiagnostico de(String tipo, Diagnostico diagnostico) {
+        return new EventoDiagnostico(tipo, diagnostico.getId(),
+                diagnostico.getPaciente().getId(), diagnostico.getMedico().getId(), diagnostico.getVersao(),
+                diagnostico.getDescricao(), diagnostico.getRecomendacoes(), diagnostico.getDataDiagnostico());
+    }
+
+    public static EventoDiagnostico removido(Long id, Long pacienteId, Long medicoId) {
+        return new EventoDiagnostico(REMOVIDO, id, pacienteId, medicoId, null, null, null, null);
+    }
+}
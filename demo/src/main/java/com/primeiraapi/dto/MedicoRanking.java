@@ -0,0 +1,6 @@
+package com.primeiraapi.dto;
+
+/**
+ * Posição de um médico no ranking de volume de diagnósticos
+ */
+public record MedicoRanking(Long medicoId, String nome, String especialidade, Long quantidade) {}
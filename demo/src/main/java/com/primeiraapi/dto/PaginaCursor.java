@@ -0,0 +1,38 @@
+package com.primeiraapi.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados paginada por cursor (keyset).
+ * - itens: registros da página atual, ordenados por ID
+ * - proximoCursor: ID a ser enviado em ?after= para buscar a próxima página
+ *   (null quando não há mais registros)
+ */
+public record PaginaCursor<T>(List<T> itens, Long proximoCursor) {
+
+    public static final int LIMITE_PADRAO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    /**
+     * Garante que o limite pedido pelo cliente fique entre 1 e LIMITE_MAXIMO
+     */
+    public static int normalizarLimite(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return LIMITE_PADRAO;
+        }
+        return Math.min(limit, LIMITE_MAXIMO);
+    }
+
+    /**
+     * Monta a página a partir de uma consulta que buscou limite + 1 registros.
+     * O registro extra só serve para saber se existe próxima página.
+     */
+    public static <T> PaginaCursor<T> of(List<T> resultado, int limite, Function<T, Long> id) {
+        if (resultado.size() <= limite) {
+            return new PaginaCursor<>(resultado, null);
+        }
+        List<T> itens = resultado.subList(0, limite);
+        return new PaginaCursor<>(itens, id.apply(itens.get(limite - 1)));
+    }
+}
@@ -0,0 +1,50 @@
+package com.primeiraapi.dto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados de um período, dos mais recentes para os mais antigos.
+ * - itens: registros da página atual, ordenados por data e ID decrescentes
+ * - proximoCursor: "data_ID" do último item, a ser enviado em ?after= para buscar
+ *   a próxima página (null quando não há mais registros)
+ */
+public record PaginaPeriodo<T>(List<T> itens, String proximoCursor) {
+
+    /**
+     * Posição de onde a próxima página continua (exclusiva)
+     */
+    public record Cursor(LocalDateTime data, Long id) {
+
+        private static final char SEPARADOR = '_';
+
+        public static Cursor parse(String valor) {
+            int separador = valor.lastIndexOf(SEPARADOR);
+            try {
+                return new Cursor(LocalDateTime.parse(valor.substring(0, separador)),
+                        Long.valueOf(valor.substring(separador + 1)));
+            } catch (IndexOutOfBoundsException | DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor inválido: " + valor);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return data.toString() + SEPARADOR + id;
+        }
+    }
+
+    /**
+     * Monta a página a partir de uma consulta que buscou limite + 1 registros.
+     * O registro extra só serve para saber se existe próxima página.
+     */
+    public static <T> PaginaPeriodo<T> of(List<T> resultado, int limite, Function<T, Cursor> cursor) {
+        if (resultado.size() <= limite) {
+            return new PaginaPeriodo<>(resultado, null);
+        }
+        List<T> itens = resultado.subList(0, limite);
+        return new PaginaPeriodo<>(itens, cursor.apply(itens.get(limite - 1)).toString());
+    }
+}
@@ -0,0 +1,17 @@
+package com.primeiraapi.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de uma busca textual, ordenado por relevância.
+ * - total: quantidade de registros encontrados
+ * - itens: registros da página pedida
+ */
+public record ResultadoBusca(long total, int pagina, int tamanho, List<Item> itens) {
+
+    /**
+     * Registro encontrado: tipo (diagnostico / paciente), ID, relevância e campos de texto
+     */
+    public record Item(String tipo, Long id, float relevancia, Map<String, Object> campos) {}
+}
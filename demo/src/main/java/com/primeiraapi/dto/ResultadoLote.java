@@ -0,0 +1,37 @@
+package com.primeiraapi.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Resultado de um cadastro em lote.
+ * - criados / falhas: totais do lote
+ * - itens: resultado de cada registro, na mesma ordem em que foi enviado
+ */
+public record ResultadoLote(int criados, int falhas, List<Item> itens) {
+
+    public static ResultadoLote of(List<Item> itens) {
+        int criados = (int) itens.stream().filter(Item::sucesso).count();
+        return new ResultadoLote(criados, itens.size() - criados, itens);
+    }
+
+    /**
+     * Resultado de um registro do lote: id quando criado, erro quando rejeitado
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Item(int indice, Long id, String erro) {
+
+        public static Item criado(int indice, Long id) {
+            return new Item(indice, id, null);
+        }
+
+        public static Item falha(int indice, String erro) {
+            return new Item(indice, null, erro);
+        }
+
+        public boolean sucesso() {
+            return erro == null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.primeiraapi.dto;
+
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Situação de um diagnóstico recebido pela ingestão assíncrona.
+ * - token: devolvido no 202 do POST, consultado em /api/diagnosticos/ingestao/{token}
+ * - id: preenchido quando CRIADO; erro: preenchido quando FALHOU
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StatusIngestao(UUID token, Situacao situacao, Long id, String erro) {
+
+    public enum Situacao { PENDENTE, CRIADO, FALHOU }
+
+    public static StatusIngestao pendente(UUID token) {
+        return new StatusIngestao(token, Situacao.PENDENTE, null, null);
+    }
+
+    public static StatusIngestao criado(UUID token, Long id) {
+        return new StatusIngestao(token, Situacao.CRIADO, id, null);
+    }
+
+    public static StatusIngestao falhou(UUID token, String erro) {
+        return new StatusIngestao(token, Situacao.FALHOU, null, erro);
+    }
+}
@@ -0,0 +1,33 @@
+package com.primeiraapi.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Versão de uma lista de registros, calculada no banco sem carregar as linhas.
+ * - quantidade: muda em inserções e remoções
+ * - maiorId: muda em toda inserção (IDs são crescentes)
+ * - somaVersoes: soma dos @Version; cresce a cada UPDATE
+ */
+public record VersaoAgregada(Long quantidade, Long maiorId, Long somaVersoes) {
+
+    /**
+     * Mesmo cálculo feito no banco, a partir de registros já carregados
+     */
+    public static <T> VersaoAgregada of(List<T> registros, Function<T, Long> id, Function<T, Long> versao) {
+        long maiorId = 0;
+        long somaVersoes = 0;
+        for (T registro : registros) {
+            maiorId = Math.max(maiorId, id.apply(registro));
+            somaVersoes += versao.apply(registro);
+        }
+        return new VersaoAgregada((long) registros.size(), maiorId, somaVersoes);
+    }
+
+    /**
+     * ETag forte (entre aspas) que identifica esta versão da lista
+     */
+    public String etag() {
+        return "\"" + quantidade + "-" + maiorId + "-" + somaVersoes + "\"";
+    }
+}
@@ -1,5 +1,6 @@
 package com.primeiraapi.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -38,4 +39,16 @@ public class ApiExceptionHandler {
                 .status(HttpStatus.BAD_REQUEST)
                 .body(ex.getMessage());
     }
+
+    /**
+     * Trata conflitos de bloqueio otimista (@Version)
+     * Exemplo: duas requisições atualizando o mesmo paciente ao mesmo tempo
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body("Registro alterado por outra requisição; busque a versão atual e tente novamente");
+    }
 }
@@ -0,0 +1,31 @@
+package com.primeiraapi.exception;
+
+import java.util.Locale;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Identifica qual restrição UNIQUE causou um DataIntegrityViolationException.
+ * O nome da restrição aparece na mensagem do driver JDBC (ex: H2 usa maiúsculas).
+ */
+public final class ViolacaoUnicidade {
+
+    private ViolacaoUnicidade() {}
+
+    /**
+     * Retorna true se a exceção foi causada pela restrição informada
+     */
+    public static boolean causadaPor(DataIntegrityViolationException ex, String restricao) {
+        String nome = restricao.toUpperCase(Locale.ROOT);
+        for (Throwable causa = ex; causa != null; causa = causa.getCause()) {
+            String mensagem = causa.getMessage();
+            if (mensagem != null && mensagem.toUpperCase(Locale.ROOT).contains(nome)) {
+                return true;
+            }
+            if (causa.getCause() == causa) {
+                break;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,58 @@
+package com.primeiraapi.model;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+/**
+ * Tabela de resumo: quantidade de diagnósticos por médico, especialidade e dia.
+ * Mantida incrementalmente pelo DiagnosticoService e reconstruível do zero (AnaliseService).
+ * A especialidade é a gravada no diagnóstico: mudar a especialidade do médico não move as contagens antigas.
+ */
+@Entity
+@Table(name = "contagem_diagnosticos")
+public class ContagemDiagnostico implements Persistable<ContagemDiagnosticoId> {
+
+    @EmbeddedId
+    private ContagemDiagnosticoId id;
+
+    @Column(nullable = false)
+    private long quantidade;
+
+    // Chave é atribuída por nós: sem isto o saveAll faria um SELECT por linha antes do INSERT
+    @Transient
+    private boolean novo = true;
+
+    public ContagemDiagnostico() {}
+
+    public ContagemDiagnostico(ContagemDiagnosticoId id, long quantidade) {
+        this.id = id;
+        this.quantidade = quantidade;
+    }
+
+    @Override
+    public ContagemDiagnosticoId getId() {
+        return id;
+    }
+
+    public long getQuantidade() {
+        return quantidade;
+    }
+
+    @Override
+    public boolean isNew() {
+        return novo;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarExistente() {
+        this.novo = false;
+    }
+}
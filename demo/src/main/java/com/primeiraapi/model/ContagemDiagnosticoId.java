@@ -0,0 +1,57 @@
+package com.primeiraapi.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+ * Chave da contagem de diagnósticos: um médico, na especialidade que tinha ao diagnosticar, em um dia
+ */
+@Embeddable
+public class ContagemDiagnosticoId implements Serializable {
+
+    @Column(name = "medico_id", nullable = false)
+    private Long medicoId;
+
+    @Column(nullable = false)
+    private String especialidade;
+
+    @Column(nullable = false)
+    private LocalDate dia;
+
+    public ContagemDiagnosticoId() {}
+
+    public ContagemDiagnosticoId(Long medicoId, String especialidade, LocalDate dia) {
+        this.medicoId = medicoId;
+        this.especialidade = especialidade;
+        this.dia = dia;
+    }
+
+    public Long getMedicoId() {
+        return medicoId;
+    }
+
+    public String getEspecialidade() {
+        return especialidade;
+    }
+
+    public LocalDate getDia() {
+        return dia;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ContagemDiagnosticoId outro)) return false;
+        return Objects.equals(medicoId, outro.medicoId) && Objects.equals(especialidade, outro.especialidade)
+                && Objects.equals(dia, outro.dia);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(medicoId, especialidade, dia);
+    }
+}
@@ -2,14 +2,21 @@ package com.primeiraapi.model;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 
 /**
@@ -17,17 +24,27 @@ import jakarta.validation.constraints.NotBlank;
  * Relaciona um Paciente com um Médico e contém informações sobre o diagnóstico.
  */
 @Entity
-@Table(name = "diagnosticos")
+@Table(name = "diagnosticos", indexes = {
+        // Listagens por paciente/médico em um período, mais recentes primeiro
+        @Index(name = Diagnostico.IDX_PACIENTE_DATA, columnList = "paciente_id, data_diagnostico"),
+        @Index(name = Diagnostico.IDX_MEDICO_DATA, columnList = "medico_id, data_diagnostico")
+})
 public class Diagnostico {
+    public static final String IDX_PACIENTE_DATA = "idx_diagnosticos_paciente_data";
+    public static final String IDX_MEDICO_DATA = "idx_diagnosticos_medico_data";
+
+    // Sequência com alocação em blocos de 50: permite inserts em lote (JDBC batching)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "diagnosticos_seq")
+    @SequenceGenerator(name = "diagnosticos_seq", sequenceName = "diagnosticos_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    // LAZY: as consultas do repositório trazem paciente e médico via JOIN FETCH
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "paciente_id", nullable = false)
     private Paciente paciente;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "medico_id", nullable = false)
     private Medico medico;
 
@@ -41,6 +58,16 @@ public class Diagnostico {
     @Column(name = "data_diagnostico")
     private LocalDateTime dataDiagnostico;
 
+    // Especialidade do médico quando o diagnóstico foi criado: as análises contam por ela,
+    // mesmo que o médico mude de especialidade depois (não sai nas respostas da API)
+    @JsonIgnore
+    @Column(name = "especialidade_medico")
+    private String especialidadeMedico;
+
+    // Incrementada a cada UPDATE: base do ETag e do bloqueio otimista
+    @Version
+    private Long versao;
+
     public Diagnostico() {
         this.dataDiagnostico = LocalDateTime.now();
     }
@@ -101,6 +128,29 @@ public class Diagnostico {
         this.dataDiagnostico = dataDiagnostico;
     }
 
+    public String getEspecialidadeMedico() {
+        return especialidadeMedico;
+    }
+
+    public void setEspecialidadeMedico(String especialidadeMedico) {
+        this.especialidadeMedico = especialidadeMedico;
+    }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    @PrePersist
+    void registrarEspecialidadeMedico() {
+        if (especialidadeMedico == null && medico != null) {
+            especialidadeMedico = medico.getEspecialidade();
+        }
+    }
+
     @Override
     public String toString() {
         return "Diagnostico{" +
@@ -0,0 +1,73 @@
+package com.primeiraapi.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/**
+ * Diagnóstico antigo, movido de "diagnosticos" pelo ArquivamentoDiagnosticos.
+ * Mesmas colunas e mesmo ID da tabela principal; só leitura (não é alterado nem removido pela API).
+ */
+@Entity
+@Table(name = "diagnosticos_arquivo", indexes = {
+        @Index(name = "idx_diagnosticos_arquivo_paciente_data", columnList = "paciente_id, data_diagnostico"),
+        @Index(name = "idx_diagnosticos_arquivo_medico_data", columnList = "medico_id, data_diagnostico")
+})
+public class DiagnosticoArquivado {
+
+    // Copiado da tabela principal: sem sequência própria
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "paciente_id", nullable = false)
+    private Paciente paciente;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "medico_id", nullable = false)
+    private Medico medico;
+
+    @Column(nullable = false)
+    private String descricao;
+
+    @Column(length = 1000)
+    private String recomendacoes;
+
+    @Column(name = "data_diagnostico")
+    private LocalDateTime dataDiagnostico;
+
+    @Column(name = "especialidade_medico")
+    private String especialidadeMedico;
+
+    private Long versao;
+
+    public DiagnosticoArquivado() {}
+
+    /**
+     * Cópia desanexada no formato das respostas da API (paciente e médico precisam estar carregados)
+     */
+    public Diagnostico paraDiagnostico() {
+        Diagnostico diagnostico = new Diagnostico(paciente, medico, descricao);
+        diagnostico.setId(id);
+        diagnostico.setRecomendacoes(recomendacoes);
+        diagnostico.setDataDiagnostico(dataDiagnostico);
+        diagnostico.setEspecialidadeMedico(especialidadeMedico);
+        diagnostico.setVersao(versao);
+        return diagnostico;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getDataDiagnostico() {
+        return dataDiagnostico;
+    }
+}
@@ -1,28 +1,41 @@
 package com.primeiraapi.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 
 /**
  * Entidade que representa um Médico do sistema.
  */
+// Ignora os campos internos do proxy do Hibernate (associação LAZY em Diagnostico)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Entity
-@Table(name = "medicos")
+@Table(name = "medicos",
+       uniqueConstraints = @UniqueConstraint(name = Medico.UK_CRM, columnNames = "crm"))
 public class Medico {
+
+    public static final String UK_CRM = "uk_medicos_crm";
+
+    // Sequência com alocação em blocos de 50: permite inserts em lote (JDBC batching)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "medicos_seq")
+    @SequenceGenerator(name = "medicos_seq", sequenceName = "medicos_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
     @Column(nullable = false)
     private String nome;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String crm; // Conselho Regional de Medicina
 
     @NotBlank
@@ -33,6 +46,10 @@ public class Medico {
 
     private String email;
 
+    // Incrementada a cada UPDATE: base do ETag e do bloqueio otimista
+    @Version
+    private Long versao;
+
     public Medico() {}
 
     public Medico(String nome, String crm, String especialidade) {
@@ -90,6 +107,26 @@ public class Medico {
         this.email = email;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    /**
+     * Cópia desligada de qualquer contexto de persistência (guardada e devolvida pelo cache)
+     */
+    public Medico copia() {
+        Medico copia = new Medico(nome, crm, especialidade);
+        copia.id = id;
+        copia.telefone = telefone;
+        copia.email = email;
+        copia.versao = versao;
+        return copia;
+    }
+
     @Override
     public String toString() {
         return "Medico{" +
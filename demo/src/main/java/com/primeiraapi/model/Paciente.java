@@ -2,30 +2,43 @@ package com.primeiraapi.model;
 
 import java.time.LocalDate;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 
 /**
  * Entidade que representa um Paciente do sistema.
  */
+// Ignora os campos internos do proxy do Hibernate (associação LAZY em Diagnostico)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Entity
-@Table(name = "pacientes")
+@Table(name = "pacientes",
+       uniqueConstraints = @UniqueConstraint(name = Paciente.UK_CPF, columnNames = "cpf"))
 public class Paciente {
+
+    public static final String UK_CPF = "uk_pacientes_cpf";
+
+    // Sequência com alocação em blocos de 50: permite inserts em lote (JDBC batching)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pacientes_seq")
+    @SequenceGenerator(name = "pacientes_seq", sequenceName = "pacientes_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
     @Column(nullable = false)
     private String nome;
 
-    @Column(unique = true, length = 14)
+    @Column(length = 14)
     private String cpf;
 
     @Column(name = "data_nascimento")
@@ -39,6 +52,10 @@ public class Paciente {
     @Column(length = 500)
     private String historicoMedico;
 
+    // Incrementada a cada UPDATE: base do ETag e do bloqueio otimista
+    @Version
+    private Long versao;
+
     public Paciente() {}
 
     public Paciente(String nome, String cpf) {
@@ -103,6 +120,28 @@ public class Paciente {
         this.historicoMedico = historicoMedico;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    /**
+     * Cópia desligada de qualquer contexto de persistência (guardada e devolvida pelo cache)
+     */
+    public Paciente copia() {
+        Paciente copia = new Paciente(nome, cpf);
+        copia.id = id;
+        copia.dataNascimento = dataNascimento;
+        copia.telefone = telefone;
+        copia.email = email;
+        copia.historicoMedico = historicoMedico;
+        copia.versao = versao;
+        return copia;
+    }
+
     @Override
     public String toString() {
         return "Paciente{" +
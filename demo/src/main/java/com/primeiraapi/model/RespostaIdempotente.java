@@ -0,0 +1,97 @@
+package com.primeiraapi.model;
+
+import java.time.Instant;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+/**
+ * Resposta de um POST guardada pela chave Idempotency-Key (cópia persistida do cache em memória,
+ * usada com idempotencia.persistir=true para sobreviver a reinícios).
+ * - chave: rota + chave enviada pelo cliente
+ * - impressao: hash do corpo da requisição (mesma chave com outro corpo → 422)
+ */
+@Entity
+@Table(name = "respostas_idempotentes", indexes = @Index(name = "idx_respostas_idempotentes_criada", columnList = "criada_em"))
+public class RespostaIdempotente implements Persistable<String> {
+
+    @Id
+    @Column(length = 400)
+    private String chave;
+
+    @Column(nullable = false, length = 64)
+    private String impressao;
+
+    @Column(nullable = false)
+    private int status;
+
+    @Column(length = 1000)
+    private String location;
+
+    @Lob
+    private String corpo;
+
+    @Column(name = "criada_em", nullable = false)
+    private Instant criadaEm;
+
+    // Chave é atribuída por nós: sem isto o save faria um SELECT antes do INSERT
+    @Transient
+    private boolean novo = true;
+
+    public RespostaIdempotente() {}
+
+    public RespostaIdempotente(String chave, String impressao, int status, String location, String corpo,
+                               Instant criadaEm) {
+        this.chave = chave;
+        this.impressao = impressao;
+        this.status = status;
+        this.location = location;
+        this.corpo = corpo;
+        this.criadaEm = criadaEm;
+    }
+
+    @Override
+    public String getId() {
+        return chave;
+    }
+
+    public String getImpressao() {
+        return impressao;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getCorpo() {
+        return corpo;
+    }
+
+    public Instant getCriadaEm() {
+        return criadaEm;
+    }
+
+    @Override
+    public boolean isNew() {
+        return novo;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarExistente() {
+        this.novo = false;
+    }
+}
@@ -0,0 +1,130 @@
+package com.primeiraapi.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+/**
+ * Resumo dos diagnósticos de um paciente, uma linha por paciente (lido pela chave primária).
+ * Mantido na mesma transação das criações/remoções de diagnósticos e reconstruível do zero (ResumoPacientes).
+ * Inclui os diagnósticos arquivados. Especialidades contadas pela especialidade do médico no momento
+ * do diagnóstico; mudanças de especialidade aparecem na próxima remoção de diagnóstico do paciente
+ * (que reconta as especialidades) ou no reparo.
+ */
+@Entity
+@Table(name = "resumos_pacientes")
+public class ResumoPaciente implements Persistable<Long> {
+
+    @Id
+    @Column(name = "paciente_id")
+    private Long pacienteId;
+
+    @Column(nullable = false)
+    private long quantidade;
+
+    @Column(name = "ultima_data_diagnostico")
+    private LocalDateTime ultimaDataDiagnostico;
+
+    @Column(name = "ultimo_diagnostico_id")
+    private Long ultimoDiagnosticoId;
+
+    @Column(name = "ultimo_medico_id")
+    private Long ultimoMedicoId;
+
+    // Especialidade → quantidade de diagnósticos (a contagem permite descontar nas remoções)
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "especialidades", length = 4000)
+    private Map<String, Long> contagemEspecialidades = new TreeMap<>();
+
+    // Chave é atribuída por nós: sem isto o saveAll faria um SELECT por linha antes do INSERT
+    @Transient
+    private boolean novo = true;
+
+    public ResumoPaciente() {}
+
+    public ResumoPaciente(Long pacienteId) {
+        this.pacienteId = pacienteId;
+    }
+
+    public Long getPacienteId() {
+        return pacienteId;
+    }
+
+    public long getQuantidade() {
+        return quantidade;
+    }
+
+    public void setQuantidade(long quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    public LocalDateTime getUltimaDataDiagnostico() {
+        return ultimaDataDiagnostico;
+    }
+
+    public Long getUltimoDiagnosticoId() {
+        return ultimoDiagnosticoId;
+    }
+
+    public Long getUltimoMedicoId() {
+        return ultimoMedicoId;
+    }
+
+    /**
+     * Diagnóstico mais recente (data, desempate pelo maior ID); null limpa
+     */
+    public void setUltimo(Long diagnosticoId, Long medicoId, LocalDateTime dataDiagnostico) {
+        this.ultimoDiagnosticoId = diagnosticoId;
+        this.ultimoMedicoId = medicoId;
+        this.ultimaDataDiagnostico = dataDiagnostico;
+    }
+
+    /**
+     * Especialidades distintas já atendidas, em ordem alfabética
+     */
+    public List<String> getEspecialidades() {
+        return List.copyOf(contagemEspecialidades.keySet());
+    }
+
+    public Map<String, Long> contagemEspecialidades() {
+        return contagemEspecialidades;
+    }
+
+    // Sempre um mapa novo: a coluna JSON é comparada por valor no flush
+    public void setContagemEspecialidades(Map<String, Long> contagemEspecialidades) {
+        this.contagemEspecialidades = new TreeMap<>(contagemEspecialidades);
+    }
+
+    @Override
+    @JsonIgnore
+    public Long getId() {
+        return pacienteId;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return novo;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarExistente() {
+        this.novo = false;
+    }
+}
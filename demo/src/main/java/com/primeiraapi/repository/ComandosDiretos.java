@@ -0,0 +1,26 @@
+package com.primeiraapi.repository;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Escritas em um único comando SQL, sem ler a entidade antes (PATCH e DELETE):
+ * - O H2 devolve a linha alterada/removida no próprio comando (FINAL TABLE / OLD TABLE)
+ * - Fragmento compartilhado pelos repositórios de paciente, médico e diagnóstico
+ */
+public interface ComandosDiretos {
+
+    /**
+     * UPDATE só das colunas informadas (e versao + 1), com WHERE id = ? [AND versao = ?]
+     *
+     * @return a linha já atualizada, ou vazio se nenhuma linha foi alterada
+     */
+    <T> Optional<T> atualizarColunas(Class<T> entidade, Long id, Long versao, Map<String, Object> colunas);
+
+    /**
+     * DELETE pelo ID
+     *
+     * @return as colunas pedidas da linha removida, ou vazio se ela não existia
+     */
+    Optional<Object[]> removerRetornando(Class<?> entidade, Long id, String... colunas);
+}
@@ -0,0 +1,65 @@
+package com.primeiraapi.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.Table;
+
+// Implementação do fragmento ComandosDiretos (SQL nativo do H2; colunas vêm das listas fixas dos serviços)
+class ComandosDiretosImpl implements ComandosDiretos {
+
+    private final EntityManager entityManager;
+
+    ComandosDiretosImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> atualizarColunas(Class<T> entidade, Long id, Long versao, Map<String, Object> colunas) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM FINAL TABLE (UPDATE ")
+                .append(tabela(entidade)).append(" SET ");
+        int parametro = 1;
+        for (String coluna : colunas.keySet()) {
+            sql.append(coluna).append(" = ?").append(parametro++).append(", ");
+        }
+        sql.append("versao = versao + 1 WHERE id = ?").append(parametro);
+        if (versao != null) {
+            sql.append(" AND versao = ?").append(parametro + 1);
+        }
+        sql.append(')');
+
+        Query query = entityManager.createNativeQuery(sql.toString(), entidade);
+        int posicao = 1;
+        for (Object valor : colunas.values()) {
+            query.setParameter(posicao++, valor);
+        }
+        query.setParameter(posicao, id);
+        if (versao != null) {
+            query.setParameter(posicao + 1, versao);
+        }
+        return ((List<T>) query.getResultList()).stream().findFirst();
+    }
+
+    @Override
+    @Transactional
+    public Optional<Object[]> removerRetornando(Class<?> entidade, Long id, String... colunas) {
+        String sql = "SELECT " + String.join(", ", colunas)
+                + " FROM OLD TABLE (DELETE FROM " + tabela(entidade) + " WHERE id = ?1)";
+        List<?> linhas = entityManager.createNativeQuery(sql)
+                .setParameter(1, id)
+                .getResultList();
+        // Com uma coluna só, o Hibernate devolve o valor em vez de um array
+        return linhas.stream().findFirst().map(linha -> linha instanceof Object[] valores ? valores : new Object[] {linha});
+    }
+
+    private static String tabela(Class<?> entidade) {
+        return entidade.getAnnotation(Table.class).name();
+    }
+}
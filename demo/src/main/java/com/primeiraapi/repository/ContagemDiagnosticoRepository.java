@@ -0,0 +1,55 @@
+package com.primeiraapi.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.primeiraapi.dto.ContagemPeriodo;
+import com.primeiraapi.dto.MedicoRanking;
+import com.primeiraapi.model.ContagemDiagnostico;
+import com.primeiraapi.model.ContagemDiagnosticoId;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface ContagemDiagnosticoRepository extends JpaRepository<ContagemDiagnostico, ContagemDiagnosticoId> {
+
+    // Soma (ou subtrai) na contagem do médico na especialidade e no dia; 0 quando a linha ainda não existe
+    @Modifying
+    @Query(value = "UPDATE contagem_diagnosticos SET quantidade = quantidade + :delta "
+            + "WHERE medico_id = :medicoId AND especialidade = :especialidade AND dia = :dia",
+            nativeQuery = true)
+    int somar(@Param("medicoId") Long medicoId, @Param("especialidade") String especialidade,
+              @Param("dia") LocalDate dia, @Param("delta") long delta);
+
+    // Primeira contagem do médico na especialidade e no dia (chamar com a linha do médico travada)
+    @Modifying
+    @Query(value = "INSERT INTO contagem_diagnosticos (medico_id, especialidade, dia, quantidade) "
+            + "VALUES (:medicoId, :especialidade, :dia, :delta)",
+            nativeQuery = true)
+    void inserir(@Param("medicoId") Long medicoId, @Param("especialidade") String especialidade,
+                 @Param("dia") LocalDate dia, @Param("delta") long delta);
+
+    // A linha do médico serializa quem for criar a primeira contagem dele no dia
+    @Query(value = "SELECT id FROM medicos WHERE id = :medicoId FOR UPDATE", nativeQuery = true)
+    Optional<Long> travarMedico(@Param("medicoId") Long medicoId);
+
+    // Leituras: percorrem só as linhas de resumo do período; a especialidade é a gravada na contagem
+    @Query("SELECT new com.primeiraapi.dto.ContagemPeriodo(c.id.especialidade, c.id.dia, SUM(c.quantidade)) "
+            + "FROM ContagemDiagnostico c "
+            + "WHERE c.id.dia BETWEEN :inicio AND :fim "
+            + "GROUP BY c.id.especialidade, c.id.dia "
+            + "HAVING SUM(c.quantidade) > 0 "
+            + "ORDER BY c.id.dia, c.id.especialidade")
+    List<ContagemPeriodo> contarPorEspecialidadeEDia(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+    // Ranking por médico (todas as especialidades em que ele contou), com a especialidade atual
+    @Query("SELECT new com.primeiraapi.dto.MedicoRanking(m.id, m.nome, m.especialidade, SUM(c.quantidade)) "
+            + "FROM ContagemDiagnostico c, Medico m "
+            + "WHERE m.id = c.id.medicoId AND c.id.dia BETWEEN :inicio AND :fim "
+            + "GROUP BY m.id, m.nome, m.especialidade "
+            + "HAVING SUM(c.quantidade) > 0 "
+            + "ORDER BY SUM(c.quantidade) DESC")
+    List<MedicoRanking> rankingMedicos(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim, Limit limit);
+}
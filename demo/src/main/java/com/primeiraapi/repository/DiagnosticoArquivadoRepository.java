@@ -0,0 +1,66 @@
+package com.primeiraapi.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.primeiraapi.model.DiagnosticoArquivado;
+
+// Diagnósticos arquivados: mesmas consultas por período da tabela principal, com paciente e médico no mesmo SELECT
+public interface DiagnosticoArquivadoRepository extends JpaRepository<DiagnosticoArquivado, Long> {
+
+    @Override
+    @EntityGraph(attributePaths = {"paciente", "medico"})
+    Optional<DiagnosticoArquivado> findById(Long id);
+
+    @Query("SELECT d FROM DiagnosticoArquivado d JOIN FETCH d.paciente JOIN FETCH d.medico "
+            + "WHERE d.paciente.id = :pacienteId AND d.dataDiagnostico >= :inicio "
+            + "AND (d.dataDiagnostico < :antesData OR (d.dataDiagnostico = :antesData AND d.id < :antesId)) "
+            + "ORDER BY d.dataDiagnostico DESC, d.id DESC")
+    List<DiagnosticoArquivado> findPeriodoByPacienteId(@Param("pacienteId") Long pacienteId,
+                                                       @Param("inicio") LocalDateTime inicio,
+                                                       @Param("antesData") LocalDateTime antesData,
+                                                       @Param("antesId") Long antesId,
+                                                       Limit limit);
+
+    @Query("SELECT d FROM DiagnosticoArquivado d JOIN FETCH d.paciente JOIN FETCH d.medico "
+            + "WHERE d.medico.id = :medicoId AND d.dataDiagnostico >= :inicio "
+            + "AND (d.dataDiagnostico < :antesData OR (d.dataDiagnostico = :antesData AND d.id < :antesId)) "
+            + "ORDER BY d.dataDiagnostico DESC, d.id DESC")
+    List<DiagnosticoArquivado> findPeriodoByMedicoId(@Param("medicoId") Long medicoId,
+                                                     @Param("inicio") LocalDateTime inicio,
+                                                     @Param("antesData") LocalDateTime antesData,
+                                                     @Param("antesId") Long antesId,
+                                                     Limit limit);
+
+    // Data mais recente já arquivada: períodos que começam depois dela não consultam o arquivo
+    @Query("SELECT MAX(d.dataDiagnostico) FROM DiagnosticoArquivado d")
+    Optional<LocalDateTime> findUltimaDataArquivada();
+
+    @Query("SELECT d.versao + p.versao + m.versao FROM DiagnosticoArquivado d JOIN d.paciente p JOIN d.medico m "
+            + "WHERE d.id = :id")
+    Optional<Long> findVersaoById(@Param("id") Long id);
+
+    // Copia um bloco da tabela principal (o DELETE correspondente vai na mesma transação)
+    @Modifying
+    @Query(value = "INSERT INTO diagnosticos_arquivo "
+            + "(id, paciente_id, medico_id, descricao, recomendacoes, data_diagnostico, especialidade_medico, versao) "
+            + "SELECT id, paciente_id, medico_id, descricao, recomendacoes, data_diagnostico, especialidade_medico, versao "
+            + "FROM diagnosticos WHERE id IN (:ids)",
+            nativeQuery = true)
+    int copiarDaTabelaPrincipal(@Param("ids") List<Long> ids);
+
+    // Reconstrução das análises: contagem por médico/especialidade/dia do arquivo inteiro
+    @Query(value = "SELECT medico_id, especialidade_medico, CAST(data_diagnostico AS DATE), COUNT(*) "
+            + "FROM diagnosticos_arquivo WHERE data_diagnostico IS NOT NULL "
+            + "GROUP BY medico_id, especialidade_medico, CAST(data_diagnostico AS DATE)",
+            nativeQuery = true)
+    List<Object[]> contarPorMedicoEDia();
+}
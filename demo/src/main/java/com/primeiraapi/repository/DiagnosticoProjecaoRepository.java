@@ -0,0 +1,24 @@
+package com.primeiraapi.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.primeiraapi.dto.CamposDiagnostico;
+
+/**
+ * Consultas de diagnósticos que trazem só os campos pedidos (?fields= / ?expand=):
+ * o SELECT lista apenas as colunas pedidas e só faz JOIN com paciente/médico quando expandidos.
+ * Cada linha vira um mapa campo → valor, com paciente/medico aninhados.
+ * Listas em páginas por ID (WHERE id > after, até limite linhas); por ID também procura no arquivo.
+ */
+public interface DiagnosticoProjecaoRepository {
+
+    List<Map<String, Object>> findProjecaoPagina(CamposDiagnostico campos, Long after, int limite);
+
+    Optional<Map<String, Object>> findProjecaoById(CamposDiagnostico campos, Long id);
+
+    List<Map<String, Object>> findProjecaoByPacienteId(CamposDiagnostico campos, Long pacienteId, Long after, int limite);
+
+    List<Map<String, Object>> findProjecaoByMedicoId(CamposDiagnostico campos, Long medicoId, Long after, int limite);
+}
@@ -0,0 +1,121 @@
+package com.primeiraapi.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+import com.primeiraapi.dto.CamposDiagnostico;
+import com.primeiraapi.model.Diagnostico;
+import com.primeiraapi.model.DiagnosticoArquivado;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+// Implementação do fragmento DiagnosticoProjecaoRepository (Criteria API, SELECT montado por campo)
+class DiagnosticoProjecaoRepositoryImpl implements DiagnosticoProjecaoRepository {
+
+    private final EntityManager entityManager;
+
+    DiagnosticoProjecaoRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Map<String, Object>> findProjecaoPagina(CamposDiagnostico campos, Long after, int limite) {
+        return consultar(Diagnostico.class, campos, (cb, d) -> depoisDe(cb, d, after), limite);
+    }
+
+    // Não está na tabela principal: procura no arquivo, como o DiagnosticoService.findById
+    @Override
+    public Optional<Map<String, Object>> findProjecaoById(CamposDiagnostico campos, Long id) {
+        return consultar(Diagnostico.class, campos, (cb, d) -> cb.equal(d.get("id"), id), 1).stream().findFirst()
+                .or(() -> consultar(DiagnosticoArquivado.class, campos, (cb, d) -> cb.equal(d.get("id"), id), 1)
+                        .stream().findFirst());
+    }
+
+    @Override
+    public List<Map<String, Object>> findProjecaoByPacienteId(CamposDiagnostico campos, Long pacienteId,
+                                                              Long after, int limite) {
+        // d.paciente.id usa a própria coluna paciente_id, sem JOIN
+        return consultar(Diagnostico.class, campos, (cb, d) -> cb.and(
+                cb.equal(d.get("paciente").get("id"), pacienteId), depoisDe(cb, d, after)), limite);
+    }
+
+    @Override
+    public List<Map<String, Object>> findProjecaoByMedicoId(CamposDiagnostico campos, Long medicoId,
+                                                            Long after, int limite) {
+        return consultar(Diagnostico.class, campos, (cb, d) -> cb.and(
+                cb.equal(d.get("medico").get("id"), medicoId), depoisDe(cb, d, after)), limite);
+    }
+
+    private static Predicate depoisDe(CriteriaBuilder cb, Root<?> d, Long after) {
+        return cb.greaterThan(d.get("id"), after == null ? 0L : after);
+    }
+
+    // Diagnostico e DiagnosticoArquivado têm os mesmos atributos
+    private List<Map<String, Object>> consultar(Class<?> entidade, CamposDiagnostico campos,
+                                                BiFunction<CriteriaBuilder, Root<?>, Predicate> filtro,
+                                                int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> consulta = cb.createTupleQuery();
+        Root<?> d = consulta.from(entidade);
+
+        // Chaves na mesma ordem das colunas: "descricao", "paciente.nome", ...
+        List<String> chaves = new ArrayList<>();
+        List<Selection<?>> colunas = new ArrayList<>();
+        for (String campo : campos.diagnostico()) {
+            chaves.add(campo);
+            colunas.add(switch (campo) {
+                case "pacienteId" -> d.get("paciente").get("id");
+                case "medicoId" -> d.get("medico").get("id");
+                default -> d.get(campo);
+            });
+        }
+        if (!campos.paciente().isEmpty()) {
+            selecionar(d.join("paciente"), "paciente", campos.paciente(), chaves, colunas);
+        }
+        if (!campos.medico().isEmpty()) {
+            selecionar(d.join("medico"), "medico", campos.medico(), chaves, colunas);
+        }
+
+        consulta.multiselect(colunas)
+                .where(filtro.apply(cb, d))
+                .orderBy(cb.asc(d.get("id")));
+        return entityManager.createQuery(consulta)
+                .setMaxResults(limite)
+                .getResultList().stream().map(linha -> paraMapa(linha, chaves)).toList();
+    }
+
+    private static void selecionar(From<?, ?> entidade, String prefixo, Iterable<String> campos,
+                                   List<String> chaves, List<Selection<?>> colunas) {
+        for (String campo : campos) {
+            chaves.add(prefixo + "." + campo);
+            colunas.add(entidade.get(campo));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> paraMapa(Tuple linha, List<String> chaves) {
+        Map<String, Object> mapa = new LinkedHashMap<>();
+        for (int i = 0; i < chaves.size(); i++) {
+            String chave = chaves.get(i);
+            int ponto = chave.indexOf('.');
+            if (ponto < 0) {
+                mapa.put(chave, linha.get(i));
+            } else {
+                ((Map<String, Object>) mapa.computeIfAbsent(chave.substring(0, ponto), k -> new LinkedHashMap<>()))
+                        .put(chave.substring(ponto + 1), linha.get(i));
+            }
+        }
+        return mapa;
+    }
+}
@@ -1,10 +1,114 @@
 package com.primeiraapi.repository;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import com.primeiraapi.dto.VersaoAgregada;
 import com.primeiraapi.model.Diagnostico;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface DiagnosticoRepository extends JpaRepository<Diagnostico, Long> {
+// Todas as consultas de leitura trazem paciente e médico no mesmo SELECT (evita N+1)
+public interface DiagnosticoRepository extends JpaRepository<Diagnostico, Long>, DiagnosticoProjecaoRepository, ComandosDiretos {
+    @Override
+    @EntityGraph(attributePaths = {"paciente", "medico"})
+    List<Diagnostico> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"paciente", "medico"})
+    Optional<Diagnostico> findById(Long id);
+
+    @EntityGraph(attributePaths = {"paciente", "medico"})
     List<Diagnostico> findByPacienteId(Long pacienteId);
+
+    @EntityGraph(attributePaths = {"paciente", "medico"})
     List<Diagnostico> findByMedicoId(Long medicoId);
+
+    // Paginação por cursor: WHERE id > :after ORDER BY id LIMIT :limit
+    @EntityGraph(attributePaths = {"paciente", "medico"})
+    List<Diagnostico> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    // Período por paciente/médico, mais recentes primeiro (índices (paciente|medico)_id, data_diagnostico)
+    // - Paginação por chave: a próxima página começa antes de (antesData, antesId) do último item
+    @Query("SELECT d FROM Diagnostico d JOIN FETCH d.paciente JOIN FETCH d.medico "
+            + "WHERE d.paciente.id = :pacienteId AND d.dataDiagnostico >= :inicio "
+            + "AND (d.dataDiagnostico < :antesData OR (d.dataDiagnostico = :antesData AND d.id < :antesId)) "
+            + "ORDER BY d.dataDiagnostico DESC, d.id DESC")
+    List<Diagnostico> findPeriodoByPacienteId(@Param("pacienteId") Long pacienteId,
+                                              @Param("inicio") LocalDateTime inicio,
+                                              @Param("antesData") LocalDateTime antesData,
+                                              @Param("antesId") Long antesId,
+                                              Limit limit);
+
+    @Query("SELECT d FROM Diagnostico d JOIN FETCH d.paciente JOIN FETCH d.medico "
+            + "WHERE d.medico.id = :medicoId AND d.dataDiagnostico >= :inicio "
+            + "AND (d.dataDiagnostico < :antesData OR (d.dataDiagnostico = :antesData AND d.id < :antesId)) "
+            + "ORDER BY d.dataDiagnostico DESC, d.id DESC")
+    List<Diagnostico> findPeriodoByMedicoId(@Param("medicoId") Long medicoId,
+                                            @Param("inicio") LocalDateTime inicio,
+                                            @Param("antesData") LocalDateTime antesData,
+                                            @Param("antesId") Long antesId,
+                                            Limit limit);
+
+    // Exportação: lê a tabela em blocos de 500 linhas pelo cursor JDBC (precisa de transação aberta)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT d FROM Diagnostico d JOIN FETCH d.paciente JOIN FETCH d.medico ORDER BY d.id")
+    Stream<Diagnostico> streamAll();
+
+    // Reconstrução das análises: faixa de IDs e contagem por médico/especialidade/dia de uma parte dela
+    @Query("SELECT COALESCE(MIN(d.id), 0L) FROM Diagnostico d")
+    long findMenorId();
+
+    @Query("SELECT COALESCE(MAX(d.id), 0L) FROM Diagnostico d")
+    long findMaiorId();
+
+    @Query(value = "SELECT medico_id, especialidade_medico, CAST(data_diagnostico AS DATE), COUNT(*) "
+            + "FROM diagnosticos WHERE id BETWEEN :inicio AND :fim AND data_diagnostico IS NOT NULL "
+            + "GROUP BY medico_id, especialidade_medico, CAST(data_diagnostico AS DATE)",
+            nativeQuery = true)
+    List<Object[]> contarPorMedicoEDia(@Param("inicio") long inicio, @Param("fim") long fim);
+
+    // Uma contagem (médico, especialidade, dia) nas duas tabelas, pelos índices (médico, data)
+    @Query(value = "SELECT (SELECT COUNT(*) FROM diagnosticos WHERE medico_id = :medicoId "
+            + "AND especialidade_medico = :especialidade AND data_diagnostico >= :inicio AND data_diagnostico < :fim) "
+            + "+ (SELECT COUNT(*) FROM diagnosticos_arquivo WHERE medico_id = :medicoId "
+            + "AND especialidade_medico = :especialidade AND data_diagnostico >= :inicio AND data_diagnostico < :fim)",
+            nativeQuery = true)
+    long contarDoMedicoNoPeriodo(@Param("medicoId") Long medicoId, @Param("especialidade") String especialidade,
+                                 @Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    // Arquivamento: IDs anteriores ao corte, em blocos pela ordem de ID (continua depois do último bloco)
+    // FOR UPDATE: as linhas do bloco ficam travadas até o DELETE; um PATCH/PUT/DELETE concorrente
+    // espera o commit do bloco (e não acha mais a linha) ou termina antes da cópia (e ela sai atualizada)
+    @Query(value = "SELECT id FROM diagnosticos WHERE id > :apos AND data_diagnostico < :corte "
+            + "ORDER BY id FETCH FIRST :lote ROWS ONLY FOR UPDATE",
+            nativeQuery = true)
+    List<Long> travarIdsAnterioresA(@Param("corte") LocalDateTime corte, @Param("apos") long apos,
+                                    @Param("lote") int lote);
+
+    @Modifying
+    @Query("DELETE FROM Diagnostico d WHERE d.id IN :ids")
+    int removerPorIds(@Param("ids") List<Long> ids);
+
+    // ETag / If-None-Match: versões do diagnóstico, do paciente e do médico (todos vão na resposta)
+    @Query("SELECT d.versao + p.versao + m.versao FROM Diagnostico d JOIN d.paciente p JOIN d.medico m WHERE d.id = :id")
+    Optional<Long> findVersaoById(@Param("id") Long id);
+
+    @Query("SELECT new com.primeiraapi.dto.VersaoAgregada(COUNT(d), COALESCE(MAX(d.id), 0L), "
+            + "COALESCE(SUM(d.versao + p.versao + m.versao), 0L)) "
+            + "FROM Diagnostico d JOIN d.paciente p JOIN d.medico m WHERE p.id = :pacienteId")
+    VersaoAgregada findVersaoByPacienteId(@Param("pacienteId") Long pacienteId);
+
+    @Query("SELECT new com.primeiraapi.dto.VersaoAgregada(COUNT(d), COALESCE(MAX(d.id), 0L), "
+            + "COALESCE(SUM(d.versao + p.versao + m.versao), 0L)) "
+            + "FROM Diagnostico d JOIN d.paciente p JOIN d.medico m WHERE m.id = :medicoId")
+    VersaoAgregada findVersaoByMedicoId(@Param("medicoId") Long medicoId);
 }
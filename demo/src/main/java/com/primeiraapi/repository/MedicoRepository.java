@@ -1,10 +1,27 @@
 package com.primeiraapi.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.primeiraapi.model.Medico;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
-public interface MedicoRepository extends JpaRepository<Medico, Long> {
+public interface MedicoRepository extends JpaRepository<Medico, Long>, ComandosDiretos {
     Optional<Medico> findByCrm(String crm);
     boolean existsByCrm(String crm);
+
+    // Paginação por cursor: WHERE id > :after ORDER BY id LIMIT :limit
+    List<Medico> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    // Cadastro em lote: verificações em conjunto, uma consulta por bloco
+    @Query("SELECT m.crm FROM Medico m WHERE m.crm IN :crms")
+    Set<String> findCrmsExistentes(@Param("crms") Collection<String> crms);
+
+    // ETag / If-None-Match: lê só a versão, sem carregar a entidade
+    @Query("SELECT m.versao FROM Medico m WHERE m.id = :id")
+    Optional<Long> findVersaoById(@Param("id") Long id);
 }
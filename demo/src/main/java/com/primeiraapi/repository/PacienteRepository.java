@@ -1,10 +1,27 @@
 package com.primeiraapi.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.primeiraapi.model.Paciente;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
-public interface PacienteRepository extends JpaRepository<Paciente, Long> {
+public interface PacienteRepository extends JpaRepository<Paciente, Long>, ComandosDiretos {
     Optional<Paciente> findByCpf(String cpf);
     boolean existsByCpf(String cpf);
+
+    // Paginação por cursor: WHERE id > :after ORDER BY id LIMIT :limit
+    List<Paciente> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    // Cadastro em lote: verificações em conjunto, uma consulta por bloco
+    @Query("SELECT p.cpf FROM Paciente p WHERE p.cpf IN :cpfs")
+    Set<String> findCpfsExistentes(@Param("cpfs") Collection<String> cpfs);
+
+    // ETag / If-None-Match: lê só a versão, sem carregar a entidade
+    @Query("SELECT p.versao FROM Paciente p WHERE p.id = :id")
+    Optional<Long> findVersaoById(@Param("id") Long id);
 }
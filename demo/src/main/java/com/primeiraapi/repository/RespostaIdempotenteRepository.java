@@ -0,0 +1,20 @@
+package com.primeiraapi.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.primeiraapi.model.RespostaIdempotente;
+
+public interface RespostaIdempotenteRepository extends JpaRepository<RespostaIdempotente, String> {
+
+    // Limpeza das respostas vencidas (um único DELETE pelo índice de criada_em)
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RespostaIdempotente r WHERE r.criadaEm < :limite")
+    int removerCriadasAntesDe(@Param("limite") Instant limite);
+}
@@ -0,0 +1,84 @@
+package com.primeiraapi.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.primeiraapi.model.ResumoPaciente;
+
+import jakarta.persistence.LockModeType;
+
+public interface ResumoPacienteRepository extends JpaRepository<ResumoPaciente, Long> {
+
+    // Escrita incremental: a linha fica travada até o fim da transação (SELECT ... FOR UPDATE)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ResumoPaciente r WHERE r.pacienteId = :pacienteId")
+    Optional<ResumoPaciente> findParaAtualizar(@Param("pacienteId") Long pacienteId);
+
+    // Primeiro diagnóstico do paciente: a linha do paciente serializa quem for criar o resumo
+    @Query(value = "SELECT id FROM pacientes WHERE id = :pacienteId FOR UPDATE", nativeQuery = true)
+    Optional<Long> travarPaciente(@Param("pacienteId") Long pacienteId);
+
+    // Diagnóstico mais recente do paciente nas duas tabelas (id, medico_id, data_diagnostico)
+    @Query(value = "SELECT id, medico_id, data_diagnostico FROM ("
+            + "(SELECT id, medico_id, data_diagnostico FROM diagnosticos WHERE paciente_id = :pacienteId "
+            + "ORDER BY data_diagnostico DESC NULLS LAST, id DESC FETCH FIRST 1 ROW ONLY) "
+            + "UNION ALL "
+            + "(SELECT id, medico_id, data_diagnostico FROM diagnosticos_arquivo WHERE paciente_id = :pacienteId "
+            + "ORDER BY data_diagnostico DESC NULLS LAST, id DESC FETCH FIRST 1 ROW ONLY)) u "
+            + "ORDER BY data_diagnostico DESC NULLS LAST, id DESC FETCH FIRST 1 ROW ONLY",
+            nativeQuery = true)
+    List<Object[]> findUltimoDiagnostico(@Param("pacienteId") Long pacienteId);
+
+    // (especialidade, quantidade) de um paciente nas duas tabelas, pela especialidade atual dos médicos
+    @Query(value = "SELECT m.especialidade, COUNT(*) "
+            + "FROM (SELECT medico_id FROM diagnosticos WHERE paciente_id = :pacienteId "
+            + "UNION ALL "
+            + "SELECT medico_id FROM diagnosticos_arquivo WHERE paciente_id = :pacienteId) d "
+            + "JOIN medicos m ON m.id = d.medico_id "
+            + "WHERE m.especialidade IS NOT NULL "
+            + "GROUP BY m.especialidade",
+            nativeQuery = true)
+    List<Object[]> contarEspecialidades(@Param("pacienteId") Long pacienteId);
+
+    // Reparo: faixa de IDs de pacientes e, para uma parte dela, quantidade + diagnóstico mais recente
+    @Query("SELECT COALESCE(MIN(p.id), 0L) FROM Paciente p")
+    long findMenorPacienteId();
+
+    @Query("SELECT COALESCE(MAX(p.id), 0L) FROM Paciente p")
+    long findMaiorPacienteId();
+
+    // (paciente_id, quantidade, id, medico_id, data_diagnostico) do mais recente de cada paciente
+    @Query(value = "SELECT paciente_id, quantidade, id, medico_id, data_diagnostico FROM ("
+            + "SELECT d.paciente_id, d.id, d.medico_id, d.data_diagnostico, "
+            + "COUNT(*) OVER (PARTITION BY d.paciente_id) AS quantidade, "
+            + "ROW_NUMBER() OVER (PARTITION BY d.paciente_id "
+            + "ORDER BY d.data_diagnostico DESC NULLS LAST, d.id DESC) AS posicao "
+            + "FROM (SELECT id, paciente_id, medico_id, data_diagnostico FROM diagnosticos "
+            + "WHERE paciente_id BETWEEN :de AND :ate "
+            + "UNION ALL "
+            + "SELECT id, paciente_id, medico_id, data_diagnostico FROM diagnosticos_arquivo "
+            + "WHERE paciente_id BETWEEN :de AND :ate) d) r "
+            + "WHERE posicao = 1",
+            nativeQuery = true)
+    List<Object[]> resumirFaixa(@Param("de") long de, @Param("ate") long ate);
+
+    // (paciente_id, especialidade, quantidade) da mesma faixa
+    @Query(value = "SELECT d.paciente_id, m.especialidade, COUNT(*) "
+            + "FROM (SELECT paciente_id, medico_id FROM diagnosticos WHERE paciente_id BETWEEN :de AND :ate "
+            + "UNION ALL "
+            + "SELECT paciente_id, medico_id FROM diagnosticos_arquivo WHERE paciente_id BETWEEN :de AND :ate) d "
+            + "JOIN medicos m ON m.id = d.medico_id "
+            + "GROUP BY d.paciente_id, m.especialidade",
+            nativeQuery = true)
+    List<Object[]> contarEspecialidadesFaixa(@Param("de") long de, @Param("ate") long ate);
+
+    @Modifying
+    @Query("DELETE FROM ResumoPaciente r WHERE r.pacienteId BETWEEN :de AND :ate")
+    int removerFaixa(@Param("de") long de, @Param("ate") long ate);
+}
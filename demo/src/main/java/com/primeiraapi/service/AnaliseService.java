@@ -0,0 +1,287 @@
+package com.primeiraapi.service;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.primeiraapi.dto.ContagemPeriodo;
+import com.primeiraapi.dto.MedicoRanking;
+import com.primeiraapi.model.ContagemDiagnostico;
+import com.primeiraapi.model.ContagemDiagnosticoId;
+import com.primeiraapi.model.Diagnostico;
+import com.primeiraapi.repository.ContagemDiagnosticoRepository;
+import com.primeiraapi.repository.DiagnosticoArquivadoRepository;
+import com.primeiraapi.repository.DiagnosticoRepository;
+
+/**
+ * Camada de serviço para as análises de diagnósticos:
+ * - Mantém a contagem por médico, especialidade (a do diagnóstico) e dia a cada create/delete (na mesma transação)
+ * - Responde às consultas dos painéis lendo só a tabela de resumo (O(baldes), não O(linhas))
+ * - Reconstrói o resumo do zero, dividindo a tabela de diagnósticos entre os núcleos, sem parar as criações
+ */
+@Service
+@SuppressWarnings("null")
+public class AnaliseService {
+
+    public static final String PERIODO_DIA = "dia";
+    public static final String PERIODO_SEMANA = "semana";
+
+    private static final Comparator<ContagemDiagnosticoId> ORDEM = Comparator
+            .comparing(ContagemDiagnosticoId::getMedicoId)
+            .thenComparing(ContagemDiagnosticoId::getEspecialidade)
+            .thenComparing(ContagemDiagnosticoId::getDia);
+
+    private final ContagemDiagnosticoRepository repository;
+    private final DiagnosticoRepository diagnosticoRepository;
+    private final DiagnosticoArquivadoRepository arquivadoRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Atualizações incrementais compartilham o lock de leitura; a reconstrução usa o de escrita
+    // só para marcar o início da contagem e para gravar o resultado
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Arquivamento (leitura) espera a reconstrução (escrita) inteira: mover linhas durante a
+    // contagem faria a linha aparecer em nenhuma ou nas duas tabelas; também serializa reconstruções
+    private final ReadWriteLock movimentacao = new ReentrantReadWriteLock();
+
+    // Durante uma reconstrução: contagens alteradas depois do início (recontadas antes de gravar)
+    private volatile Set<ContagemDiagnosticoId> alteradasNaReconstrucao;
+
+    public AnaliseService(ContagemDiagnosticoRepository repository,
+                          DiagnosticoRepository diagnosticoRepository,
+                          DiagnosticoArquivadoRepository arquivadoRepository,
+                          TransactionTemplate transactionTemplate) {
+        this.repository = repository;
+        this.diagnosticoRepository = diagnosticoRepository;
+        this.arquivadoRepository = arquivadoRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Soma delta (+1 na criação, -1 na remoção) na contagem de cada diagnóstico
+     * - Diagnósticos do mesmo médico, especialidade e dia viram um único UPDATE (ou INSERT, na primeira contagem)
+     * - Deve ser chamado dentro da transação que grava os diagnósticos
+     */
+    public void registrar(List<Diagnostico> diagnosticos, int delta) {
+        Map<ContagemDiagnosticoId, Long> deltas = new HashMap<>();
+        for (Diagnostico diagnostico : diagnosticos) {
+            if (diagnostico.getDataDiagnostico() != null) {
+                ContagemDiagnosticoId id = new ContagemDiagnosticoId(diagnostico.getMedico().getId(),
+                        diagnostico.getEspecialidadeMedico(), diagnostico.getDataDiagnostico().toLocalDate());
+                deltas.merge(id, (long) delta, Long::sum);
+            }
+        }
+        aplicar(deltas);
+    }
+
+    /**
+     * Mesmo que registrar(diagnosticos, delta), a partir das colunas de um diagnóstico já removido
+     */
+    public void registrar(Long medicoId, String especialidade, LocalDateTime dataDiagnostico, int delta) {
+        if (dataDiagnostico != null) {
+            aplicar(Map.of(new ContagemDiagnosticoId(medicoId, especialidade, dataDiagnostico.toLocalDate()),
+                    (long) delta));
+        }
+    }
+
+    /**
+     * Para transações que movem diagnósticos entre tabelas sem mudar as contagens (arquivamento):
+     * a reconstrução espera o commit, senão poderia contar a linha em nenhuma ou nas duas tabelas
+     */
+    public void bloquearReconstrucao() {
+        travarAteFimDaTransacao(movimentacao.readLock());
+    }
+
+    private void aplicar(Map<ContagemDiagnosticoId, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        travarAteFimDaTransacao(lock.readLock());
+        Set<ContagemDiagnosticoId> alteradas = alteradasNaReconstrucao;
+        if (alteradas != null) {
+            alteradas.addAll(deltas.keySet());
+        }
+        // Ordem fixa (médico, especialidade, dia): dois lotes com os mesmos médicos não se bloqueiam em ciclo
+        deltas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(ORDEM))
+                .forEach(e -> somar(e.getKey(), e.getValue()));
+    }
+
+    /**
+     * UPDATE na linha existente; sem linha, trava o médico e tenta de novo antes do INSERT:
+     * duas primeiras contagens simultâneas do mesmo médico no dia não inserem a linha duas vezes
+     */
+    private void somar(ContagemDiagnosticoId id, long delta) {
+        if (repository.somar(id.getMedicoId(), id.getEspecialidade(), id.getDia(), delta) > 0) {
+            return;
+        }
+        repository.travarMedico(id.getMedicoId());
+        if (repository.somar(id.getMedicoId(), id.getEspecialidade(), id.getDia(), delta) == 0) {
+            repository.inserir(id.getMedicoId(), id.getEspecialidade(), id.getDia(), delta);
+        }
+    }
+
+    /**
+     * Quantidade de diagnósticos por especialidade, por dia ou por semana (iniciada na segunda-feira)
+     */
+    public List<ContagemPeriodo> porEspecialidade(LocalDate inicio, LocalDate fim, String periodo) {
+        List<ContagemPeriodo> porDia = repository.contarPorEspecialidadeEDia(inicio, fim);
+        if (PERIODO_DIA.equals(periodo)) {
+            return porDia;
+        }
+        if (!PERIODO_SEMANA.equals(periodo)) {
+            throw new IllegalArgumentException("Período deve ser dia ou semana");
+        }
+
+        Map<List<Object>, Long> porSemana = new LinkedHashMap<>();
+        for (ContagemPeriodo contagem : porDia) {
+            LocalDate segunda = contagem.inicio().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            porSemana.merge(List.of(contagem.especialidade(), segunda), contagem.quantidade(), Long::sum);
+        }
+        List<ContagemPeriodo> resultado = new ArrayList<>(porSemana.size());
+        porSemana.forEach((chave, quantidade) ->
+                resultado.add(new ContagemPeriodo((String) chave.get(0), (LocalDate) chave.get(1), quantidade)));
+        resultado.sort(Comparator.comparing(ContagemPeriodo::inicio).thenComparing(ContagemPeriodo::especialidade));
+        return resultado;
+    }
+
+    /**
+     * Médicos com mais diagnósticos no período
+     */
+    public List<MedicoRanking> rankingMedicos(LocalDate inicio, LocalDate fim, int limite) {
+        return repository.rankingMedicos(inicio, fim, Limit.of(limite));
+    }
+
+    /**
+     * Recalcula a tabela de resumo a partir dos diagnósticos
+     * - A faixa de IDs é dividida em uma parte por núcleo, contadas em paralelo
+     * - Os diagnósticos arquivados são contados junto, em mais uma tarefa
+     * - Criações/remoções continuam durante a contagem; as contagens que elas alteraram são
+     *   recontadas (pelo índice médico/data) no fim, com o lock de escrita, antes de gravar
+     * - As partes são somadas em memória e gravadas de uma vez, substituindo o resumo anterior
+     * - O arquivamento espera a reconstrução terminar
+     *
+     * @return quantidade de linhas de resumo gravadas
+     */
+    public int reconstruir() {
+        movimentacao.writeLock().lock();
+        try {
+            // Quem terminou antes daqui está no banco; quem começar depois fica anotado
+            lock.writeLock().lock();
+            try {
+                alteradasNaReconstrucao = ConcurrentHashMap.newKeySet();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Map<ContagemDiagnosticoId, Long> total = contarEmParalelo();
+
+            lock.writeLock().lock();
+            try {
+                for (ContagemDiagnosticoId id : alteradasNaReconstrucao) {
+                    LocalDateTime inicio = id.getDia().atStartOfDay();
+                    long quantidade = diagnosticoRepository.contarDoMedicoNoPeriodo(
+                            id.getMedicoId(), id.getEspecialidade(), inicio, inicio.plusDays(1));
+                    if (quantidade > 0) {
+                        total.put(id, quantidade);
+                    } else {
+                        total.remove(id);
+                    }
+                }
+                List<ContagemDiagnostico> linhas = total.entrySet().stream()
+                        .map(e -> new ContagemDiagnostico(e.getKey(), e.getValue()))
+                        .toList();
+                transactionTemplate.executeWithoutResult(status -> {
+                    repository.deleteAllInBatch();
+                    repository.saveAll(linhas);
+                });
+                return linhas.size();
+            } finally {
+                alteradasNaReconstrucao = null;
+                lock.writeLock().unlock();
+            }
+        } finally {
+            movimentacao.writeLock().unlock();
+        }
+    }
+
+    private Map<ContagemDiagnosticoId, Long> contarEmParalelo() {
+        long menorId = diagnosticoRepository.findMenorId();
+        long maiorId = diagnosticoRepository.findMaiorId();
+        int partes = Runtime.getRuntime().availableProcessors();
+        long passo = Math.max(1, (maiorId - menorId + partes) / partes);
+
+        Map<ContagemDiagnosticoId, Long> total = new ConcurrentHashMap<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(partes)) {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (long inicio = menorId; inicio <= maiorId; inicio += passo) {
+                long de = inicio;
+                long ate = Math.min(inicio + passo - 1, maiorId);
+                tarefas.add(executor.submit(() -> somar(total, diagnosticoRepository.contarPorMedicoEDia(de, ate))));
+            }
+            tarefas.add(executor.submit(() -> somar(total, arquivadoRepository.contarPorMedicoEDia())));
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconstrução interrompida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha ao reconstruir as análises", e.getCause());
+        }
+        return total;
+    }
+
+    // Linhas (medico_id, especialidade, dia, quantidade) somadas no total
+    private static void somar(Map<ContagemDiagnosticoId, Long> total, List<Object[]> linhas) {
+        for (Object[] linha : linhas) {
+            ContagemDiagnosticoId id = new ContagemDiagnosticoId(((Number) linha[0]).longValue(),
+                    (String) linha[1], paraData(linha[2]));
+            total.merge(id, ((Number) linha[3]).longValue(), Long::sum);
+        }
+    }
+
+    /**
+     * Segura o lock compartilhado até o commit/rollback da transação atual,
+     * para a reconstrução não apagar um incremento ainda não confirmado
+     */
+    private static void travarAteFimDaTransacao(Lock leitura) {
+        leitura.lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            leitura.unlock();
+            throw new IllegalStateException("Contagem de diagnósticos deve ser atualizada dentro de uma transação");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                leitura.unlock();
+            }
+        });
+    }
+
+    private static LocalDate paraData(Object valor) {
+        return valor instanceof Date data ? data.toLocalDate() : (LocalDate) valor;
+    }
+}
@@ -0,0 +1,148 @@
+package com.primeiraapi.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.primeiraapi.repository.DiagnosticoArquivadoRepository;
+import com.primeiraapi.repository.DiagnosticoRepository;
+
+/**
+ * Move diagnósticos antigos de "diagnosticos" para "diagnosticos_arquivo":
+ * - Corte: data_diagnostico anterior a hoje - arquivamento.idade-dias
+ * - Em blocos pela ordem de ID, cada bloco em uma transação curta (SELECT ... FOR UPDATE,
+ *   INSERT ... SELECT + DELETE), com uma pausa entre blocos para não disputar o banco com as requisições
+ * - Escritas concorrentes em linhas do bloco esperam o commit: nenhuma alteração fica só na cópia antiga
+ * - Roda pelo agendamento (arquivamento.cron) ou por POST /api/diagnosticos/arquivamento
+ * - Guarda até que data o arquivo pode ter linhas: consultas por período que começam
+ *   depois dela leem só a tabela principal
+ */
+@Service
+public class ArquivamentoDiagnosticos {
+
+    private static final Logger log = LoggerFactory.getLogger(ArquivamentoDiagnosticos.class);
+
+    private final DiagnosticoRepository diagnosticoRepository;
+    private final DiagnosticoArquivadoRepository arquivadoRepository;
+    private final AnaliseService analiseService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean ativo;
+    private final int idadeDias;
+    private final int lote;
+    private final long pausaMillis;
+
+    // Arquivo só tem diagnósticos anteriores a este instante (null: arquivo vazio)
+    // (lock próprio: o arquivar() segura o monitor do serviço durante toda a execução)
+    private final Object lockLimite = new Object();
+    private volatile LocalDateTime limiteArquivo;
+    private volatile boolean limiteCarregado;
+
+    public ArquivamentoDiagnosticos(DiagnosticoRepository diagnosticoRepository,
+                                    DiagnosticoArquivadoRepository arquivadoRepository,
+                                    AnaliseService analiseService,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${arquivamento.ativo:true}") boolean ativo,
+                                    @Value("${arquivamento.idade-dias:365}") int idadeDias,
+                                    @Value("${arquivamento.lote:1000}") int lote,
+                                    @Value("${arquivamento.pausa-ms:50}") long pausaMillis) {
+        this.diagnosticoRepository = diagnosticoRepository;
+        this.arquivadoRepository = arquivadoRepository;
+        this.analiseService = analiseService;
+        this.transactionTemplate = transactionTemplate;
+        this.ativo = ativo;
+        this.idadeDias = idadeDias;
+        this.lote = lote;
+        this.pausaMillis = pausaMillis;
+    }
+
+    @Scheduled(cron = "${arquivamento.cron:0 30 3 * * *}")
+    public void agendado() {
+        if (ativo) {
+            arquivar();
+        }
+    }
+
+    /**
+     * Arquiva tudo o que passou do corte
+     *
+     * @return quantidade de diagnósticos movidos para o arquivo
+     */
+    public synchronized int arquivar() {
+        LocalDateTime corte = LocalDate.now().minusDays(idadeDias).atStartOfDay();
+        // Antes de mover: quem consultar o período durante o arquivamento já inclui o arquivo
+        ampliarLimite(corte);
+
+        long inicio = System.currentTimeMillis();
+        long apos = 0;
+        int total = 0;
+        while (true) {
+            long aposBloco = apos;
+            List<Long> ids = transactionTemplate.execute(status -> {
+                List<Long> bloco = diagnosticoRepository.travarIdsAnterioresA(corte, aposBloco, lote);
+                if (!bloco.isEmpty()) {
+                    // Reconstrução das análises espera: a linha não pode sumir das duas tabelas na contagem
+                    analiseService.bloquearReconstrucao();
+                    arquivadoRepository.copiarDaTabelaPrincipal(bloco);
+                    diagnosticoRepository.removerPorIds(bloco);
+                }
+                return bloco;
+            });
+            if (ids.isEmpty()) {
+                break;
+            }
+            total += ids.size();
+            apos = ids.get(ids.size() - 1);
+            pausar();
+        }
+        if (total > 0) {
+            log.info("{} diagnósticos anteriores a {} arquivados em {} ms",
+                    total, corte, System.currentTimeMillis() - inicio);
+        }
+        return total;
+    }
+
+    /**
+     * Se uma consulta a partir desta data precisa incluir o arquivo
+     */
+    public boolean incluiArquivo(LocalDateTime inicio) {
+        LocalDateTime limite = limiteArquivo();
+        return limite != null && inicio.isBefore(limite);
+    }
+
+    private LocalDateTime limiteArquivo() {
+        if (!limiteCarregado) {
+            synchronized (lockLimite) {
+                if (!limiteCarregado) {
+                    arquivadoRepository.findUltimaDataArquivada()
+                            .ifPresent(ultima -> ampliarLimite(ultima.plusNanos(1)));
+                    limiteCarregado = true;
+                }
+            }
+        }
+        return limiteArquivo;
+    }
+
+    private void ampliarLimite(LocalDateTime limite) {
+        synchronized (lockLimite) {
+            if (limiteArquivo == null || limite.isAfter(limiteArquivo)) {
+                limiteArquivo = limite;
+            }
+        }
+    }
+
+    private void pausar() {
+        try {
+            Thread.sleep(pausaMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Arquivamento interrompido", e);
+        }
+    }
+}
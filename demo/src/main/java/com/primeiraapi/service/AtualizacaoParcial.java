@@ -0,0 +1,59 @@
+package com.primeiraapi.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Rotina comum dos PATCH: transforma os campos enviados em colunas para ComandosDiretos
+ * - Só os campos da lista de permitidos (campo → coluna); "versao" é o controle otimista, não uma coluna
+ * - Cada campo enviado é validado sozinho (Bean Validation da propriedade), inclusive null explícito
+ */
+final class AtualizacaoParcial<T> {
+
+    private static final String VERSAO = "versao";
+
+    private final Validator validator;
+    private final Map<String, String> colunasPermitidas;
+
+    /**
+     * @param colunasPermitidas campos que podem ser alterados e a coluna de cada um
+     */
+    AtualizacaoParcial(Validator validator, Map<String, String> colunasPermitidas) {
+        this.validator = validator;
+        this.colunasPermitidas = colunasPermitidas;
+    }
+
+    /**
+     * @param dados  corpo do PATCH convertido na entidade
+     * @param campos nomes presentes no corpo (o que não veio não é alterado)
+     */
+    Map<String, Object> colunas(T dados, Set<String> campos) {
+        BeanWrapper propriedades = PropertyAccessorFactory.forBeanPropertyAccess(dados);
+        Map<String, Object> colunas = new LinkedHashMap<>();
+        for (String campo : campos) {
+            if (VERSAO.equals(campo)) {
+                continue;
+            }
+            String coluna = colunasPermitidas.get(campo);
+            if (coluna == null) {
+                throw new IllegalArgumentException("Campo não pode ser alterado: " + campo);
+            }
+            Set<ConstraintViolation<T>> violacoes = validator.validateProperty(dados, campo);
+            if (!violacoes.isEmpty()) {
+                throw new IllegalArgumentException(campo + ": " + violacoes.iterator().next().getMessage());
+            }
+            colunas.put(coluna, propriedades.getPropertyValue(campo));
+        }
+        if (colunas.isEmpty()) {
+            throw new IllegalArgumentException("Nenhum campo para atualizar");
+        }
+        return colunas;
+    }
+}
@@ -0,0 +1,100 @@
+package com.primeiraapi.service;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import org.springframework.cache.Cache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.primeiraapi.config.LeituraNoPrimario;
+
+/**
+ * Cache de entidades (médicos, pacientes) por uma chave (ID, CRM, CPF):
+ * - Guarda e devolve cópias: quem recebe a entidade pode alterá-la, ou ela pode entrar num
+ *   contexto de persistência, sem mudar o que os outros leem do cache
+ * - Dentro de uma transação de escrita nada é guardado: o valor lido ainda não foi confirmado
+ * - Com réplicas só é guardado o que foi lido do primário: uma réplica atrasada não deixa no
+ *   cache um valor anterior a uma escrita já confirmada
+ * - Thread que precisa ler o que escreveu (LeituraNoPrimario) não consulta o cache: vai ao primário
+ * - Escrita na chave (invalidar) remove agora e de novo depois do commit/rollback
+ * - Geração: uma leitura do banco que começou antes de uma escrita terminar não deixa no cache
+ *   o valor de antes dela (a escrita avança a geração antes de remover; a leitura guarda antes
+ *   de conferir a geração, e remove o que guardou se ela mudou)
+ */
+final class CacheEntidades<K, V> {
+
+    private final Cache cache;
+    private final Class<V> tipo;
+    private final UnaryOperator<V> copiar;
+    private final boolean comReplicas;
+    private final AtomicLong geracao = new AtomicLong();
+
+    /**
+     * @param comReplicas leituras fora de transação de escrita podem ir a uma réplica (app.datasource.replica.urls)
+     */
+    CacheEntidades(Cache cache, Class<V> tipo, UnaryOperator<V> copiar, boolean comReplicas) {
+        this.cache = cache;
+        this.tipo = tipo;
+        this.copiar = copiar;
+        this.comReplicas = comReplicas;
+    }
+
+    /**
+     * Cópia do valor em cache, sem ir ao banco (vazio quando a thread precisa ler do primário)
+     */
+    Optional<V> emCache(K chave) {
+        if (LeituraNoPrimario.ativa()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.get(chave, tipo)).map(copiar);
+    }
+
+    /**
+     * Valor em cache ou, fora dele, o resultado da consulta (guardado para as próximas leituras)
+     */
+    Optional<V> ler(K chave, Supplier<Optional<V>> consulta) {
+        Optional<V> emCache = emCache(chave);
+        if (emCache.isPresent()) {
+            return emCache;
+        }
+        long lida = geracao.get();
+        Optional<V> valor = consulta.get();
+        if (valor.isPresent() && podeGuardar()) {
+            cache.put(chave, copiar.apply(valor.get()));
+            if (geracao.get() != lida) {
+                cache.evict(chave);
+            }
+        }
+        // Leituras compartilhadas recebem a mesma entidade: cada chamador fica com a sua
+        return valor.map(copiar);
+    }
+
+    /**
+     * Chamado nas escritas da chave, dentro da transação que escreve
+     */
+    void invalidar(K chave) {
+        descartar(chave);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    descartar(chave);
+                }
+            });
+        }
+    }
+
+    private void descartar(K chave) {
+        geracao.incrementAndGet();
+        cache.evict(chave);
+    }
+
+    private boolean podeGuardar() {
+        boolean confirmado = !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return confirmado && (!comReplicas || LeituraNoPrimario.ativa());
+    }
+}
@@ -0,0 +1,100 @@
+package com.primeiraapi.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.primeiraapi.dto.ResultadoLote;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Rotina comum dos cadastros em lote:
+ * - Divide os registros em blocos de TAMANHO_BLOCO
+ * - Valida cada registro (Bean Validation + regras do bloco, ex: CPF já cadastrado)
+ * - Salva os válidos de cada bloco com saveAll, em uma transação por bloco
+ */
+final class CadastroEmLote<T> {
+
+    static final int TAMANHO_BLOCO = 500;
+
+    private final Validator validator;
+    private final Function<List<T>, Function<T, String>> regrasDoBloco;
+    private final Function<List<T>, List<T>> salvarTodos;
+    private final Function<T, Long> id;
+
+    /**
+     * @param regrasDoBloco recebe o bloco (para consultas em conjunto) e devolve
+     *                      a validação de cada registro: mensagem de erro ou null
+     * @param salvarTodos   persiste os registros válidos do bloco
+     */
+    CadastroEmLote(Validator validator,
+                   Function<List<T>, Function<T, String>> regrasDoBloco,
+                   Function<List<T>, List<T>> salvarTodos,
+                   Function<T, Long> id) {
+        this.validator = validator;
+        this.regrasDoBloco = regrasDoBloco;
+        this.salvarTodos = salvarTodos;
+        this.id = id;
+    }
+
+    ResultadoLote executar(List<T> registros) {
+        List<ResultadoLote.Item> itens = new ArrayList<>(registros.size());
+        for (int inicio = 0; inicio < registros.size(); inicio += TAMANHO_BLOCO) {
+            List<T> bloco = registros.subList(inicio, Math.min(inicio + TAMANHO_BLOCO, registros.size()));
+            processarBloco(bloco, inicio, itens);
+        }
+        return ResultadoLote.of(itens);
+    }
+
+    private void processarBloco(List<T> bloco, int inicio, List<ResultadoLote.Item> itens) {
+        Function<T, String> regras = regrasDoBloco.apply(bloco);
+        List<T> validos = new ArrayList<>();
+        List<Integer> indicesValidos = new ArrayList<>();
+        List<ResultadoLote.Item> resultadoBloco = new ArrayList<>(bloco.size());
+
+        for (int i = 0; i < bloco.size(); i++) {
+            T registro = bloco.get(i);
+            String erro = registro == null ? "Registro vazio" : validar(registro);
+            if (erro == null) {
+                erro = regras.apply(registro);
+            }
+            if (erro == null) {
+                validos.add(registro);
+                indicesValidos.add(i);
+                resultadoBloco.add(null); // preenchido após salvar
+            } else {
+                resultadoBloco.add(ResultadoLote.Item.falha(inicio + i, erro));
+            }
+        }
+
+        if (!validos.isEmpty()) {
+            try {
+                List<T> salvos = salvarTodos.apply(validos);
+                for (int v = 0; v < salvos.size(); v++) {
+                    int i = indicesValidos.get(v);
+                    resultadoBloco.set(i, ResultadoLote.Item.criado(inicio + i, id.apply(salvos.get(v))));
+                }
+            } catch (DataIntegrityViolationException e) {
+                // Outra requisição gravou um valor único no meio do caminho: o bloco inteiro é desfeito
+                for (int i : indicesValidos) {
+                    resultadoBloco.set(i, ResultadoLote.Item.falha(inicio + i, "Bloco não salvo: violação de integridade"));
+                }
+            }
+        }
+        itens.addAll(resultadoBloco);
+    }
+
+    private String validar(T registro) {
+        Set<ConstraintViolation<T>> violacoes = validator.validate(registro);
+        if (violacoes.isEmpty()) {
+            return null;
+        }
+        ConstraintViolation<T> violacao = violacoes.iterator().next();
+        return violacao.getPropertyPath() + ": " + violacao.getMessage();
+    }
+}
@@ -1,14 +1,48 @@
 package com.primeiraapi.service;
 
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.primeiraapi.dto.CamposDiagnostico;
+import com.primeiraapi.dto.EventoDiagnostico;
+import com.primeiraapi.dto.PaginaCursor;
+import com.primeiraapi.dto.PaginaPeriodo;
+import com.primeiraapi.dto.ResultadoLote;
+import com.primeiraapi.dto.VersaoAgregada;
 import com.primeiraapi.model.Diagnostico;
+import com.primeiraapi.model.DiagnosticoArquivado;
+import com.primeiraapi.model.Medico;
+import com.primeiraapi.model.Paciente;
+import com.primeiraapi.repository.DiagnosticoArquivadoRepository;
 import com.primeiraapi.repository.DiagnosticoRepository;
+import com.primeiraapi.repository.MedicoRepository;
+import com.primeiraapi.repository.PacienteRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 
 /**
  * Camada de serviço para Diagnóstico:
@@ -20,20 +54,187 @@ import com.primeiraapi.repository.DiagnosticoRepository;
 @SuppressWarnings("null")
 public class DiagnosticoService {
 
+    // Quantidade de linhas exportadas entre cada limpeza do contexto de persistência
+    private static final int EXPORTACAO_LOTE = 500;
+
+    // Ordem das consultas por período: mais recentes primeiro, desempate pelo ID
+    private static final Comparator<Diagnostico> MAIS_RECENTES = Comparator
+            .comparing(Diagnostico::getDataDiagnostico, Comparator.nullsFirst(Comparator.reverseOrder()))
+            .thenComparing(Diagnostico::getId, Comparator.reverseOrder());
+
     private final DiagnosticoRepository repository;
+    private final DiagnosticoArquivadoRepository arquivadoRepository;
+    private final ArquivamentoDiagnosticos arquivamento;
+    private final PacienteRepository pacienteRepository;
+    private final MedicoRepository medicoRepository;
+    private final PacienteService pacienteService;
+    private final MedicoService medicoService;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final IndiceBusca indiceBusca;
+    private final AnaliseService analiseService;
+    private final ResumoPacientes resumos;
+    private final FeedDiagnosticos feed;
+    private final TransactionTemplate transactionTemplate;
+    private final AtualizacaoParcial<Diagnostico> atualizacaoParcial;
+    private final LeiturasCompartilhadas<Long, Optional<Diagnostico>> leiturasPorId;
+    private final LeiturasCompartilhadas<Long, List<Diagnostico>> leiturasPorPaciente;
+    private final LeiturasCompartilhadas<PeriodoPaciente, PaginaPeriodo<Diagnostico>> leiturasPeriodoPorPaciente;
+
+    // Chave das leituras por período de um paciente: mesma página pedida ao mesmo tempo
+    private record PeriodoPaciente(Long pacienteId, LocalDate inicio, LocalDate fim, String after, Integer limit) {}
 
-    public DiagnosticoService(DiagnosticoRepository repository) {
+    // Campos aceitos no PATCH e suas colunas (paciente, médico e data não mudam: alimentam as análises)
+    private static final Map<String, String> COLUNAS_PATCH = Map.of(
+            "descricao", "descricao",
+            "recomendacoes", "recomendacoes");
+
+    public DiagnosticoService(DiagnosticoRepository repository,
+                              DiagnosticoArquivadoRepository arquivadoRepository,
+                              ArquivamentoDiagnosticos arquivamento,
+                              PacienteRepository pacienteRepository,
+                              MedicoRepository medicoRepository,
+                              PacienteService pacienteService,
+                              MedicoService medicoService,
+                              EntityManager entityManager,
+                              Validator validator,
+                              IndiceBusca indiceBusca,
+                              AnaliseService analiseService,
+                              ResumoPacientes resumos,
+                              FeedDiagnosticos feed,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry registry) {
         this.repository = repository;
+        this.arquivadoRepository = arquivadoRepository;
+        this.arquivamento = arquivamento;
+        this.pacienteRepository = pacienteRepository;
+        this.medicoRepository = medicoRepository;
+        this.pacienteService = pacienteService;
+        this.medicoService = medicoService;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.indiceBusca = indiceBusca;
+        this.analiseService = analiseService;
+        this.resumos = resumos;
+        this.feed = feed;
+        this.transactionTemplate = transactionTemplate;
+        this.atualizacaoParcial = new AtualizacaoParcial<>(validator, COLUNAS_PATCH);
+        this.leiturasPorId = new LeiturasCompartilhadas<>(registry, "diagnosticos.por_id");
+        this.leiturasPorPaciente = new LeiturasCompartilhadas<>(registry, "diagnosticos.por_paciente");
+        this.leiturasPeriodoPorPaciente = new LeiturasCompartilhadas<>(registry, "diagnosticos.periodo_por_paciente");
     }
 
     /**
      * Cria um novo diagnóstico
+     * - Paciente e médico são buscados pelo ID (via cache) e devolvidos completos na resposta
+     * - A contagem das análises e o resumo do paciente são atualizados na mesma transação do insert
+     * - As assinaturas de /stream recebem o evento depois do commit
      */
+    @Transactional
     public Diagnostico create(Diagnostico diagnostico) {
         if (diagnostico.getPaciente() == null || diagnostico.getMedico() == null) {
             throw new IllegalArgumentException("Paciente e Médico são obrigatórios");
         }
-        return repository.save(diagnostico);
+        diagnostico.setPaciente(buscarPaciente(diagnostico.getPaciente().getId()));
+        diagnostico.setMedico(buscarMedico(diagnostico.getMedico().getId()));
+        Diagnostico salvo = repository.save(diagnostico);
+        analiseService.registrar(List.of(salvo), 1);
+        resumos.registrar(List.of(salvo));
+        indiceBusca.indexarDiagnostico(salvo);
+        invalidarPaciente(salvo.getPaciente().getId());
+        feed.publicar(EventoDiagnostico.de(EventoDiagnostico.CRIADO, salvo));
+        return salvo;
+    }
+
+    /**
+     * Valida um diagnóstico sem gravá-lo (ingestão assíncrona, antes de enfileirar)
+     * - Campos obrigatórios, paciente e médico existentes (via cache)
+     */
+    public void validar(Diagnostico diagnostico) {
+        if (diagnostico.getPaciente() == null || diagnostico.getMedico() == null) {
+            throw new IllegalArgumentException("Paciente e Médico são obrigatórios");
+        }
+        Set<ConstraintViolation<Diagnostico>> violacoes = validator.validate(diagnostico);
+        if (!violacoes.isEmpty()) {
+            ConstraintViolation<Diagnostico> violacao = violacoes.iterator().next();
+            throw new IllegalArgumentException(violacao.getPropertyPath() + ": " + violacao.getMessage());
+        }
+        buscarPaciente(diagnostico.getPaciente().getId());
+        buscarMedico(diagnostico.getMedico().getId());
+    }
+
+    private Paciente buscarPaciente(Long id) {
+        return Optional.ofNullable(id)
+                .flatMap(pacienteService::findById)
+                .orElseThrow(() -> new IllegalArgumentException("Paciente não encontrado"));
+    }
+
+    private Medico buscarMedico(Long id) {
+        return Optional.ofNullable(id)
+                .flatMap(medicoService::findById)
+                .orElseThrow(() -> new IllegalArgumentException("Médico não encontrado"));
+    }
+
+    /**
+     * Cria vários diagnósticos de uma vez
+     * - Pacientes e médicos do bloco são carregados com uma consulta cada
+     * - Os inserts de cada bloco são enviados em lote (JDBC batching)
+     * - Retorna o resultado de cada registro (id criado ou erro)
+     */
+    public ResultadoLote createEmLote(List<Diagnostico> diagnosticos) {
+        return new CadastroEmLote<Diagnostico>(validator, bloco -> {
+            Map<Long, Paciente> pacientes = carregarPorId(bloco,
+                    d -> d.getPaciente() == null ? null : d.getPaciente().getId(),
+                    pacienteRepository::findAllById, Paciente::getId);
+            Map<Long, Medico> medicos = carregarPorId(bloco,
+                    d -> d.getMedico() == null ? null : d.getMedico().getId(),
+                    medicoRepository::findAllById, Medico::getId);
+            return diagnostico -> {
+                if (diagnostico.getPaciente() == null || diagnostico.getMedico() == null) {
+                    return "Paciente e Médico são obrigatórios";
+                }
+                Paciente paciente = pacientes.get(diagnostico.getPaciente().getId());
+                if (paciente == null) {
+                    return "Paciente não encontrado";
+                }
+                Medico medico = medicos.get(diagnostico.getMedico().getId());
+                if (medico == null) {
+                    return "Médico não encontrado";
+                }
+                // Troca as referências {"id": ...} do JSON pelas entidades carregadas (com @Version)
+                diagnostico.setPaciente(paciente);
+                diagnostico.setMedico(medico);
+                return null;
+            };
+        }, this::salvarEIndexar, Diagnostico::getId).executar(diagnosticos);
+    }
+
+    private List<Diagnostico> salvarEIndexar(List<Diagnostico> diagnosticos) {
+        // Inserts do bloco, contagens das análises e resumos dos pacientes confirmados juntos
+        List<Diagnostico> salvos = transactionTemplate.execute(status -> {
+            List<Diagnostico> bloco = repository.saveAll(diagnosticos);
+            analiseService.registrar(bloco, 1);
+            resumos.registrar(bloco);
+            return bloco;
+        });
+        salvos.forEach(indiceBusca::indexarDiagnostico);
+        salvos.forEach(salvo -> invalidarPaciente(salvo.getPaciente().getId()));
+        salvos.forEach(salvo -> feed.publicar(EventoDiagnostico.de(EventoDiagnostico.CRIADO, salvo)));
+        return salvos;
+    }
+
+    private <E> Map<Long, E> carregarPorId(List<Diagnostico> bloco, Function<Diagnostico, Long> id,
+                                           Function<List<Long>, List<E>> carregar, Function<E, Long> idDe) {
+        List<Long> ids = bloco.stream()
+                .filter(Objects::nonNull)
+                .map(id)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return carregar.apply(ids).stream().collect(Collectors.toMap(idDe, Function.identity()));
     }
 
     /**
@@ -43,18 +244,109 @@ public class DiagnosticoService {
         return repository.findAll();
     }
 
+    /**
+     * Retorna uma página de diagnósticos a partir do cursor (ID) informado
+     * - Usa busca por chave (WHERE id > after), com custo constante em qualquer profundidade
+     */
+    public PaginaCursor<Diagnostico> findPagina(Long after, Integer limit) {
+        int limite = PaginaCursor.normalizarLimite(limit);
+        List<Diagnostico> resultado = repository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, Limit.of(limite + 1));
+        return PaginaCursor.of(resultado, limite, Diagnostico::getId);
+    }
+
+    /**
+     * Página de diagnósticos só com os campos pedidos (?fields= / ?expand=)
+     */
+    public PaginaCursor<Map<String, Object>> findPaginaProjetada(CamposDiagnostico campos, Long after, Integer limit) {
+        int limite = PaginaCursor.normalizarLimite(limit);
+        List<Map<String, Object>> resultado = repository.findProjecaoPagina(campos, after, limite + 1);
+        return PaginaCursor.of(resultado, limite, m -> (Long) m.get("id"));
+    }
+
+    /**
+     * Diagnóstico só com os campos pedidos, ou erro 404
+     * - Não está na tabela principal: procura no arquivo
+     */
+    public Map<String, Object> findProjetadoOrThrow(CamposDiagnostico campos, Long id) {
+        return repository.findProjecaoById(campos, id)
+            .orElseThrow(() ->
+                new ResponseStatusException(
+                    HttpStatus.NOT_FOUND,
+                    "Diagnóstico não encontrado"
+                )
+            );
+    }
+
+    /**
+     * Página de diagnósticos de um paciente só com os campos pedidos (cursor por ID, como findPagina)
+     */
+    public PaginaCursor<Map<String, Object>> findProjetadosByPacienteId(CamposDiagnostico campos, Long pacienteId,
+                                                                        Long after, Integer limit) {
+        int limite = PaginaCursor.normalizarLimite(limit);
+        List<Map<String, Object>> resultado = repository.findProjecaoByPacienteId(campos, pacienteId, after, limite + 1);
+        return PaginaCursor.of(resultado, limite, m -> (Long) m.get("id"));
+    }
+
+    /**
+     * Página de diagnósticos de um médico só com os campos pedidos (cursor por ID, como findPagina)
+     */
+    public PaginaCursor<Map<String, Object>> findProjetadosByMedicoId(CamposDiagnostico campos, Long medicoId,
+                                                                      Long after, Integer limit) {
+        int limite = PaginaCursor.normalizarLimite(limit);
+        List<Map<String, Object>> resultado = repository.findProjecaoByMedicoId(campos, medicoId, after, limite + 1);
+        return PaginaCursor.of(resultado, limite, m -> (Long) m.get("id"));
+    }
+
+    /**
+     * Percorre todos os diagnósticos sem carregar a tabela na memória
+     * - Cada linha é entregue ao consumidor assim que é lida do banco
+     * - As entidades são desanexadas do contexto de persistência conforme avançamos
+     */
+    @Transactional(readOnly = true)
+    public void exportar(Consumer<Diagnostico> consumidor) {
+        try (Stream<Diagnostico> diagnosticos = repository.streamAll()) {
+            int lidos = 0;
+            for (Diagnostico diagnostico : (Iterable<Diagnostico>) diagnosticos::iterator) {
+                consumidor.accept(diagnostico);
+                entityManager.detach(diagnostico);
+                if (++lidos % EXPORTACAO_LOTE == 0) {
+                    // Libera também pacientes e médicos já lidos
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
     /**
      * Busca por ID retornando Optional
+     * - Requisições simultâneas pelo mesmo ID fazem uma única consulta
+     * - Não está na tabela principal: procura no arquivo (cópia só para leitura)
      */
     public Optional<Diagnostico> findById(Long id) {
-        return repository.findById(id);
+        return leiturasPorId.ler(id, () -> repository.findById(id)
+                .or(() -> arquivadoRepository.findById(id).map(DiagnosticoArquivado::paraDiagnostico)));
     }
 
     /**
      * Busca por ID ou lança erro 404
      */
     public Diagnostico findOrThrow(Long id) {
-        return repository.findById(id)
+        return findById(id)
+            .orElseThrow(() ->
+                new ResponseStatusException(
+                    HttpStatus.NOT_FOUND,
+                    "Diagnóstico não encontrado"
+                )
+            );
+    }
+
+    /**
+     * Versão do diagnóstico (com paciente e médico) para o ETag, sem carregar as entidades
+     */
+    public Long findVersaoOrThrow(Long id) {
+        return repository.findVersaoById(id)
+            .or(() -> arquivadoRepository.findVersaoById(id))
             .orElseThrow(() ->
                 new ResponseStatusException(
                     HttpStatus.NOT_FOUND,
@@ -63,11 +355,26 @@ public class DiagnosticoService {
             );
     }
 
+    /**
+     * Versão agregada da lista de diagnósticos de um paciente (ETag)
+     */
+    public VersaoAgregada findVersaoByPacienteId(Long pacienteId) {
+        return repository.findVersaoByPacienteId(pacienteId);
+    }
+
+    /**
+     * Versão agregada da lista de diagnósticos de um médico (ETag)
+     */
+    public VersaoAgregada findVersaoByMedicoId(Long medicoId) {
+        return repository.findVersaoByMedicoId(medicoId);
+    }
+
     /**
      * Retorna diagnósticos de um paciente específico
+     * - Prontuário aberto em vários terminais ao mesmo tempo: uma única consulta para todos
      */
     public List<Diagnostico> findByPacienteId(Long pacienteId) {
-        return repository.findByPacienteId(pacienteId);
+        return leiturasPorPaciente.ler(pacienteId, () -> repository.findByPacienteId(pacienteId));
     }
 
     /**
@@ -77,30 +384,148 @@ public class DiagnosticoService {
         return repository.findByMedicoId(medicoId);
     }
 
+    /**
+     * Diagnósticos de um paciente entre as datas (inclusive), mais recentes primeiro
+     * - ?after= continua a partir do cursor da página anterior
+     * - Períodos que alcançam diagnósticos arquivados também leem o arquivo
+     * - A mesma página pedida em vários terminais ao mesmo tempo: uma única consulta para todos
+     */
+    public PaginaPeriodo<Diagnostico> findPeriodoByPacienteId(Long pacienteId, LocalDate inicio, LocalDate fim,
+                                                              String after, Integer limit) {
+        return leiturasPeriodoPorPaciente.ler(new PeriodoPaciente(pacienteId, inicio, fim, after, limit),
+                () -> findPeriodo(inicio, fim, after, limit,
+                        (antes, limite) -> repository.findPeriodoByPacienteId(
+                                pacienteId, inicio.atStartOfDay(), antes.data(), antes.id(), limite),
+                        (antes, limite) -> arquivadoRepository.findPeriodoByPacienteId(
+                                pacienteId, inicio.atStartOfDay(), antes.data(), antes.id(), limite)));
+    }
+
+    /**
+     * Diagnósticos de um médico entre as datas (inclusive), mais recentes primeiro
+     * - ?after= continua a partir do cursor da página anterior
+     * - Períodos que alcançam diagnósticos arquivados também leem o arquivo
+     */
+    public PaginaPeriodo<Diagnostico> findPeriodoByMedicoId(Long medicoId, LocalDate inicio, LocalDate fim,
+                                                            String after, Integer limit) {
+        return findPeriodo(inicio, fim, after, limit,
+                (antes, limite) -> repository.findPeriodoByMedicoId(
+                        medicoId, inicio.atStartOfDay(), antes.data(), antes.id(), limite),
+                (antes, limite) -> arquivadoRepository.findPeriodoByMedicoId(
+                        medicoId, inicio.atStartOfDay(), antes.data(), antes.id(), limite));
+    }
+
+    /**
+     * Página do período nas duas tabelas
+     * - A tabela principal é lida primeiro: uma linha arquivada entre as duas consultas
+     *   aparece nas duas e fica uma vez só (mesmo ID); nunca some das duas
+     * - As duas listas já vêm ordenadas; juntas, reordenadas e cortadas no limite
+     */
+    private PaginaPeriodo<Diagnostico> findPeriodo(LocalDate inicio, LocalDate fim, String after, Integer limit,
+                                                   BiFunction<PaginaPeriodo.Cursor, Limit, List<Diagnostico>> consulta,
+                                                   BiFunction<PaginaPeriodo.Cursor, Limit, List<DiagnosticoArquivado>> arquivo) {
+        if (inicio.isAfter(fim)) {
+            throw new IllegalArgumentException("Data inicial deve ser anterior à final");
+        }
+        // Primeira página: tudo antes do início do dia seguinte ao fim
+        PaginaPeriodo.Cursor antes = after == null
+                ? new PaginaPeriodo.Cursor(fim.plusDays(1).atStartOfDay(), 0L)
+                : PaginaPeriodo.Cursor.parse(after);
+        int limite = PaginaCursor.normalizarLimite(limit);
+        List<Diagnostico> resultado = consulta.apply(antes, Limit.of(limite + 1));
+        if (arquivamento.incluiArquivo(inicio.atStartOfDay())) {
+            Map<Long, Diagnostico> porId = new LinkedHashMap<>();
+            resultado.forEach(d -> porId.put(d.getId(), d));
+            arquivo.apply(antes, Limit.of(limite + 1))
+                    .forEach(d -> porId.putIfAbsent(d.getId(), d.paraDiagnostico()));
+            resultado = porId.values().stream().sorted(MAIS_RECENTES).limit(limite + 1L).toList();
+        }
+        return PaginaPeriodo.of(resultado, limite,
+                d -> new PaginaPeriodo.Cursor(d.getDataDiagnostico(), d.getId()));
+    }
+
     /**
      * Atualiza diagnóstico existente
+     * - Transacional: paciente e médico carregados pelo findById continuam
+     *   inicializados no retorno (sem open-in-view)
      */
+    @Transactional
     @SuppressWarnings("null")
     public Diagnostico update(Long id, Diagnostico dados) {
         Diagnostico existente = repository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Diagnóstico não encontrado"));
 
+        // Bloqueio otimista: o cliente informou a versão que leu e ela já mudou
+        if (dados.getVersao() != null && !dados.getVersao().equals(existente.getVersao()))
+            throw new ObjectOptimisticLockingFailureException(Diagnostico.class, id);
+
         if (dados.getDescricao() != null)
             existente.setDescricao(dados.getDescricao());
 
         if (dados.getRecomendacoes() != null)
             existente.setRecomendacoes(dados.getRecomendacoes());
 
-        return repository.save(existente);
+        Diagnostico salvo = repository.save(existente);
+        indiceBusca.indexarDiagnostico(salvo);
+        invalidarLeituras(id, salvo.getPaciente().getId());
+        feed.publicar(EventoDiagnostico.de(EventoDiagnostico.ATUALIZADO, salvo));
+        return salvo;
     }
 
     /**
-     * Remove diagnóstico pelo ID
+     * Atualiza só os campos enviados, com um único UPDATE (sem SELECT antes)
+     * - versao informada: o UPDATE só acontece se ela ainda for a atual (senão 409)
+     * - Devolve o diagnóstico com paciente e médico não carregados (só os IDs)
      */
-    public void delete(Long id) {
-        if (!repository.existsById(id)) {
-            throw new IllegalArgumentException("Diagnóstico não encontrado");
+    public Diagnostico patch(Long id, Diagnostico dados, Set<String> campos) {
+        Map<String, Object> colunas = atualizacaoParcial.colunas(dados, campos);
+        Diagnostico atualizado = repository.atualizarColunas(Diagnostico.class, id, dados.getVersao(), colunas)
+                .orElseThrow(() -> naoAtualizado(id, dados.getVersao()));
+        indiceBusca.indexarDiagnostico(atualizado);
+        invalidarLeituras(id, atualizado.getPaciente().getId());
+        feed.publicar(EventoDiagnostico.de(EventoDiagnostico.ATUALIZADO, atualizado));
+        return atualizado;
+    }
+
+    // Nenhuma linha alterada: só aqui consultamos o banco para separar 404 de 409
+    private RuntimeException naoAtualizado(Long id, Long versao) {
+        if (versao != null && repository.existsById(id)) {
+            return new ObjectOptimisticLockingFailureException(Diagnostico.class, id);
         }
-        repository.deleteById(id);
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Diagnóstico não encontrado");
+    }
+
+    /**
+     * Remove diagnóstico pelo ID com um único DELETE (404 quando nenhuma linha foi removida)
+     * - Médico, especialidade e data da linha removida voltam no próprio comando e decrementam
+     *   a contagem das análises e o resumo do paciente, na mesma transação
+     * - O paciente também volta, para o filtro das assinaturas de /stream
+     */
+    @Transactional
+    public void delete(Long id) {
+        Object[] removido = repository.removerRetornando(Diagnostico.class, id,
+                        "medico_id", "data_diagnostico", "paciente_id", "especialidade_medico")
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Diagnóstico não encontrado"));
+        long medicoId = ((Number) removido[0]).longValue();
+        analiseService.registrar(medicoId, (String) removido[3], paraDataHora(removido[1]), -1);
+        long pacienteId = ((Number) removido[2]).longValue();
+        resumos.remover(pacienteId, id);
+        indiceBusca.remover(IndiceBusca.TIPO_DIAGNOSTICO, id);
+        invalidarLeituras(id, pacienteId);
+        feed.publicar(EventoDiagnostico.removido(id, pacienteId, medicoId));
+    }
+
+    // Leituras em andamento do diagnóstico e das listas do paciente não são mais compartilhadas
+    private void invalidarLeituras(Long id, Long pacienteId) {
+        leiturasPorId.invalidar(id);
+        invalidarPaciente(pacienteId);
+    }
+
+    private void invalidarPaciente(Long pacienteId) {
+        leiturasPorPaciente.invalidar(pacienteId);
+        leiturasPeriodoPorPaciente.invalidarSe(periodo -> periodo.pacienteId().equals(pacienteId));
+    }
+
+    private static LocalDateTime paraDataHora(Object valor) {
+        return valor instanceof Timestamp data ? data.toLocalDateTime() : (LocalDateTime) valor;
     }
 }
@@ -0,0 +1,273 @@
+package com.primeiraapi.service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.primeiraapi.dto.EventoDiagnostico;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Distribui as alterações de diagnósticos para as assinaturas abertas (SSE):
+ * - Publicado só depois do commit; o JSON do evento é gerado uma vez para todos os assinantes
+ * - Assinantes indexados pelo filtro (médico, paciente ou todos): cada evento só percorre
+ *   quem pode recebê-lo
+ * - Cada assinante tem uma fila limitada e uma virtual thread que envia para o cliente;
+ *   quem publica só faz offer na fila e nunca espera por um cliente lento
+ * - Fila cheia: o assinante é desconectado (padrão) ou o evento é descartado para ele
+ */
+@Service
+public class FeedDiagnosticos {
+
+    /**
+     * Evento já serializado, numerado em ordem de publicação (id do evento SSE)
+     */
+    public record Mensagem(long sequencia, String tipo, String json) {
+    }
+
+    /**
+     * Para onde os eventos de um assinante vão (no controller, um SseEmitter)
+     */
+    public interface Destino {
+
+        void enviar(Mensagem mensagem) throws IOException;
+
+        // Comentário SSE: mantém a conexão aberta e detecta clientes que já foram embora
+        void manterViva() throws IOException;
+
+        // Chamado uma vez ao fim da assinatura; lento = desconectado por fila cheia
+        void encerrar(boolean lento);
+    }
+
+    // Estados de uma assinatura
+    private static final int ATIVO = 0;
+    private static final int ENCERRADO = 1;
+    private static final int LENTO = 2;
+
+    private final ObjectMapper objectMapper;
+    private final int capacidade;
+    private final int maximoAssinantes;
+    private final long manterVivaMillis;
+    private final boolean descartarQuandoCheia;
+
+    private final Set<Assinante> todos = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<Assinante>> porMedico = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Assinante>> porPaciente = new ConcurrentHashMap<>();
+    private final AtomicInteger assinantes = new AtomicInteger();
+    private final AtomicLong sequencia = new AtomicLong();
+    private final Counter descartados;
+    private final Counter desconectadosLentos;
+
+    public FeedDiagnosticos(ObjectMapper objectMapper,
+                            MeterRegistry registry,
+                            @Value("${diagnosticos.stream.capacidade:256}") int capacidade,
+                            @Value("${diagnosticos.stream.maximo-assinantes:10000}") int maximoAssinantes,
+                            @Value("${diagnosticos.stream.manter-viva-segundos:15}") int manterVivaSegundos,
+                            @Value("${diagnosticos.stream.fila-cheia:desconectar}") String filaCheia) {
+        this.objectMapper = objectMapper;
+        this.capacidade = capacidade;
+        this.maximoAssinantes = maximoAssinantes;
+        this.manterVivaMillis = TimeUnit.SECONDS.toMillis(manterVivaSegundos);
+        this.descartarQuandoCheia = "descartar".equals(filaCheia);
+        Gauge.builder("diagnosticos.stream.assinantes", assinantes, AtomicInteger::get)
+                .description("Assinaturas SSE abertas")
+                .register(registry);
+        this.descartados = registry.counter("diagnosticos.stream.descartados");
+        this.desconectadosLentos = registry.counter("diagnosticos.stream.desconectados", "motivo", "lento");
+    }
+
+    /**
+     * Abre uma assinatura (filtros opcionais; com os dois, o evento precisa bater com ambos)
+     * - Acima do máximo de assinantes → 503
+     */
+    public Assinante assinar(Long medicoId, Long pacienteId, Destino destino) {
+        if (assinantes.incrementAndGet() > maximoAssinantes) {
+            assinantes.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Limite de assinaturas atingido");
+        }
+        Assinante assinante = new Assinante(medicoId, pacienteId, destino);
+        adicionar(assinante);
+        assinante.enviador = Thread.ofVirtual().name("stream-diagnosticos").start(assinante::enviar);
+        return assinante;
+    }
+
+    /**
+     * Publica o evento depois do commit da transação atual (ou na hora, fora de transação)
+     */
+    public void publicar(EventoDiagnostico evento) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            distribuir(evento);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                distribuir(evento);
+            }
+        });
+    }
+
+    private void distribuir(EventoDiagnostico evento) {
+        if (assinantes.get() == 0) {
+            return;
+        }
+        Mensagem mensagem = new Mensagem(sequencia.incrementAndGet(), evento.tipo(), serializar(evento));
+        entregar(todos, evento, mensagem);
+        entregar(porMedico.get(evento.medicoId()), evento, mensagem);
+        entregar(porPaciente.get(evento.pacienteId()), evento, mensagem);
+    }
+
+    private void entregar(Set<Assinante> candidatos, EventoDiagnostico evento, Mensagem mensagem) {
+        if (candidatos == null) {
+            return;
+        }
+        for (Assinante assinante : candidatos) {
+            if (!assinante.aceita(evento) || assinante.fila.offer(mensagem)) {
+                continue;
+            }
+            if (descartarQuandoCheia) {
+                descartados.increment();
+            } else {
+                desconectadosLentos.increment();
+                assinante.desligar(true);
+            }
+        }
+    }
+
+    private String serializar(EventoDiagnostico evento) {
+        try {
+            return objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar evento de diagnóstico", e);
+        }
+    }
+
+    // Cada assinante fica em um único índice: o do paciente (mais seletivo), senão o do médico
+    private void adicionar(Assinante assinante) {
+        BiFunction<Long, Set<Assinante>, Set<Assinante>> incluir = (id, conjunto) -> {
+            Set<Assinante> atual = conjunto != null ? conjunto : ConcurrentHashMap.newKeySet();
+            atual.add(assinante);
+            return atual;
+        };
+        if (assinante.pacienteId != null) {
+            porPaciente.compute(assinante.pacienteId, incluir);
+        } else if (assinante.medicoId != null) {
+            porMedico.compute(assinante.medicoId, incluir);
+        } else {
+            todos.add(assinante);
+        }
+    }
+
+    private void remover(Assinante assinante) {
+        BiFunction<Long, Set<Assinante>, Set<Assinante>> excluir = (id, conjunto) -> {
+            conjunto.remove(assinante);
+            return conjunto.isEmpty() ? null : conjunto;
+        };
+        if (assinante.pacienteId != null) {
+            porPaciente.computeIfPresent(assinante.pacienteId, excluir);
+        } else if (assinante.medicoId != null) {
+            porMedico.computeIfPresent(assinante.medicoId, excluir);
+        } else {
+            todos.remove(assinante);
+        }
+    }
+
+    public int getAssinantes() {
+        return assinantes.get();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        todos.forEach(assinante -> assinante.desligar(false));
+        porMedico.values().forEach(conjunto -> conjunto.forEach(assinante -> assinante.desligar(false)));
+        porPaciente.values().forEach(conjunto -> conjunto.forEach(assinante -> assinante.desligar(false)));
+    }
+
+    /**
+     * Uma assinatura aberta: fila limitada + virtual thread que a esvazia no destino
+     */
+    public final class Assinante {
+
+        private final Long medicoId;
+        private final Long pacienteId;
+        private final Destino destino;
+        private final BlockingQueue<Mensagem> fila = new ArrayBlockingQueue<>(capacidade);
+        private final AtomicInteger estado = new AtomicInteger(ATIVO);
+        private volatile Thread enviador;
+
+        private Assinante(Long medicoId, Long pacienteId, Destino destino) {
+            this.medicoId = medicoId;
+            this.pacienteId = pacienteId;
+            this.destino = destino;
+        }
+
+        private boolean aceita(EventoDiagnostico evento) {
+            return (medicoId == null || medicoId.equals(evento.medicoId()))
+                    && (pacienteId == null || pacienteId.equals(evento.pacienteId()));
+        }
+
+        /**
+         * Encerra a assinatura (cliente desconectou, timeout ou aplicação parando)
+         */
+        public void cancelar() {
+            desligar(false);
+        }
+
+        private void desligar(boolean lento) {
+            if (!estado.compareAndSet(ATIVO, lento ? LENTO : ENCERRADO)) {
+                return;
+            }
+            remover(this);
+            assinantes.decrementAndGet();
+            // Acorda o enviador parado no poll (não adianta contra um envio bloqueado no socket)
+            Thread thread = enviador;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+
+        private void enviar() {
+            try {
+                while (estado.get() == ATIVO) {
+                    Mensagem mensagem = fila.poll(manterVivaMillis, TimeUnit.MILLISECONDS);
+                    if (estado.get() != ATIVO) {
+                        break;
+                    }
+                    if (mensagem == null) {
+                        destino.manterViva();
+                    } else {
+                        destino.enviar(mensagem);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // desligado enquanto esperava a fila
+            } catch (IOException | RuntimeException e) {
+                // cliente foi embora no meio do envio
+            } finally {
+                desligar(false);
+                fila.clear();
+                destino.encerrar(estado.get() == LENTO);
+            }
+        }
+    }
+}
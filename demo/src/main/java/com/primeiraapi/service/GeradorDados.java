@@ -0,0 +1,291 @@
+package com.primeiraapi.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Popula o banco com dados sintéticos em volume de produção (perfis "carga" e "carga10m"):
+ * - Médicos com especialidades desiguais (muito mais clínicos gerais que neurocirurgiões)
+ * - Diagnósticos concentrados em poucos médicos e pacientes (distribuição de Zipf)
+ * - CPFs com dígitos verificadores válidos e CRMs no formato CRM/UF 000000
+ * Os registros são gravados em arquivos CSV e carregados pelo H2 com INSERT ... SELECT FROM CSVREAD,
+ * sem passar pelo JPA. Se o banco já tem os diagnósticos pedidos, não faz nada.
+ */
+@Component
+@ConditionalOnProperty("gerador.diagnosticos")
+public class GeradorDados implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GeradorDados.class);
+
+    // Linhas por arquivo CSV (cada arquivo é um INSERT/transação)
+    private static final int LINHAS_POR_ARQUIVO = 500_000;
+    private static final DateTimeFormatter DATA_HORA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] ESPECIALIDADES = {
+            "Clínica Geral", "Pediatria", "Ginecologia", "Cardiologia", "Ortopedia", "Dermatologia",
+            "Psiquiatria", "Oftalmologia", "Endocrinologia", "Neurologia", "Oncologia", "Neurocirurgia"};
+    private static final double[] PESOS_ESPECIALIDADES = {30, 15, 12, 10, 8, 6, 5, 5, 4, 3, 1.5, 0.5};
+    private static final String[] UFS = {"SP", "RJ", "MG", "RS", "PR", "BA", "PE", "CE", "RN", "DF"};
+    private static final double[] PESOS_UFS = {28, 14, 12, 8, 7, 6, 5, 4, 3, 3};
+
+    private static final String[] NOMES = {
+            "Maria", "José", "Ana", "João", "Francisca", "Antônio", "Juliana", "Carlos", "Mariana", "Paulo",
+            "Fernanda", "Lucas", "Patrícia", "Pedro", "Aline", "Gabriel", "Camila", "Rafael", "Beatriz", "Marcos"};
+    private static final String[] SOBRENOMES = {
+            "Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves", "Pereira", "Lima", "Gomes",
+            "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares", "Fernandes", "Vieira", "Barbosa"};
+    private static final String[] DESCRICOES = {
+            "Hipertensão arterial sistêmica", "Diabetes mellitus tipo 2", "Infecção das vias aéreas superiores",
+            "Lombalgia mecânica", "Gastrite crônica", "Ansiedade generalizada", "Dermatite atópica",
+            "Enxaqueca sem aura", "Pneumonia adquirida na comunidade", "Hipotireoidismo", "Rinite alérgica",
+            "Infecção urinária não complicada", "Tendinite do ombro direito", "Asma leve persistente"};
+    private static final String[] RECOMENDACOES = {
+            "Retorno em 30 dias com exames", "Repouso de 3 dias, hidratação e analgésico se dor",
+            "Dieta com redução de sal e atividade física regular", "Antibiótico por 7 dias, retorno se febre",
+            "Acompanhamento com especialista", "Ajuste de medicação contínua, controle semanal da pressão"};
+    private static final String[] HISTORICOS = {
+            "", "Hipertenso em acompanhamento", "Alergia a dipirona", "Diabético, usa metformina",
+            "Sem comorbidades conhecidas", "Cirurgia de apêndice em 2015", "Asma na infância"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AnaliseService analiseService;
+    private final ResumoPacientes resumos;
+    private final int medicos;
+    private final int pacientes;
+    private final long diagnosticos;
+    private final Random random;
+
+    public GeradorDados(JdbcTemplate jdbcTemplate,
+                        AnaliseService analiseService,
+                        ResumoPacientes resumos,
+                        @Value("${gerador.medicos:1000}") int medicos,
+                        @Value("${gerador.pacientes:100000}") int pacientes,
+                        @Value("${gerador.diagnosticos}") long diagnosticos,
+                        @Value("${gerador.semente:42}") long semente) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.analiseService = analiseService;
+        this.resumos = resumos;
+        this.medicos = medicos;
+        this.pacientes = pacientes;
+        this.diagnosticos = diagnosticos;
+        this.random = new Random(semente);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        long existentes = contar("diagnosticos");
+        if (existentes >= diagnosticos) {
+            log.info("Banco já tem {} diagnósticos, geração de dados ignorada", existentes);
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+        Path pasta = Files.createTempDirectory("gerador-dados");
+        try {
+            long primeiroMedico = maiorId("medicos") + 1;
+            long primeiroPaciente = maiorId("pacientes") + 1;
+            long primeiroDiagnostico = maiorId("diagnosticos") + 1;
+
+            carregar(pasta, "medicos", "id,nome,crm,especialidade,telefone,email,versao", medicos,
+                    i -> linhaMedico(primeiroMedico + i));
+            carregar(pasta, "pacientes", "id,nome,cpf,data_nascimento,telefone,email,historico_medico,versao", pacientes,
+                    i -> linhaPaciente(primeiroPaciente + i));
+
+            // Posição no ranking de Zipf → ID, embaralhado para os mais ativos não serem sempre os primeiros IDs
+            long[] medicoPorPosicao = embaralhar(primeiroMedico, medicos);
+            long[] pacientePorPosicao = embaralhar(primeiroPaciente, pacientes);
+            Zipf zipfMedicos = new Zipf(medicos, 1.1);
+            Zipf zipfPacientes = new Zipf(pacientes, 0.8);
+            carregar(pasta, "diagnosticos",
+                    "id,paciente_id,medico_id,descricao,recomendacoes,data_diagnostico,versao", diagnosticos,
+                    i -> linhaDiagnostico(primeiroDiagnostico + i,
+                            pacientePorPosicao[zipfPacientes.sortear(random)],
+                            medicoPorPosicao[zipfMedicos.sortear(random)]));
+
+            ajustarSequencia("medicos");
+            ajustarSequencia("pacientes");
+            ajustarSequencia("diagnosticos");
+        } finally {
+            try (var arquivos = Files.list(pasta)) {
+                arquivos.forEach(arquivo -> arquivo.toFile().delete());
+            }
+            Files.deleteIfExists(pasta);
+        }
+        int linhas = analiseService.reconstruir();
+        int resumidos = resumos.reparar();
+        log.info("Gerados {} médicos, {} pacientes e {} diagnósticos ({} linhas de análise, {} resumos) em {} ms",
+                medicos, pacientes, diagnosticos, linhas, resumidos, System.currentTimeMillis() - inicio);
+    }
+
+    private interface Linha {
+        String gerar(long indice);
+    }
+
+    /**
+     * Grava as linhas em arquivos CSV de até LINHAS_POR_ARQUIVO e carrega cada um com CSVREAD
+     */
+    private void carregar(Path pasta, String tabela, String colunas, long quantidade, Linha linha) throws IOException {
+        for (long inicio = 0; inicio < quantidade; inicio += LINHAS_POR_ARQUIVO) {
+            long fim = Math.min(inicio + LINHAS_POR_ARQUIVO, quantidade);
+            Path arquivo = pasta.resolve(tabela + "-" + inicio + ".csv");
+            try (BufferedWriter saida = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+                saida.write(colunas);
+                saida.newLine();
+                for (long i = inicio; i < fim; i++) {
+                    saida.write(linha.gerar(i));
+                    saida.newLine();
+                }
+            }
+            jdbcTemplate.update("INSERT INTO " + tabela + " (" + colunas + ") SELECT * FROM CSVREAD('"
+                    + arquivo.toAbsolutePath() + "', NULL, 'charset=UTF-8')");
+            Files.delete(arquivo);
+            log.info("{}: {} de {} linhas carregadas", tabela, fim, quantidade);
+        }
+    }
+
+    private String linhaMedico(long id) {
+        String nome = "Dr. " + sortear(NOMES) + " " + sortear(SOBRENOMES);
+        String crm = String.format("CRM/%s %06d", UFS[sortearPeso(PESOS_UFS)], id);
+        return csv(id, nome, crm, ESPECIALIDADES[sortearPeso(PESOS_ESPECIALIDADES)],
+                telefone(), "medico" + id + "@hospital.com", 0);
+    }
+
+    private String linhaPaciente(long id) {
+        String nome = sortear(NOMES) + " " + sortear(SOBRENOMES) + " " + sortear(SOBRENOMES);
+        String nascimento = LocalDateTime.now().minusDays(365L + random.nextInt(365 * 90)).toLocalDate().toString();
+        return csv(id, nome, cpf(id), nascimento, telefone(), "paciente" + id + "@email.com", sortear(HISTORICOS), 0);
+    }
+
+    private String linhaDiagnostico(long id, long pacienteId, long medicoId) {
+        // Últimos dois anos, em horário de atendimento
+        LocalDateTime data = LocalDateTime.now().withHour(7).withMinute(0).withSecond(0).withNano(0)
+                .minusDays(random.nextInt(730))
+                .plusMinutes(random.nextInt(12 * 60));
+        return csv(id, pacienteId, medicoId, sortear(DESCRICOES), sortear(RECOMENDACOES), DATA_HORA.format(data), 0);
+    }
+
+    /**
+     * CPF com os dois dígitos verificadores calculados a partir do número (único por paciente)
+     */
+    static String cpf(long numero) {
+        int[] d = new int[11];
+        long resto = numero % 1_000_000_000L;
+        for (int i = 8; i >= 0; i--) {
+            d[i] = (int) (resto % 10);
+            resto /= 10;
+        }
+        d[9] = digitoVerificador(d, 9);
+        d[10] = digitoVerificador(d, 10);
+        return String.format("%d%d%d.%d%d%d.%d%d%d-%d%d", d[0], d[1], d[2], d[3], d[4], d[5], d[6], d[7], d[8], d[9], d[10]);
+    }
+
+    private static int digitoVerificador(int[] digitos, int quantidade) {
+        int soma = 0;
+        for (int i = 0; i < quantidade; i++) {
+            soma += digitos[i] * (quantidade + 1 - i);
+        }
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+
+    private String telefone() {
+        return String.format("(%02d)9%04d-%04d", 11 + random.nextInt(89), random.nextInt(10_000), random.nextInt(10_000));
+    }
+
+    private String sortear(String[] opcoes) {
+        return opcoes[random.nextInt(opcoes.length)];
+    }
+
+    private int sortearPeso(double[] pesos) {
+        double total = Arrays.stream(pesos).sum();
+        double sorteio = random.nextDouble() * total;
+        for (int i = 0; i < pesos.length; i++) {
+            sorteio -= pesos[i];
+            if (sorteio < 0) {
+                return i;
+            }
+        }
+        return pesos.length - 1;
+    }
+
+    private long[] embaralhar(long primeiro, int quantidade) {
+        long[] ids = new long[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            ids[i] = primeiro + i;
+        }
+        for (int i = quantidade - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long troca = ids[i];
+            ids[i] = ids[j];
+            ids[j] = troca;
+        }
+        return ids;
+    }
+
+    // Todos os campos entre aspas (descrições e recomendações têm vírgulas)
+    private static String csv(Object... valores) {
+        StringBuilder linha = new StringBuilder();
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                linha.append(',');
+            }
+            linha.append('"').append(String.valueOf(valores[i]).replace("\"", "\"\"")).append('"');
+        }
+        return linha.toString();
+    }
+
+    private long contar(String tabela) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tabela, Long.class);
+    }
+
+    private long maiorId(String tabela) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + tabela, Long.class);
+    }
+
+    // A sequência precisa começar depois dos IDs carregados (com folga de um bloco de alocação do Hibernate)
+    private void ajustarSequencia(String tabela) {
+        long proximo = maiorId(tabela) + 101;
+        jdbcTemplate.execute("ALTER SEQUENCE " + tabela + "_seq RESTART WITH " + proximo);
+    }
+
+    /**
+     * Sorteio de posições 0..n-1 com probabilidade proporcional a 1 / (posição + 1)^s
+     */
+    private static final class Zipf {
+
+        private final double[] acumulada;
+
+        Zipf(int n, double s) {
+            acumulada = new double[n];
+            double soma = 0;
+            for (int k = 0; k < n; k++) {
+                soma += 1 / Math.pow(k + 1, s);
+                acumulada[k] = soma;
+            }
+            for (int k = 0; k < n; k++) {
+                acumulada[k] /= soma;
+            }
+        }
+
+        int sortear(Random random) {
+            int posicao = Arrays.binarySearch(acumulada, random.nextDouble());
+            return Math.min(posicao >= 0 ? posicao : -posicao - 1, acumulada.length - 1);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.primeiraapi.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.br.BrazilianAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.primeiraapi.dto.ResultadoBusca;
+import com.primeiraapi.model.Diagnostico;
+import com.primeiraapi.model.Paciente;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Índice invertido (Lucene, em memória) para busca textual em:
+ * - Diagnostico.descricao e Diagnostico.recomendacoes
+ * - Paciente.historicoMedico
+ *
+ * É atualizado pelos serviços a cada create/update/delete e reconstruído
+ * na inicialização (ReindexacaoBusca). As buscas enxergam as escritas em até 1 segundo.
+ * - Dentro de uma transação a escrita no índice espera o commit: rollback não deixa
+ *   documento fantasma nem desatualizado
+ * - Durante uma reindexação completa as chaves escritas pelos serviços são anotadas e a
+ *   reindexação não as sobrescreve com a leitura (mais antiga) do banco
+ */
+@Component
+public class IndiceBusca {
+
+    public static final String TIPO_DIAGNOSTICO = "diagnostico";
+    public static final String TIPO_PACIENTE = "paciente";
+
+    // Resultados além desta posição não são paginados (evita ranquear o índice inteiro)
+    public static final int MAXIMO_RESULTADOS = 1000;
+
+    private static final String CHAVE = "chave";
+    private static final String TIPO = "tipo";
+    private static final String ID = "id";
+
+    // Campos pesquisáveis e seus pesos no ranqueamento (BM25)
+    private static final Map<String, Float> PESOS = Map.of(
+            "descricao", 2.0f,
+            "recomendacoes", 1.0f,
+            "historicoMedico", 1.0f
+    );
+
+    private final Directory diretorio = new ByteBuffersDirectory();
+    private final Analyzer analyzer = new BrazilianAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final ControlledRealTimeReopenThread<IndexSearcher> reabertura;
+
+    // Chaves escritas pelos serviços desde o início da reindexação em andamento (null: nenhuma)
+    private volatile Set<String> escritasDuranteReindexacao;
+
+    public IndiceBusca() throws IOException {
+        writer = new IndexWriter(diretorio, new IndexWriterConfig(analyzer).setRAMBufferSizeMB(64));
+        searcherManager = new SearcherManager(writer, null);
+        reabertura = new ControlledRealTimeReopenThread<>(writer, searcherManager, 1.0, 0.1);
+        reabertura.setName("indice-busca-reabertura");
+        reabertura.setDaemon(true);
+        reabertura.start();
+    }
+
+    /**
+     * Inclui ou substitui o diagnóstico no índice (depois do commit da transação atual)
+     */
+    public void indexarDiagnostico(Diagnostico diagnostico) {
+        Document doc = documentoDiagnostico(diagnostico);
+        aposCommit(() -> escrever(TIPO_DIAGNOSTICO, diagnostico.getId(), doc));
+    }
+
+    /**
+     * Inclui ou substitui o paciente no índice (depois do commit da transação atual)
+     */
+    public void indexarPaciente(Paciente paciente) {
+        Document doc = documentoPaciente(paciente);
+        aposCommit(() -> escrever(TIPO_PACIENTE, paciente.getId(), doc));
+    }
+
+    /**
+     * Remove um registro do índice (depois do commit da transação atual)
+     */
+    public void remover(String tipo, Long id) {
+        aposCommit(() -> escrever(tipo, id, null));
+    }
+
+    /**
+     * Começa uma reindexação completa: limpa o índice e passa a anotar as escritas dos serviços
+     */
+    public void iniciarReindexacao() {
+        limpar();
+        escritasDuranteReindexacao = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Diagnóstico lido pela reindexação: ignorado se os serviços já o escreveram ou removeram depois do início
+     */
+    public void reindexarDiagnostico(Diagnostico diagnostico) {
+        reescrever(TIPO_DIAGNOSTICO, diagnostico.getId(), documentoDiagnostico(diagnostico));
+    }
+
+    /**
+     * Paciente lido pela reindexação: ignorado se os serviços já o escreveram ou removeram depois do início
+     */
+    public void reindexarPaciente(Paciente paciente) {
+        reescrever(TIPO_PACIENTE, paciente.getId(), documentoPaciente(paciente));
+    }
+
+    public void concluirReindexacao() {
+        escritasDuranteReindexacao = null;
+        atualizarLeitura();
+    }
+
+    private Document documentoDiagnostico(Diagnostico diagnostico) {
+        Document doc = novoDocumento(TIPO_DIAGNOSTICO, diagnostico.getId());
+        adicionarTexto(doc, "descricao", diagnostico.getDescricao());
+        adicionarTexto(doc, "recomendacoes", diagnostico.getRecomendacoes());
+        if (diagnostico.getPaciente() != null) {
+            doc.add(new StoredField("pacienteId", diagnostico.getPaciente().getId()));
+        }
+        if (diagnostico.getMedico() != null) {
+            doc.add(new StoredField("medicoId", diagnostico.getMedico().getId()));
+        }
+        return doc;
+    }
+
+    private Document documentoPaciente(Paciente paciente) {
+        Document doc = novoDocumento(TIPO_PACIENTE, paciente.getId());
+        doc.add(new StoredField("nome", paciente.getNome() == null ? "" : paciente.getNome()));
+        adicionarTexto(doc, "historicoMedico", paciente.getHistoricoMedico());
+        return doc;
+    }
+
+    private void aposCommit(Runnable escrita) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            escrita.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                escrita.run();
+            }
+        });
+    }
+
+    // Escrita dos serviços (doc null: remoção); anotada se houver reindexação em andamento
+    private void escrever(String tipo, Long id, Document doc) {
+        Set<String> anotadas = escritasDuranteReindexacao;
+        if (anotadas == null) {
+            gravar(tipo, id, doc);
+            return;
+        }
+        synchronized (anotadas) {
+            anotadas.add(chave(tipo, id));
+            gravar(tipo, id, doc);
+        }
+    }
+
+    private void reescrever(String tipo, Long id, Document doc) {
+        Set<String> anotadas = escritasDuranteReindexacao;
+        if (anotadas == null) {
+            gravar(tipo, id, doc);
+            return;
+        }
+        synchronized (anotadas) {
+            if (!anotadas.contains(chave(tipo, id))) {
+                gravar(tipo, id, doc);
+            }
+        }
+    }
+
+    /**
+     * Remove todos os registros (usado antes de uma reindexação completa)
+     */
+    private void limpar() {
+        try {
+            writer.deleteAll();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Torna visíveis para a busca todas as escritas feitas até agora
+     */
+    public void atualizarLeitura() {
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Busca textual ranqueada por relevância
+     * - texto: termos da busca; aceita "frase exata", +obrigatório, -excluído e prefixo*
+     * - tipo: diagnostico, paciente ou null para ambos
+     */
+    public ResultadoBusca buscar(String texto, String tipo, int pagina, int tamanho) {
+        Query consulta = montarConsulta(texto, tipo);
+        int inicio = pagina * tamanho;
+        int fim = Math.min(inicio + tamanho, MAXIMO_RESULTADOS);
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(consulta, Math.max(fim, 1));
+                StoredFields campos = searcher.storedFields();
+                List<ResultadoBusca.Item> itens = new ArrayList<>();
+                for (int i = inicio; i < Math.min(fim, topDocs.scoreDocs.length); i++) {
+                    ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                    itens.add(paraItem(campos.document(scoreDoc.doc), scoreDoc.score));
+                }
+                return new ResultadoBusca(topDocs.totalHits.value, pagina, tamanho, itens);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void fechar() throws IOException {
+        reabertura.close();
+        searcherManager.close();
+        writer.close();
+        diretorio.close();
+    }
+
+    private Query montarConsulta(String texto, String tipo) {
+        Query termos = new SimpleQueryParser(analyzer, PESOS).parse(texto);
+        if (tipo == null) {
+            return termos;
+        }
+        return new BooleanQuery.Builder()
+                .add(termos, BooleanClause.Occur.MUST)
+                .add(new TermQuery(new Term(TIPO, tipo)), BooleanClause.Occur.FILTER)
+                .build();
+    }
+
+    private Document novoDocumento(String tipo, Long id) {
+        Document doc = new Document();
+        doc.add(new StringField(CHAVE, chave(tipo, id), Field.Store.NO));
+        doc.add(new StringField(TIPO, tipo, Field.Store.YES));
+        doc.add(new StoredField(ID, id));
+        return doc;
+    }
+
+    private void adicionarTexto(Document doc, String campo, String valor) {
+        if (valor != null && !valor.isBlank()) {
+            doc.add(new TextField(campo, valor, Field.Store.YES));
+        }
+    }
+
+    private void gravar(String tipo, Long id, Document doc) {
+        try {
+            if (doc == null) {
+                writer.deleteDocuments(new Term(CHAVE, chave(tipo, id)));
+            } else {
+                writer.updateDocument(new Term(CHAVE, chave(tipo, id)), doc);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ResultadoBusca.Item paraItem(Document doc, float relevancia) {
+        Map<String, Object> campos = new LinkedHashMap<>();
+        for (IndexableField campo : doc.getFields()) {
+            String nome = campo.name();
+            if (!TIPO.equals(nome) && !ID.equals(nome)) {
+                campos.put(nome, campo.numericValue() != null ? campo.numericValue() : campo.stringValue());
+            }
+        }
+        return new ResultadoBusca.Item(
+                doc.get(TIPO),
+                doc.getField(ID).numericValue().longValue(),
+                relevancia,
+                campos);
+    }
+
+    private static String chave(String tipo, Long id) {
+        return tipo + ":" + id;
+    }
+}
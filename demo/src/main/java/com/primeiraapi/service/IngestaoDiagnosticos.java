@@ -0,0 +1,188 @@
+package com.primeiraapi.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.primeiraapi.dto.ResultadoLote;
+import com.primeiraapi.dto.StatusIngestao;
+import com.primeiraapi.model.Diagnostico;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ingestão assíncrona de diagnósticos (write-behind):
+ * - O POST valida e coloca o diagnóstico em uma fila limitada, respondendo na hora com um token
+ * - Um único gravador esvazia a fila em lotes: um INSERT em lote e um commit por lote
+ * - Fila cheia: o diagnóstico é recusado (o controller responde 503 + Retry-After)
+ * - No desligamento, para de aceitar e grava o que ainda está na fila; conferir se aceita e
+ *   enfileirar acontecem sob o mesmo lock que o desligamento usa para parar de aceitar, então
+ *   nenhum item entra na fila depois de ela ter sido esvaziada pela última vez
+ */
+@Component
+public class IngestaoDiagnosticos {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestaoDiagnosticos.class);
+
+    // Quanto tempo o gravador espera por novos itens antes de conferir se deve parar
+    private static final long ESPERA_MS = 200;
+
+    private record Pendente(UUID token, Diagnostico diagnostico) {}
+
+    private final DiagnosticoService service;
+    private final boolean assincrona;
+    private final int tamanhoLote;
+    private final BlockingQueue<Pendente> fila;
+    private final Thread gravador;
+
+    // Situação de cada token por 10 minutos (tempo para o cliente consultar o resultado)
+    private final Cache<UUID, StatusIngestao> situacoes = Caffeine.newBuilder()
+            .maximumSize(1_000_000)
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
+
+    private volatile boolean aceitando = true;
+
+    // Enfileiramentos compartilham o lock de leitura; o desligamento usa o de escrita
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public IngestaoDiagnosticos(DiagnosticoService service,
+                                MeterRegistry registry,
+                                @Value("${diagnosticos.ingestao.assincrona:false}") boolean assincrona,
+                                @Value("${diagnosticos.ingestao.capacidade:10000}") int capacidade,
+                                @Value("${diagnosticos.ingestao.lote:500}") int tamanhoLote) {
+        this.service = service;
+        this.assincrona = assincrona;
+        this.tamanhoLote = tamanhoLote;
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.gravador = Thread.ofPlatform().name("ingestao-diagnosticos").unstarted(this::gravar);
+        Gauge.builder("diagnosticos.ingestao.fila", fila, BlockingQueue::size)
+                .description("Diagnósticos aguardando gravação")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (assincrona) {
+            gravador.start();
+        }
+    }
+
+    /**
+     * Indica se o POST de diagnósticos deve usar a fila (diagnosticos.ingestao.assincrona)
+     */
+    public boolean isAssincrona() {
+        return assincrona;
+    }
+
+    /**
+     * Valida e enfileira o diagnóstico
+     * - Dados inválidos: IllegalArgumentException (400), como no create
+     * - Fila cheia ou aplicação desligando: Optional vazio (o cliente deve tentar de novo)
+     */
+    public Optional<UUID> enfileirar(Diagnostico diagnostico) {
+        service.validar(diagnostico);
+        lock.readLock().lock();
+        try {
+            if (!aceitando) {
+                return Optional.empty();
+            }
+            UUID token = UUID.randomUUID();
+            situacoes.put(token, StatusIngestao.pendente(token));
+            if (!fila.offer(new Pendente(token, diagnostico))) {
+                situacoes.invalidate(token);
+                return Optional.empty();
+            }
+            return Optional.of(token);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Situação de um diagnóstico enfileirado (vazio se o token não existe ou expirou)
+     */
+    public Optional<StatusIngestao> situacao(UUID token) {
+        return Optional.ofNullable(situacoes.getIfPresent(token));
+    }
+
+    /**
+     * Laço do gravador: espera o primeiro item e leva junto tudo o que já estiver na fila
+     */
+    private void gravar() {
+        List<Pendente> lote = new ArrayList<>(tamanhoLote);
+        while (true) {
+            Pendente primeiro;
+            try {
+                primeiro = fila.poll(ESPERA_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                primeiro = null;
+            }
+            if (primeiro == null) {
+                if (!aceitando) {
+                    return;
+                }
+                continue;
+            }
+            lote.add(primeiro);
+            fila.drainTo(lote, tamanhoLote - 1);
+            gravarLote(lote);
+            lote.clear();
+        }
+    }
+
+    private void gravarLote(List<Pendente> lote) {
+        try {
+            ResultadoLote resultado = service.createEmLote(lote.stream().map(Pendente::diagnostico).toList());
+            for (ResultadoLote.Item item : resultado.itens()) {
+                UUID token = lote.get(item.indice()).token();
+                situacoes.put(token, item.sucesso()
+                        ? StatusIngestao.criado(token, item.id())
+                        : StatusIngestao.falhou(token, item.erro()));
+            }
+        } catch (RuntimeException e) {
+            log.error("Falha ao gravar lote de {} diagnósticos", lote.size(), e);
+            lote.forEach(p -> situacoes.put(p.token(), StatusIngestao.falhou(p.token(), "Falha ao gravar o lote")));
+        }
+    }
+
+    /**
+     * Desligamento: o servidor web já parou de receber requisições; grava o que restou na fila
+     * - O lock de escrita espera os enfileiramentos em andamento terminarem antes de parar de aceitar
+     */
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        lock.writeLock().lock();
+        try {
+            aceitando = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!assincrona) {
+            return;
+        }
+        gravador.join();
+        List<Pendente> restantes = new ArrayList<>();
+        fila.drainTo(restantes);
+        if (!restantes.isEmpty()) {
+            gravarLote(restantes);
+        }
+        log.info("Ingestão de diagnósticos encerrada com a fila vazia");
+    }
+}
@@ -0,0 +1,121 @@
+package com.primeiraapi.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.primeiraapi.config.LeituraNoPrimario;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Leituras simultâneas da mesma chave compartilham uma única ida ao banco (single-flight):
+ * - A primeira requisição executa a consulta; as que chegam enquanto ela está em andamento
+ *   esperam e recebem o mesmo resultado (ou a mesma exceção)
+ * - Nada fica guardado depois que a consulta termina: não é um cache
+ * - Dentro de uma transação de escrita a consulta roda sem compartilhar: quem escreve precisa
+ *   ler as próprias alterações e receber entidades do seu contexto de persistência
+ * - Quem precisa ler do primário (LeituraNoPrimario) não entra no grupo de quem lê da réplica,
+ *   e vice-versa: a chave do grupo inclui o destino da leitura
+ * - Escrita na chave (invalidar) desliga a consulta em andamento: quem chegar depois
+ *   faz uma nova leitura em vez de receber dados de antes da escrita
+ * - Métrica servico.leituras{leitura, resultado=executada|compartilhada}
+ */
+final class LeiturasCompartilhadas<K, V> {
+
+    private record Grupo<K>(K chave, boolean primario) {
+    }
+
+    private final ConcurrentHashMap<Grupo<K>, CompletableFuture<V>> emAndamento = new ConcurrentHashMap<>();
+    private final Counter executadas;
+    private final Counter compartilhadas;
+
+    /**
+     * @param leitura nome da leitura nas métricas (ex.: "diagnosticos.por_paciente")
+     */
+    LeiturasCompartilhadas(MeterRegistry registry, String leitura) {
+        this.executadas = registry.counter("servico.leituras", "leitura", leitura, "resultado", "executada");
+        this.compartilhadas = registry.counter("servico.leituras", "leitura", leitura, "resultado", "compartilhada");
+    }
+
+    V ler(K chave, Supplier<V> consulta) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return consulta.get();
+        }
+        Grupo<K> grupo = new Grupo<>(chave, LeituraNoPrimario.ativa());
+        CompletableFuture<V> nova = new CompletableFuture<>();
+        CompletableFuture<V> existente = emAndamento.putIfAbsent(grupo, nova);
+        if (existente != null) {
+            compartilhadas.increment();
+            return aguardar(existente);
+        }
+        executadas.increment();
+        try {
+            V resultado = consulta.get();
+            nova.complete(resultado);
+            return resultado;
+        } catch (RuntimeException | Error e) {
+            nova.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(grupo, nova);
+        }
+    }
+
+    /**
+     * Chamado nas escritas da chave: agora e de novo depois do commit, para que uma leitura
+     * iniciada entre a escrita e o commit também não seja compartilhada
+     */
+    void invalidar(K chave) {
+        remover(chave);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remover(chave);
+                }
+            });
+        }
+    }
+
+    /**
+     * Como invalidar, para todas as chaves que atendem ao filtro (ex.: todos os períodos de um paciente)
+     */
+    void invalidarSe(Predicate<K> filtro) {
+        emAndamento.keySet().removeIf(grupo -> filtro.test(grupo.chave()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    emAndamento.keySet().removeIf(grupo -> filtro.test(grupo.chave()));
+                }
+            });
+        }
+    }
+
+    private void remover(K chave) {
+        emAndamento.remove(new Grupo<>(chave, false));
+        emAndamento.remove(new Grupo<>(chave, true));
+    }
+
+    private static <V> V aguardar(CompletableFuture<V> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error erro) {
+                throw erro;
+            }
+            throw e;
+        }
+    }
+}
@@ -1,15 +1,31 @@
 package com.primeiraapi.service;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.primeiraapi.dto.PaginaCursor;
+import com.primeiraapi.dto.ResultadoLote;
+import com.primeiraapi.exception.ViolacaoUnicidade;
 import com.primeiraapi.model.Medico;
 import com.primeiraapi.repository.MedicoRepository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+
 /**
  * Camada de serviço para Médico:
  * - Contém as regras de negócio
@@ -21,41 +37,142 @@ import com.primeiraapi.repository.MedicoRepository;
 public class MedicoService {
 
     private final MedicoRepository repository;
+    private final Validator validator;
+    private final CacheEntidades<Long, Medico> cache;          // id -> Medico
+    private final CacheEntidades<String, Medico> cachePorCrm;  // crm -> Medico
+    private final AtualizacaoParcial<Medico> atualizacaoParcial;
+    private final LeiturasCompartilhadas<Long, Optional<Medico>> leiturasPorId;
+
+    // Campos aceitos no PATCH e suas colunas (CRM não muda: é a chave do cache e da unicidade)
+    private static final Map<String, String> COLUNAS_PATCH = Map.of(
+            "nome", "nome",
+            "especialidade", "especialidade",
+            "telefone", "telefone",
+            "email", "email");
 
-    public MedicoService(MedicoRepository repository) {
+    public MedicoService(MedicoRepository repository, Validator validator, CacheManager cacheManager,
+                         MeterRegistry registry,
+                         @Value("${app.datasource.replica.urls:}") List<String> replicas) {
         this.repository = repository;
+        this.validator = validator;
+        this.cache = new CacheEntidades<>(cacheManager.getCache("medicos"), Medico.class, Medico::copia,
+                !replicas.isEmpty());
+        this.cachePorCrm = new CacheEntidades<>(cacheManager.getCache("medicosPorCrm"), Medico.class, Medico::copia,
+                !replicas.isEmpty());
+        this.atualizacaoParcial = new AtualizacaoParcial<>(validator, COLUNAS_PATCH);
+        this.leiturasPorId = new LeiturasCompartilhadas<>(registry, "medicos.por_id");
     }
 
     /**
      * Cria um novo médico
-     * - Valida CRM duplicado
+     * - Valida CRM duplicado pela restrição UNIQUE do banco (um único INSERT,
+     *   sem consulta prévia e sem corrida entre requisições simultâneas)
      */
     public Medico create(Medico medico) {
-        if (medico.getCrm() != null && repository.existsByCrm(medico.getCrm())) {
-            throw new IllegalArgumentException("CRM já cadastrado");
+        try {
+            return repository.saveAndFlush(medico);
+        } catch (DataIntegrityViolationException e) {
+            if (ViolacaoUnicidade.causadaPor(e, Medico.UK_CRM)) {
+                throw new IllegalArgumentException("CRM já cadastrado");
+            }
+            throw e;
         }
-        return repository.save(medico);
+    }
+
+    /**
+     * Cria vários médicos de uma vez
+     * - CRM duplicado é verificado com uma única consulta por bloco
+     * - Os inserts de cada bloco são enviados em lote (JDBC batching)
+     * - Retorna o resultado de cada registro (id criado ou erro)
+     */
+    public ResultadoLote createEmLote(List<Medico> medicos) {
+        Set<String> recebidos = new HashSet<>();
+        return new CadastroEmLote<Medico>(validator, bloco -> {
+            Set<String> existentes = buscarCrmsExistentes(bloco);
+            return medico -> {
+                String crm = medico.getCrm();
+                if (crm == null) {
+                    return "CRM é obrigatório";
+                }
+                if (existentes.contains(crm) || !recebidos.add(crm)) {
+                    return "CRM já cadastrado";
+                }
+                return null;
+            };
+        }, repository::saveAll, Medico::getId).executar(medicos);
+    }
+
+    private Set<String> buscarCrmsExistentes(List<Medico> bloco) {
+        List<String> crms = bloco.stream()
+                .filter(Objects::nonNull)
+                .map(Medico::getCrm)
+                .filter(Objects::nonNull)
+                .toList();
+        return crms.isEmpty() ? Set.of() : repository.findCrmsExistentes(crms);
     }
 
     /**
      * Retorna todos os médicos cadastrados
      */
+    @Transactional(readOnly = true)
     public List<Medico> findAll() {
         return repository.findAll();
     }
 
+    /**
+     * Retorna uma página de médicos a partir do cursor (ID) informado
+     * - Usa busca por chave (WHERE id > after), com custo constante em qualquer profundidade
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<Medico> findPagina(Long after, Integer limit) {
+        int limite = PaginaCursor.normalizarLimite(limit);
+        List<Medico> resultado = repository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, Limit.of(limite + 1));
+        return PaginaCursor.of(resultado, limite, Medico::getId);
+    }
+
     /**
      * Busca por ID retornando Optional
+     * - Consulta o cache antes de ir ao banco
+     * - Fora do cache, requisições simultâneas pelo mesmo ID fazem uma única consulta
+     * - Devolve uma cópia: alterá-la não muda o que está no cache
      */
+    @Transactional(readOnly = true)
     public Optional<Medico> findById(Long id) {
-        return repository.findById(id);
+        return cache.ler(id, () -> leiturasPorId.ler(id, () -> repository.findById(id)));
+    }
+
+    /**
+     * Busca por CRM retornando Optional
+     * - Consulta o cache antes de ir ao banco
+     */
+    @Transactional(readOnly = true)
+    public Optional<Medico> findByCrm(String crm) {
+        return cachePorCrm.ler(crm, () -> repository.findByCrm(crm));
+    }
+
+    /**
+     * Versão do médico para o ETag, sem carregar a entidade
+     * - Usa o cache quando o médico já está nele
+     */
+    @Transactional(readOnly = true)
+    public Long findVersaoOrThrow(Long id) {
+        return cache.emCache(id).map(Medico::getVersao)
+            .or(() -> repository.findVersaoById(id))
+            .orElseThrow(() ->
+                new ResponseStatusException(
+                    HttpStatus.NOT_FOUND,
+                    "Médico não encontrado"
+                )
+            );
     }
 
     /**
      * Busca por ID ou lança erro 404
      */
+    @Transactional(readOnly = true)
     public Medico findOrThrow(Long id) {
-        return repository.findById(id)
+        return findById(id)
             .orElseThrow(() ->
                 new ResponseStatusException(
                     HttpStatus.NOT_FOUND,
@@ -73,6 +190,10 @@ public class MedicoService {
         Medico existente = repository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Médico não encontrado"));
 
+        // Bloqueio otimista: o cliente informou a versão que leu e ela já mudou
+        if (dados.getVersao() != null && !dados.getVersao().equals(existente.getVersao()))
+            throw new ObjectOptimisticLockingFailureException(Medico.class, id);
+
         if (dados.getNome() != null)
             existente.setNome(dados.getNome());
 
@@ -85,16 +206,55 @@ public class MedicoService {
         if (dados.getEmail() != null)
             existente.setEmail(dados.getEmail());
 
-        return repository.save(existente);
+        Medico salvo = repository.save(existente);
+        invalidarCache(salvo);
+        return salvo;
     }
 
     /**
-     * Remove médico pelo ID
+     * Atualiza só os campos enviados, com um único UPDATE (sem SELECT antes)
+     * - versao informada: o UPDATE só acontece se ela ainda for a atual (senão 409)
+     * - A linha atualizada volta no próprio comando, para o cache e a resposta
+     */
+    public Medico patch(Long id, Medico dados, Set<String> campos) {
+        Map<String, Object> colunas = atualizacaoParcial.colunas(dados, campos);
+        Medico atualizado = repository.atualizarColunas(Medico.class, id, dados.getVersao(), colunas)
+                .orElseThrow(() -> naoAtualizado(id, dados.getVersao()));
+        invalidarCache(atualizado);
+        return atualizado;
+    }
+
+    // Nenhuma linha alterada: só aqui consultamos o banco para separar 404 de 409
+    private RuntimeException naoAtualizado(Long id, Long versao) {
+        if (versao != null && repository.existsById(id)) {
+            return new ObjectOptimisticLockingFailureException(Medico.class, id);
+        }
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Médico não encontrado");
+    }
+
+    /**
+     * Remove médico pelo ID com um único DELETE
+     * - 404 quando nenhuma linha foi removida
+     * - O CRM da linha removida volta no próprio comando, para limpar o cache
      */
     public void delete(Long id) {
-        if (!repository.existsById(id)) {
-            throw new IllegalArgumentException("Médico não encontrado");
+        Object[] removido = repository.removerRetornando(Medico.class, id, "crm")
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Médico não encontrado"));
+        cache.invalidar(id);
+        leiturasPorId.invalidar(id);
+        if (removido[0] != null) {
+            cachePorCrm.invalidar((String) removido[0]);
+        }
+    }
+
+    /**
+     * Remove o médico do cache logo após a escrita no banco e de novo depois do commit/rollback
+     */
+    private void invalidarCache(Medico medico) {
+        cache.invalidar(medico.getId());
+        leiturasPorId.invalidar(medico.getId());
+        if (medico.getCrm() != null) {
+            cachePorCrm.invalidar(medico.getCrm());
         }
-        repository.deleteById(id);
     }
 }
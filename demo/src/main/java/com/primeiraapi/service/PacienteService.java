@@ -1,15 +1,31 @@
 package com.primeiraapi.service;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.primeiraapi.dto.PaginaCursor;
+import com.primeiraapi.dto.ResultadoLote;
+import com.primeiraapi.exception.ViolacaoUnicidade;
 import com.primeiraapi.model.Paciente;
 import com.primeiraapi.repository.PacienteRepository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+
 /**
  * Camada de serviço para Paciente:
  * - Contém as regras de negócio
@@ -21,41 +37,150 @@ import com.primeiraapi.repository.PacienteRepository;
 public class PacienteService {
 
     private final PacienteRepository repository;
+    private final Validator validator;
+    private final CacheEntidades<Long, Paciente> cache;          // id -> Paciente
+    private final CacheEntidades<String, Paciente> cachePorCpf;  // cpf -> Paciente
+    private final IndiceBusca indiceBusca;
+    private final AtualizacaoParcial<Paciente> atualizacaoParcial;
+    private final LeiturasCompartilhadas<Long, Optional<Paciente>> leiturasPorId;
+
+    // Campos aceitos no PATCH e suas colunas (CPF não muda: é a chave do cache e da unicidade)
+    private static final Map<String, String> COLUNAS_PATCH = Map.of(
+            "nome", "nome",
+            "dataNascimento", "data_nascimento",
+            "telefone", "telefone",
+            "email", "email",
+            "historicoMedico", "historico_medico");
 
-    public PacienteService(PacienteRepository repository) {
+    public PacienteService(PacienteRepository repository, Validator validator, CacheManager cacheManager,
+                           IndiceBusca indiceBusca, MeterRegistry registry,
+                           @Value("${app.datasource.replica.urls:}") List<String> replicas) {
         this.repository = repository;
+        this.validator = validator;
+        this.cache = new CacheEntidades<>(cacheManager.getCache("pacientes"), Paciente.class, Paciente::copia,
+                !replicas.isEmpty());
+        this.cachePorCpf = new CacheEntidades<>(cacheManager.getCache("pacientesPorCpf"), Paciente.class, Paciente::copia,
+                !replicas.isEmpty());
+        this.indiceBusca = indiceBusca;
+        this.atualizacaoParcial = new AtualizacaoParcial<>(validator, COLUNAS_PATCH);
+        this.leiturasPorId = new LeiturasCompartilhadas<>(registry, "pacientes.por_id");
     }
 
     /**
      * Cria um novo paciente
-     * - Valida CPF duplicado
+     * - Valida CPF duplicado pela restrição UNIQUE do banco (um único INSERT,
+     *   sem consulta prévia e sem corrida entre requisições simultâneas)
      */
     public Paciente create(Paciente paciente) {
-        if (paciente.getCpf() != null && repository.existsByCpf(paciente.getCpf())) {
-            throw new IllegalArgumentException("CPF já cadastrado");
+        try {
+            Paciente salvo = repository.saveAndFlush(paciente);
+            indiceBusca.indexarPaciente(salvo);
+            return salvo;
+        } catch (DataIntegrityViolationException e) {
+            if (ViolacaoUnicidade.causadaPor(e, Paciente.UK_CPF)) {
+                throw new IllegalArgumentException("CPF já cadastrado");
+            }
+            throw e;
         }
-        return repository.save(paciente);
+    }
+
+    /**
+     * Cria vários pacientes de uma vez
+     * - CPF duplicado é verificado com uma única consulta por bloco
+     * - Os inserts de cada bloco são enviados em lote (JDBC batching)
+     * - Retorna o resultado de cada registro (id criado ou erro)
+     */
+    public ResultadoLote createEmLote(List<Paciente> pacientes) {
+        Set<String> recebidos = new HashSet<>();
+        return new CadastroEmLote<Paciente>(validator, bloco -> {
+            Set<String> existentes = buscarCpfsExistentes(bloco);
+            return paciente -> {
+                String cpf = paciente.getCpf();
+                if (cpf != null && (existentes.contains(cpf) || !recebidos.add(cpf))) {
+                    return "CPF já cadastrado";
+                }
+                return null;
+            };
+        }, this::salvarEIndexar, Paciente::getId).executar(pacientes);
+    }
+
+    private List<Paciente> salvarEIndexar(List<Paciente> pacientes) {
+        List<Paciente> salvos = repository.saveAll(pacientes);
+        salvos.forEach(indiceBusca::indexarPaciente);
+        return salvos;
+    }
+
+    private Set<String> buscarCpfsExistentes(List<Paciente> bloco) {
+        List<String> cpfs = bloco.stream()
+                .filter(Objects::nonNull)
+                .map(Paciente::getCpf)
+                .filter(Objects::nonNull)
+                .toList();
+        return cpfs.isEmpty() ? Set.of() : repository.findCpfsExistentes(cpfs);
     }
 
     /**
      * Retorna todos os pacientes cadastrados
      */
+    @Transactional(readOnly = true)
     public List<Paciente> findAll() {
         return repository.findAll();
     }
 
+    /**
+     * Retorna uma página de pacientes a partir do cursor (ID) informado
+     * - Usa busca por chave (WHERE id > after), com custo constante em qualquer profundidade
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<Paciente> findPagina(Long after, Integer limit) {
+        int limite = PaginaCursor.normalizarLimite(limit);
+        List<Paciente> resultado = repository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, Limit.of(limite + 1));
+        return PaginaCursor.of(resultado, limite, Paciente::getId);
+    }
+
     /**
      * Busca por ID retornando Optional
+     * - Consulta o cache antes de ir ao banco
+     * - Fora do cache, requisições simultâneas pelo mesmo ID fazem uma única consulta
+     * - Devolve uma cópia: alterá-la não muda o que está no cache
      */
+    @Transactional(readOnly = true)
     public Optional<Paciente> findById(Long id) {
-        return repository.findById(id);
+        return cache.ler(id, () -> leiturasPorId.ler(id, () -> repository.findById(id)));
+    }
+
+    /**
+     * Busca por CPF retornando Optional
+     * - Consulta o cache antes de ir ao banco
+     */
+    @Transactional(readOnly = true)
+    public Optional<Paciente> findByCpf(String cpf) {
+        return cachePorCpf.ler(cpf, () -> repository.findByCpf(cpf));
+    }
+
+    /**
+     * Versão do paciente para o ETag, sem carregar a entidade
+     * - Usa o cache quando o paciente já está nele
+     */
+    @Transactional(readOnly = true)
+    public Long findVersaoOrThrow(Long id) {
+        return cache.emCache(id).map(Paciente::getVersao)
+            .or(() -> repository.findVersaoById(id))
+            .orElseThrow(() ->
+                new ResponseStatusException(
+                    HttpStatus.NOT_FOUND,
+                    "Paciente não encontrado"
+                )
+            );
     }
 
     /**
      * Busca por ID ou lança erro 404
      */
+    @Transactional(readOnly = true)
     public Paciente findOrThrow(Long id) {
-        return repository.findById(id)
+        return findById(id)
             .orElseThrow(() ->
                 new ResponseStatusException(
                     HttpStatus.NOT_FOUND,
@@ -73,6 +198,10 @@ public class PacienteService {
         Paciente existente = repository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Paciente não encontrado"));
 
+        // Bloqueio otimista: o cliente informou a versão que leu e ela já mudou
+        if (dados.getVersao() != null && !dados.getVersao().equals(existente.getVersao()))
+            throw new ObjectOptimisticLockingFailureException(Paciente.class, id);
+
         if (dados.getNome() != null)
             existente.setNome(dados.getNome());
 
@@ -88,16 +217,58 @@ public class PacienteService {
         if (dados.getHistoricoMedico() != null)
             existente.setHistoricoMedico(dados.getHistoricoMedico());
 
-        return repository.save(existente);
+        Paciente salvo = repository.save(existente);
+        invalidarCache(salvo);
+        indiceBusca.indexarPaciente(salvo);
+        return salvo;
+    }
+
+    /**
+     * Atualiza só os campos enviados, com um único UPDATE (sem SELECT antes)
+     * - versao informada: o UPDATE só acontece se ela ainda for a atual (senão 409)
+     * - A linha atualizada volta no próprio comando, para o cache, o índice e a resposta
+     */
+    public Paciente patch(Long id, Paciente dados, Set<String> campos) {
+        Map<String, Object> colunas = atualizacaoParcial.colunas(dados, campos);
+        Paciente atualizado = repository.atualizarColunas(Paciente.class, id, dados.getVersao(), colunas)
+                .orElseThrow(() -> naoAtualizado(id, dados.getVersao()));
+        invalidarCache(atualizado);
+        indiceBusca.indexarPaciente(atualizado);
+        return atualizado;
+    }
+
+    // Nenhuma linha alterada: só aqui consultamos o banco para separar 404 de 409
+    private RuntimeException naoAtualizado(Long id, Long versao) {
+        if (versao != null && repository.existsById(id)) {
+            return new ObjectOptimisticLockingFailureException(Paciente.class, id);
+        }
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Paciente não encontrado");
     }
 
     /**
-     * Remove paciente pelo ID
+     * Remove paciente pelo ID com um único DELETE
+     * - 404 quando nenhuma linha foi removida
+     * - O CPF da linha removida volta no próprio comando, para limpar o cache
      */
     public void delete(Long id) {
-        if (!repository.existsById(id)) {
-            throw new IllegalArgumentException("Paciente não encontrado");
+        Object[] removido = repository.removerRetornando(Paciente.class, id, "cpf")
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Paciente não encontrado"));
+        cache.invalidar(id);
+        leiturasPorId.invalidar(id);
+        if (removido[0] != null) {
+            cachePorCpf.invalidar((String) removido[0]);
+        }
+        indiceBusca.remover(IndiceBusca.TIPO_PACIENTE, id);
+    }
+
+    /**
+     * Remove o paciente do cache logo após a escrita no banco e de novo depois do commit/rollback
+     */
+    private void invalidarCache(Paciente paciente) {
+        cache.invalidar(paciente.getId());
+        leiturasPorId.invalidar(paciente.getId());
+        if (paciente.getCpf() != null) {
+            cachePorCpf.invalidar(paciente.getCpf());
         }
-        repository.deleteById(id);
     }
 }
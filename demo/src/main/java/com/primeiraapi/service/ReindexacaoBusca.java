@@ -0,0 +1,65 @@
+package com.primeiraapi.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.primeiraapi.dto.PaginaCursor;
+import com.primeiraapi.model.Paciente;
+
+/**
+ * Reconstrói o índice de busca a partir do banco quando a aplicação sobe.
+ * Roda em segundo plano para não atrasar a inicialização.
+ */
+@Component
+public class ReindexacaoBusca {
+
+    private static final Logger log = LoggerFactory.getLogger(ReindexacaoBusca.class);
+
+    private final IndiceBusca indice;
+    private final DiagnosticoService diagnosticoService;
+    private final PacienteService pacienteService;
+    private final boolean reindexarAoIniciar;
+
+    public ReindexacaoBusca(IndiceBusca indice, DiagnosticoService diagnosticoService, PacienteService pacienteService,
+                            @Value("${busca.reindexar-ao-iniciar:true}") boolean reindexarAoIniciar) {
+        this.indice = indice;
+        this.diagnosticoService = diagnosticoService;
+        this.pacienteService = pacienteService;
+        this.reindexarAoIniciar = reindexarAoIniciar;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        if (!reindexarAoIniciar) {
+            return;
+        }
+        Thread.ofVirtual().name("reindexacao-busca").start(this::reindexar);
+    }
+
+    /**
+     * Reindexa todos os diagnósticos (leitura em stream) e pacientes (páginas por cursor)
+     * - As escritas dos serviços continuam durante a reindexação; o que elas gravarem
+     *   depois do início não é sobrescrito pela leitura do banco (ver IndiceBusca)
+     */
+    public void reindexar() {
+        long inicio = System.currentTimeMillis();
+        indice.iniciarReindexacao();
+        try {
+            diagnosticoService.exportar(indice::reindexarDiagnostico);
+
+            Long after = null;
+            do {
+                PaginaCursor<Paciente> pagina = pacienteService.findPagina(after, PaginaCursor.LIMITE_MAXIMO);
+                pagina.itens().forEach(indice::reindexarPaciente);
+                after = pagina.proximoCursor();
+            } while (after != null);
+        } finally {
+            indice.concluirReindexacao();
+        }
+        log.info("Índice de busca reconstruído em {} ms", System.currentTimeMillis() - inicio);
+    }
+}
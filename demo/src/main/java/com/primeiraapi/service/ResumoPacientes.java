@@ -0,0 +1,258 @@
+package com.primeiraapi.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.primeiraapi.model.Diagnostico;
+import com.primeiraapi.model.ResumoPaciente;
+import com.primeiraapi.repository.ResumoPacienteRepository;
+
+/**
+ * Resumo por paciente (quantidade, último diagnóstico e médico, especialidades atendidas):
+ * - Atualizado na transação que cria/remove o diagnóstico, com a linha do resumo travada
+ *   (SELECT ... FOR UPDATE): criações simultâneas para o mesmo paciente não perdem contagem
+ * - Leitura pela chave primária, independente do tamanho do histórico
+ * - Reparo: recalcula tudo a partir de diagnosticos + diagnosticos_arquivo, em faixas de
+ *   pacientes processadas em paralelo (agendado em resumos.reparo.cron ou pela API)
+ * - Edições de diagnóstico não mudam paciente, médico nem data: não tocam o resumo
+ */
+@Service
+public class ResumoPacientes {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumoPacientes.class);
+
+    // Pacientes por faixa do reparo: cada faixa é uma transação (limita a memória por tarefa)
+    private static final long FAIXA = 10_000;
+
+    private final ResumoPacienteRepository repository;
+    private final PacienteService pacienteService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean reparoAgendado;
+
+    // Atualizações incrementais compartilham o lock de leitura; o reparo usa o de escrita
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ResumoPacientes(ResumoPacienteRepository repository,
+                           PacienteService pacienteService,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${resumos.reparo.ativo:true}") boolean reparoAgendado) {
+        this.repository = repository;
+        this.pacienteService = pacienteService;
+        this.transactionTemplate = transactionTemplate;
+        this.reparoAgendado = reparoAgendado;
+    }
+
+    /**
+     * Resumo do paciente ou erro 404
+     * - Sem linha de resumo: paciente ainda sem diagnósticos (resumo zerado), se ele existir
+     */
+    public ResumoPaciente findOrThrow(Long pacienteId) {
+        return repository.findById(pacienteId).orElseGet(() ->
+                new ResumoPaciente(pacienteService.findOrThrow(pacienteId).getId()));
+    }
+
+    /**
+     * Soma os diagnósticos criados nos resumos dos seus pacientes
+     * - Deve ser chamado dentro da transação que grava os diagnósticos
+     * - Pacientes travados em ordem de ID: dois lotes com os mesmos pacientes não se bloqueiam em ciclo
+     */
+    public void registrar(List<Diagnostico> criados) {
+        if (criados.isEmpty()) {
+            return;
+        }
+        travarAteFimDaTransacao();
+        Map<Long, List<Diagnostico>> porPaciente = new TreeMap<>();
+        for (Diagnostico diagnostico : criados) {
+            porPaciente.computeIfAbsent(diagnostico.getPaciente().getId(), id -> new ArrayList<>()).add(diagnostico);
+        }
+        porPaciente.forEach((pacienteId, diagnosticos) -> {
+            ResumoPaciente resumo = travarOuCriar(pacienteId);
+            Map<String, Long> especialidades = new HashMap<>(resumo.contagemEspecialidades());
+            for (Diagnostico diagnostico : diagnosticos) {
+                resumo.setQuantidade(resumo.getQuantidade() + 1);
+                String especialidade = diagnostico.getMedico().getEspecialidade();
+                if (especialidade != null) {
+                    especialidades.merge(especialidade, 1L, Long::sum);
+                }
+                if (maisRecente(diagnostico.getDataDiagnostico(), diagnostico.getId(), resumo)) {
+                    resumo.setUltimo(diagnostico.getId(), diagnostico.getMedico().getId(),
+                            diagnostico.getDataDiagnostico());
+                }
+            }
+            resumo.setContagemEspecialidades(especialidades);
+            repository.save(resumo);
+        });
+    }
+
+    /**
+     * Desconta um diagnóstico removido, a partir das colunas devolvidas pelo DELETE
+     * - Era o mais recente: o novo último vem de uma consulta pelo índice (paciente, data)
+     * - Especialidades recontadas do banco com a linha travada: a especialidade atual do médico
+     *   pode não ser a que foi somada na criação (PATCH em /api/medicos)
+     * - Sem diagnósticos restantes a linha é removida
+     */
+    public void remover(Long pacienteId, Long diagnosticoId) {
+        travarAteFimDaTransacao();
+        ResumoPaciente resumo = repository.findParaAtualizar(pacienteId).orElse(null);
+        if (resumo == null) {
+            return;
+        }
+        if (resumo.getQuantidade() <= 1) {
+            repository.delete(resumo);
+            return;
+        }
+        resumo.setQuantidade(resumo.getQuantidade() - 1);
+        Map<String, Long> especialidades = new HashMap<>();
+        for (Object[] linha : repository.contarEspecialidades(pacienteId)) {
+            especialidades.put((String) linha[0], ((Number) linha[1]).longValue());
+        }
+        resumo.setContagemEspecialidades(especialidades);
+        if (Objects.equals(resumo.getUltimoDiagnosticoId(), diagnosticoId)) {
+            List<Object[]> ultimo = repository.findUltimoDiagnostico(pacienteId);
+            if (ultimo.isEmpty()) {
+                resumo.setUltimo(null, null, null);
+            } else {
+                Object[] linha = ultimo.get(0);
+                resumo.setUltimo(((Number) linha[0]).longValue(), ((Number) linha[1]).longValue(),
+                        paraDataHora(linha[2]));
+            }
+        }
+    }
+
+    @Scheduled(cron = "${resumos.reparo.cron:0 0 4 * * *}")
+    public void agendado() {
+        if (reparoAgendado) {
+            reparar();
+        }
+    }
+
+    /**
+     * Recalcula todos os resumos a partir dos diagnósticos
+     * - Faixas de FAIXA pacientes, uma tarefa (e uma transação) por faixa, uma thread por núcleo
+     * - Criações/remoções de diagnósticos aguardam o fim do reparo (lock de escrita)
+     *
+     * @return quantidade de resumos gravados
+     */
+    public int reparar() {
+        lock.writeLock().lock();
+        try {
+            long inicio = System.currentTimeMillis();
+            long menorId = repository.findMenorPacienteId();
+            long maiorId = repository.findMaiorPacienteId();
+            int total = 0;
+            try (ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())) {
+                List<Future<Integer>> tarefas = new ArrayList<>();
+                for (long de = menorId; de <= maiorId; de += FAIXA) {
+                    long faixaDe = de;
+                    long faixaAte = Math.min(de + FAIXA - 1, maiorId);
+                    tarefas.add(executor.submit(() -> transactionTemplate.execute(status -> repararFaixa(faixaDe, faixaAte))));
+                }
+                for (Future<Integer> tarefa : tarefas) {
+                    total += tarefa.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Reparo dos resumos interrompido", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Falha no reparo dos resumos", e.getCause());
+            }
+            log.info("{} resumos de pacientes recalculados em {} ms", total, System.currentTimeMillis() - inicio);
+            return total;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int repararFaixa(long de, long ate) {
+        Map<Long, ResumoPaciente> resumos = new HashMap<>();
+        for (Object[] linha : repository.resumirFaixa(de, ate)) {
+            ResumoPaciente resumo = new ResumoPaciente(((Number) linha[0]).longValue());
+            resumo.setQuantidade(((Number) linha[1]).longValue());
+            resumo.setUltimo(((Number) linha[2]).longValue(), ((Number) linha[3]).longValue(), paraDataHora(linha[4]));
+            resumos.put(resumo.getPacienteId(), resumo);
+        }
+        Map<Long, Map<String, Long>> especialidades = new HashMap<>();
+        for (Object[] linha : repository.contarEspecialidadesFaixa(de, ate)) {
+            if (linha[1] != null) {
+                especialidades.computeIfAbsent(((Number) linha[0]).longValue(), id -> new HashMap<>())
+                        .put((String) linha[1], ((Number) linha[2]).longValue());
+            }
+        }
+        especialidades.forEach((pacienteId, contagem) -> {
+            ResumoPaciente resumo = resumos.get(pacienteId);
+            if (resumo != null) {
+                resumo.setContagemEspecialidades(contagem);
+            }
+        });
+        repository.removerFaixa(de, ate);
+        repository.saveAll(resumos.values());
+        return resumos.size();
+    }
+
+    /**
+     * Linha do resumo travada até o fim da transação; no primeiro diagnóstico do paciente a
+     * linha do paciente é travada antes, para duas criações simultâneas não inserirem o resumo duas vezes
+     */
+    private ResumoPaciente travarOuCriar(Long pacienteId) {
+        return repository.findParaAtualizar(pacienteId).orElseGet(() -> {
+            repository.travarPaciente(pacienteId);
+            return repository.findParaAtualizar(pacienteId).orElseGet(() -> new ResumoPaciente(pacienteId));
+        });
+    }
+
+    // Mais recente: maior data (sem data é o mais antigo), desempate pelo maior ID
+    private static boolean maisRecente(LocalDateTime data, Long id, ResumoPaciente resumo) {
+        if (resumo.getUltimoDiagnosticoId() == null) {
+            return true;
+        }
+        int comparacao = Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder())
+                .compare(data, resumo.getUltimaDataDiagnostico());
+        return comparacao > 0 || (comparacao == 0 && id > resumo.getUltimoDiagnosticoId());
+    }
+
+    /**
+     * Segura o lock compartilhado até o commit/rollback da transação atual,
+     * para o reparo não apagar uma atualização ainda não confirmada
+     */
+    private void travarAteFimDaTransacao() {
+        Lock leitura = lock.readLock();
+        leitura.lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            leitura.unlock();
+            throw new IllegalStateException("Resumo do paciente deve ser atualizado dentro de uma transação");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                leitura.unlock();
+            }
+        });
+    }
+
+    private static LocalDateTime paraDataHora(Object valor) {
+        return valor instanceof Timestamp data ? data.toLocalDateTime() : (LocalDateTime) valor;
+    }
+}
@@ -0,0 +1,162 @@
+package com.primeiraapi.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.primeiraapi.model.Paciente;
+import com.primeiraapi.repository.PacienteRepository;
+import com.primeiraapi.service.PacienteService;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Primário e réplica em dois bancos H2 separados (sem replicação entre eles),
+ * para verificar para onde cada leitura e escrita é enviada e o que o cache de entidades guarda.
+ */
+@SpringBootTest(properties = {
+        "app.datasource.replica.urls=" + RoteamentoDataSourceTest.URL_REPLICA,
+        "app.datasource.replica.atraso-maximo=2s",
+        "busca.reindexar-ao-iniciar=false"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RoteamentoDataSourceTest {
+
+    static final String URL_REPLICA = "jdbc:h2:mem:replica_teste;DB_CLOSE_DELAY=-1";
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    @Autowired
+    private HikariDataSource primarioDataSource;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private JdbcTemplate replica;
+
+    @BeforeAll
+    void criarSchemaNaReplica() {
+        replica = new JdbcTemplate(new DriverManagerDataSource(URL_REPLICA, "sa", ""));
+        // Mesmo schema do primário (gerado pelo Hibernate), sem os dados
+        for (String comando : new JdbcTemplate(primarioDataSource).queryForList("SCRIPT NODATA", String.class)) {
+            if (!comando.startsWith("--")) {
+                replica.execute(comando);
+            }
+        }
+    }
+
+    @AfterEach
+    void limpar() {
+        LeituraNoPrimario.limpar();
+    }
+
+    @Test
+    void escritaVaiParaPrimarioELeituraParaReplica() {
+        Paciente salvo = pacienteRepository.save(novoPaciente());
+        LeituraNoPrimario.limpar(); // como em uma nova requisição
+
+        // A réplica não recebeu o paciente: a leitura foi para ela
+        assertThat(pacienteRepository.findById(salvo.getId())).isEmpty();
+    }
+
+    @Test
+    void leituraDepoisDeEscreverNaMesmaRequisicaoVaiParaPrimario() {
+        LeituraNoPrimario.iniciarRequisicao(); // como no filtro de /api/*
+        Paciente salvo = pacienteRepository.save(novoPaciente());
+
+        assertThat(pacienteRepository.findById(salvo.getId())).isPresent();
+    }
+
+    @Test
+    void escritaForaDeRequisicaoNaoPrendeAThreadAoPrimario() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            // Como uma tarefa agendada: escreve e devolve a thread ao pool
+            Paciente salvo = pool.submit(() -> pacienteRepository.save(novoPaciente())).get(10, TimeUnit.SECONDS);
+
+            assertThat(pool.submit(LeituraNoPrimario::ativa).get(10, TimeUnit.SECONDS)).isFalse();
+            assertThat(pool.submit(() -> pacienteRepository.findById(salvo.getId())).get(10, TimeUnit.SECONDS))
+                    .isEmpty();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void leituraSemEscritaEncontraDadosDaReplica() {
+        long id = 1_000_000 + SEQUENCIA.incrementAndGet();
+        replica.update("INSERT INTO pacientes (id, nome, cpf, versao) VALUES (?, ?, ?, 0)",
+                id, "Paciente da réplica", "RP" + id);
+
+        assertThat(pacienteRepository.findById(id)).get()
+                .extracting(Paciente::getNome).isEqualTo("Paciente da réplica");
+    }
+
+    @Test
+    void cacheNaoGuardaOQueFoiLidoDaReplica() {
+        long id = 1_000_000 + SEQUENCIA.incrementAndGet();
+        replica.update("INSERT INTO pacientes (id, nome, cpf, versao) VALUES (?, ?, ?, 0)",
+                id, "Paciente só na réplica", "RC" + id);
+        assertThat(pacienteService.findById(id)).isPresent();
+
+        replica.update("DELETE FROM pacientes WHERE id = ?", id);
+
+        assertThat(pacienteService.findById(id)).isEmpty();
+    }
+
+    @Test
+    void leituraNoPrimarioIgnoraOCacheEGuardaOQueLeu() {
+        Paciente salvo = pacienteService.create(novoPaciente());
+        LeituraNoPrimario.ativar(); // como com o cookie depois da escrita
+        assertThat(pacienteService.findById(salvo.getId())).get()
+                .extracting(Paciente::getNome).isEqualTo("Paciente roteado");
+
+        // Alteração direta no primário, sem passar pelo serviço (como a de outra instância)
+        new JdbcTemplate(primarioDataSource).update("UPDATE pacientes SET nome = ? WHERE id = ?",
+                "Alterado no primário", salvo.getId());
+
+        assertThat(pacienteService.findById(salvo.getId())).get()
+                .extracting(Paciente::getNome).isEqualTo("Alterado no primário");
+        LeituraNoPrimario.limpar();
+        // Sem o cookie, a leitura usa o que foi guardado da leitura no primário (a réplica não tem o paciente)
+        assertThat(pacienteService.findById(salvo.getId())).isPresent();
+    }
+
+    @Test
+    void escritaHttpDevolveCookieDeLeituraNoPrimario() throws Exception {
+        mockMvc.perform(post("/api/pacientes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nome\": \"Paciente HTTP\", \"cpf\": \"RH" + SEQUENCIA.incrementAndGet() + "\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().value(ReplicaDataSourceConfig.COOKIE_LER_PRIMARIO, "1"))
+                .andExpect(cookie().maxAge(ReplicaDataSourceConfig.COOKIE_LER_PRIMARIO, 2));
+    }
+
+    private static Paciente novoPaciente() {
+        return new Paciente("Paciente roteado", "RT" + SEQUENCIA.incrementAndGet());
+    }
+}
@@ -0,0 +1,111 @@
+package com.primeiraapi.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+/**
+ * Controle de admissão: passou do limite do cliente → 429, sem vaga → 503, ambos com Retry-After;
+ * chaves desconhecidas contam no balde do IP e só as configuradas têm balde próprio.
+ */
+class AdmissaoRequisicoesFilterTest {
+
+    // 1 requisição por segundo com rajada de 2: a terceira seguida é recusada
+    private final AdmissaoRequisicoesFilter filtro = new AdmissaoRequisicoesFilter(
+            new ObjectMapper(), new SimpleMeterRegistry(), true, 1, 2, 1, 1, 1, List.of("chave-conhecida"));
+
+    private final FilterChain aceitar = (request, response) -> { };
+
+    @Test
+    void excederOLimiteDoClienteResponde429ComRetryAfter() throws Exception {
+        assertThat(executar(requisicao("10.0.0.1", null), aceitar).getStatus()).isEqualTo(200);
+        assertThat(executar(requisicao("10.0.0.1", null), aceitar).getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse recusada = executar(requisicao("10.0.0.1", null), aceitar);
+        assertThat(recusada.getStatus()).isEqualTo(429);
+        assertThat(Long.parseLong(recusada.getHeader(HttpHeaders.RETRY_AFTER))).isPositive();
+    }
+
+    @Test
+    void trocarDeChaveDesconhecidaNaoEscapaDoLimite() throws Exception {
+        assertThat(executar(requisicao("10.0.0.2", "inventada-1"), aceitar).getStatus()).isEqualTo(200);
+        assertThat(executar(requisicao("10.0.0.2", "inventada-2"), aceitar).getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse recusada = executar(requisicao("10.0.0.2", "inventada-3"), aceitar);
+        assertThat(recusada.getStatus()).isEqualTo(429);
+        assertThat(recusada.getHeader(HttpHeaders.RETRY_AFTER)).isNotNull();
+    }
+
+    @Test
+    void chaveConfiguradaTemBaldeProprio() throws Exception {
+        executar(requisicao("10.0.0.3", null), aceitar);
+        executar(requisicao("10.0.0.3", null), aceitar);
+        assertThat(executar(requisicao("10.0.0.3", null), aceitar).getStatus()).isEqualTo(429);
+
+        assertThat(executar(requisicao("10.0.0.3", "chave-conhecida"), aceitar).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void semVagaResponde503ComRetryAfter() throws Exception {
+        CountDownLatch ocupada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        FilterChain segurar = (request, response) -> {
+            ocupada.countDown();
+            try {
+                liberar.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        // Uma vaga de leitura: a primeira requisição fica com ela até ser liberada
+        CompletableFuture<MockHttpServletResponse> primeira =
+                CompletableFuture.supplyAsync(() -> executarSemErro(requisicao("10.0.0.4", null), segurar));
+        assertThat(ocupada.await(10, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse recusada = executar(requisicao("10.0.0.5", null), aceitar);
+        assertThat(recusada.getStatus()).isEqualTo(503);
+        assertThat(recusada.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        liberar.countDown();
+        assertThat(primeira.get(10, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+        // Vaga devolvida ao terminar
+        assertThat(executar(requisicao("10.0.0.5", null), aceitar).getStatus()).isEqualTo(200);
+    }
+
+    private static MockHttpServletRequest requisicao(String ip, String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/pacientes/1");
+        request.setRemoteAddr(ip);
+        if (apiKey != null) {
+            request.addHeader(AdmissaoRequisicoesFilter.CABECALHO_API_KEY, apiKey);
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse executar(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, chain);
+        return response;
+    }
+
+    private MockHttpServletResponse executarSemErro(MockHttpServletRequest request, FilterChain chain) {
+        try {
+            return executar(request, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.primeiraapi.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.primeiraapi.model.Diagnostico;
+import com.primeiraapi.model.Medico;
+import com.primeiraapi.model.Paciente;
+import com.primeiraapi.service.DiagnosticoService;
+import com.primeiraapi.service.MedicoService;
+import com.primeiraapi.service.PacienteService;
+
+/**
+ * ?fields= e ?expand= nos GETs de diagnósticos: a resposta traz exatamente os campos pedidos,
+ * paciente/médico aninhados só quando expandidos, e campo ou expansão desconhecidos respondem 400.
+ */
+@SpringBootTest(properties = {
+        "busca.reindexar-ao-iniciar=false",
+        "limites.ativo=false"
+})
+@AutoConfigureMockMvc
+class DiagnosticoCamposTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private DiagnosticoService diagnosticoService;
+
+    private Paciente paciente;
+    private Medico medico;
+    private Diagnostico diagnostico;
+
+    @BeforeEach
+    void cadastrar() {
+        String sufixo = UUID.randomUUID().toString().substring(0, 8);
+        paciente = pacienteService.create(new Paciente("Paciente Campos", "CP-" + sufixo));
+        medico = medicoService.create(new Medico("Dra. Campos", "CP-CRM-" + sufixo, "Neurologia"));
+        diagnostico = diagnosticoService.create(new Diagnostico(paciente, medico, "Enxaqueca"));
+        diagnosticoService.create(new Diagnostico(paciente, medico, "Retorno"));
+    }
+
+    @Test
+    void fieldsTrazSoOsCamposPedidos() throws Exception {
+        Map<String, Object> corpo = objeto("/api/diagnosticos/" + diagnostico.getId() + "?fields=descricao,id");
+
+        assertThat(corpo).containsOnlyKeys("id", "descricao");
+        assertThat(corpo).containsEntry("descricao", "Enxaqueca");
+        assertThat(((Number) corpo.get("id")).longValue()).isEqualTo(diagnostico.getId());
+    }
+
+    @Test
+    void idSempreIncluido() throws Exception {
+        assertThat(objeto("/api/diagnosticos/" + diagnostico.getId() + "?fields=descricao"))
+                .containsOnlyKeys("id", "descricao");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void expandTrazOMedicoCompletoEOPacienteSoPeloId() throws Exception {
+        Map<String, Object> corpo = objeto("/api/diagnosticos/" + diagnostico.getId() + "?expand=medico");
+
+        assertThat(corpo).containsKeys("id", "descricao", "pacienteId", "medico").doesNotContainKeys("medicoId", "paciente");
+        assertThat(((Number) corpo.get("pacienteId")).longValue()).isEqualTo(paciente.getId());
+        Map<String, Object> medicoExpandido = (Map<String, Object>) corpo.get("medico");
+        assertThat(medicoExpandido).containsOnlyKeys("id", "nome", "crm", "especialidade", "telefone", "email", "versao");
+        assertThat(medicoExpandido).containsEntry("nome", "Dra. Campos").containsEntry("especialidade", "Neurologia");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void campoDeRelacaoExpandeSoComOsCamposPedidos() throws Exception {
+        Map<String, Object> corpo = objeto("/api/diagnosticos/" + diagnostico.getId()
+                + "?fields=descricao,paciente.nome");
+
+        assertThat(corpo).containsOnlyKeys("id", "descricao", "paciente");
+        Map<String, Object> pacienteExpandido = (Map<String, Object>) corpo.get("paciente");
+        assertThat(pacienteExpandido).containsOnlyKeys("id", "nome");
+        assertThat(pacienteExpandido).containsEntry("nome", "Paciente Campos");
+    }
+
+    @Test
+    void listasDoPacienteEDoMedicoRespeitamOsCampos() throws Exception {
+        List<Map<String, Object>> doPaciente = itens("/api/diagnosticos/paciente/" + paciente.getId() + "?fields=descricao");
+        List<Map<String, Object>> doMedico = itens("/api/diagnosticos/medico/" + medico.getId()
+                + "?fields=descricao&expand=paciente");
+
+        assertThat(doPaciente).extracting(d -> d.get("descricao")).containsExactly("Enxaqueca", "Retorno");
+        assertThat(doPaciente).allSatisfy(d -> assertThat(d).containsOnlyKeys("id", "descricao"));
+        assertThat(doMedico).hasSize(2).allSatisfy(d -> assertThat(d).containsOnlyKeys("id", "descricao", "paciente"));
+    }
+
+    @Test
+    void listasDoPacienteEDoMedicoComFieldsSaoPaginadas() throws Exception {
+        Map<String, Object> primeira = objeto("/api/diagnosticos/paciente/" + paciente.getId() + "?fields=descricao&limit=1");
+        assertThat(itens(primeira)).extracting(d -> d.get("descricao")).containsExactly("Enxaqueca");
+        assertThat(((Number) primeira.get("proximoCursor")).longValue()).isEqualTo(diagnostico.getId());
+
+        Map<String, Object> segunda = objeto("/api/diagnosticos/medico/" + medico.getId()
+                + "?fields=descricao&limit=1&after=" + diagnostico.getId());
+        assertThat(itens(segunda)).extracting(d -> d.get("descricao")).containsExactly("Retorno");
+        assertThat(segunda.get("proximoCursor")).isNull();
+    }
+
+    @Test
+    void paginaComFieldsMantemOCursor() throws Exception {
+        Map<String, Object> pagina = objeto("/api/diagnosticos?fields=descricao&limit=1&after=" + (diagnostico.getId() - 1));
+
+        assertThat(itens(pagina)).singleElement().satisfies(d -> {
+            assertThat(d).containsOnlyKeys("id", "descricao");
+            assertThat(d).containsEntry("descricao", "Enxaqueca");
+        });
+        assertThat(((Number) pagina.get("proximoCursor")).longValue()).isEqualTo(diagnostico.getId());
+    }
+
+    @Test
+    void campoOuExpansaoDesconhecidosRespondem400() throws Exception {
+        mockMvc.perform(get("/api/diagnosticos/" + diagnostico.getId() + "?fields=senha"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Campo desconhecido: senha"));
+        mockMvc.perform(get("/api/diagnosticos/" + diagnostico.getId() + "?fields=paciente.senha"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/diagnosticos/" + diagnostico.getId() + "?expand=hospital"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void diagnosticoInexistenteResponde404() throws Exception {
+        mockMvc.perform(get("/api/diagnosticos/" + Long.MAX_VALUE + "?fields=descricao"))
+                .andExpect(status().isNotFound());
+    }
+
+    private Map<String, Object> objeto(String url) throws Exception {
+        return objectMapper.readValue(corpo(url), new TypeReference<>() {});
+    }
+
+    private List<Map<String, Object>> itens(String url) throws Exception {
+        return itens(objeto(url));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> itens(Map<String, Object> pagina) {
+        return (List<Map<String, Object>>) pagina.get("itens");
+    }
+
+    private String corpo(String url) throws Exception {
+        return mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
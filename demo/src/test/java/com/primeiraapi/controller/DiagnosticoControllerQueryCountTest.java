@@ -0,0 +1,107 @@
+package com.primeiraapi.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.primeiraapi.model.Diagnostico;
+import com.primeiraapi.model.Medico;
+import com.primeiraapi.model.Paciente;
+import com.primeiraapi.service.DiagnosticoService;
+import com.primeiraapi.service.MedicoService;
+import com.primeiraapi.service.PacienteService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Garante que as listagens de diagnósticos executam um único SELECT,
+ * independente de quantos pacientes e médicos diferentes aparecem no resultado.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "busca.reindexar-ao-iniciar=false"
+})
+@AutoConfigureMockMvc
+class DiagnosticoControllerQueryCountTest {
+
+    private static final int QUANTIDADE = 10;
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private DiagnosticoService diagnosticoService;
+
+    private Statistics statistics;
+    private Paciente paciente;
+    private Medico medico;
+    private Diagnostico diagnostico;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Um paciente atendido por vários médicos e um médico que atende vários pacientes
+        int sufixo = SEQUENCIA.incrementAndGet();
+        paciente = pacienteService.create(new Paciente("Paciente N+1", "NP" + sufixo));
+        medico = medicoService.create(new Medico("Dr. N+1", "NM" + sufixo, "Clínica"));
+
+        List<Diagnostico> criados = new ArrayList<>();
+        for (int i = 0; i < QUANTIDADE; i++) {
+            Medico outroMedico = medicoService.create(new Medico("Dr. " + i, "NM" + sufixo + "-" + i, "Esp " + i));
+            Paciente outroPaciente = pacienteService.create(new Paciente("Paciente " + i, "NP" + sufixo + "-" + i));
+            criados.add(diagnosticoService.create(new Diagnostico(paciente, outroMedico, "Diag paciente " + i)));
+            criados.add(diagnosticoService.create(new Diagnostico(outroPaciente, medico, "Diag médico " + i)));
+        }
+        diagnostico = criados.get(0);
+    }
+
+    @Test
+    void listarTodosExecutaUmaConsulta() throws Exception {
+        assertThat(contarConsultas("/api/diagnosticos?limit=500")).isEqualTo(1);
+    }
+
+    @Test
+    void buscarPorPacienteExecutaUmaConsulta() throws Exception {
+        assertThat(contarConsultas("/api/diagnosticos/paciente/" + paciente.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void buscarPorMedicoExecutaUmaConsulta() throws Exception {
+        assertThat(contarConsultas("/api/diagnosticos/medico/" + medico.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void buscarPorIdExecutaUmaConsulta() throws Exception {
+        assertThat(contarConsultas("/api/diagnosticos/" + diagnostico.getId())).isEqualTo(1);
+    }
+
+    private long contarConsultas(String url) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,141 @@
+package com.primeiraapi.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.primeiraapi.model.Medico;
+import com.primeiraapi.model.Paciente;
+import com.primeiraapi.service.DiagnosticoService;
+import com.primeiraapi.service.MedicoService;
+import com.primeiraapi.service.PacienteService;
+
+/**
+ * Repetições simultâneas do mesmo POST com a mesma Idempotency-Key: um único cadastro,
+ * e todas as respostas iguais à primeira (sem o "CPF já cadastrado" das repetições); a repetição
+ * é reconhecida pelo corpo enviado, mesmo quando a entidade convertida muda entre as tentativas.
+ */
+@SpringBootTest(properties = {
+        "busca.reindexar-ao-iniciar=false",
+        "limites.ativo=false"
+})
+@AutoConfigureMockMvc
+class IdempotenciaTest {
+
+    private static final int REPETICOES = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private DiagnosticoService diagnosticoService;
+
+    @Test
+    void repeticoesSimultaneasCadastramUmaVez() throws Exception {
+        String corpo = "{\"nome\": \"Paciente Idempotente\", \"cpf\": \"IDEMP-1\"}";
+        ExecutorService executor = Executors.newFixedThreadPool(REPETICOES);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<MockHttpServletResponse>> futuros = new ArrayList<>();
+            for (int i = 0; i < REPETICOES; i++) {
+                futuros.add(executor.submit(() -> {
+                    largada.await();
+                    return mockMvc.perform(post("/api/pacientes")
+                                    .header(RespostasIdempotentes.CABECALHO, "chave-idempotente-1")
+                                    .contentType(MediaType.APPLICATION_JSON).content(corpo))
+                            .andReturn().getResponse();
+                }));
+            }
+            largada.countDown();
+
+            List<Long> ids = new ArrayList<>();
+            int repetidas = 0;
+            for (Future<MockHttpServletResponse> futuro : futuros) {
+                MockHttpServletResponse resposta = futuro.get(30, TimeUnit.SECONDS);
+                assertThat(resposta.getStatus()).isEqualTo(201);
+                ids.add(objectMapper.readTree(resposta.getContentAsString()).at("/paciente/id").asLong());
+                if ("true".equals(resposta.getHeader(RespostasIdempotentes.CABECALHO_REPETIDA))) {
+                    repetidas++;
+                }
+            }
+            assertThat(ids).containsOnly(ids.get(0));
+            assertThat(repetidas).isEqualTo(REPETICOES - 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void mesmaChaveComOutroCorpoResponde422() throws Exception {
+        mockMvc.perform(post("/api/medicos")
+                        .header(RespostasIdempotentes.CABECALHO, "chave-idempotente-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nome\": \"Dr. Idempotente\", \"crm\": \"IDEMP-1\", \"especialidade\": \"Clínica\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(RespostasIdempotentes.CABECALHO_REPETIDA));
+
+        mockMvc.perform(post("/api/medicos")
+                        .header(RespostasIdempotentes.CABECALHO, "chave-idempotente-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nome\": \"Dr. Outro\", \"crm\": \"IDEMP-2\", \"especialidade\": \"Clínica\"}"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void repeticaoDeDiagnosticoSemDataRecebeAMesmaResposta() throws Exception {
+        String sufixo = UUID.randomUUID().toString().substring(0, 8);
+        Paciente paciente = pacienteService.create(new Paciente("Paciente Idempotente", "ID-" + sufixo));
+        Medico medico = medicoService.create(new Medico("Dr. Idempotente", "ID-CRM-" + sufixo, "Clínica"));
+        String chave = "chave-diagnostico-" + sufixo;
+
+        MockHttpServletResponse primeira = mockMvc.perform(post("/api/diagnosticos")
+                        .header(RespostasIdempotentes.CABECALHO, chave)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"paciente\": {\"id\": " + paciente.getId() + "}, "
+                                + "\"medico\": {\"id\": " + medico.getId() + "}, \"descricao\": \"Gripe\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse();
+        // Mesmo conteúdo com as chaves em outra ordem: a data do diagnóstico, preenchida na
+        // conversão, difere entre as tentativas, mas o corpo enviado é o mesmo
+        MockHttpServletResponse repetida = mockMvc.perform(post("/api/diagnosticos")
+                        .header(RespostasIdempotentes.CABECALHO, chave)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"descricao\": \"Gripe\", \"medico\": {\"id\": " + medico.getId() + "}, "
+                                + "\"paciente\": {\"id\": " + paciente.getId() + "}}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(RespostasIdempotentes.CABECALHO_REPETIDA, "true"))
+                .andReturn().getResponse();
+
+        assertThat(repetida.getContentAsString()).isEqualTo(primeira.getContentAsString());
+        assertThat(repetida.getHeader("Location")).isEqualTo(primeira.getHeader("Location"));
+        assertThat(diagnosticoService.findByPacienteId(paciente.getId())).hasSize(1);
+    }
+}
@@ -0,0 +1,110 @@
+package com.primeiraapi.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import com.primeiraapi.model.Paciente;
+import com.primeiraapi.service.PacienteService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Comandos SQL por requisição nas escritas de paciente:
+ * PUT (lê, altera e salva) contra PATCH e DELETE (um único comando cada).
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "busca.reindexar-ao-iniciar=false"
+})
+@AutoConfigureMockMvc
+class PacienteControllerEscritaQueryCountTest {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    private Statistics statistics;
+    private Paciente paciente;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        paciente = pacienteService.create(new Paciente("Paciente Escrita", "EQ" + SEQUENCIA.incrementAndGet()));
+    }
+
+    @Test
+    void putLeAntesDeAtualizar() throws Exception {
+        long comandos = contarComandos(put("/api/pacientes/" + paciente.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"telefone\": \"(84)90000-0001\"}"));
+
+        assertThat(comandos).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void patchExecutaUmComando() throws Exception {
+        long comandos = contarComandos(patch("/api/pacientes/" + paciente.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"telefone\": \"(84)90000-0002\", \"versao\": " + paciente.getVersao() + "}"));
+
+        assertThat(comandos).isEqualTo(1);
+    }
+
+    @Test
+    void patchComVersaoAntigaRespondeConflito() throws Exception {
+        String corpo = "{\"nome\": \"Outro nome\", \"versao\": " + paciente.getVersao() + "}";
+        mockMvc.perform(patch("/api/pacientes/" + paciente.getId())
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paciente.versao").value(paciente.getVersao() + 1));
+
+        mockMvc.perform(patch("/api/pacientes/" + paciente.getId())
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void patchNaoAlteraCpf() throws Exception {
+        mockMvc.perform(patch("/api/pacientes/" + paciente.getId())
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"cpf\": \"000\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deleteExecutaUmComandoERespondeNaoEncontradoNaSegundaVez() throws Exception {
+        long comandos = contarComandos(delete("/api/pacientes/" + paciente.getId()));
+
+        assertThat(comandos).isEqualTo(1);
+        mockMvc.perform(delete("/api/pacientes/" + paciente.getId())).andExpect(status().isNotFound());
+    }
+
+    private long contarComandos(RequestBuilder requisicao) throws Exception {
+        statistics.clear();
+        mockMvc.perform(requisicao).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,98 @@
+package com.primeiraapi.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.primeiraapi.model.Diagnostico;
+
+/**
+ * Garante, pelo plano de execução do H2 (EXPLAIN), que as buscas por período
+ * usam os índices compostos em vez de varrer a tabela de diagnósticos.
+ * O SQL analisado é o que o Hibernate gerou para a consulta do repositório (capturado por um
+ * StatementInspector), não uma cópia escrita à mão.
+ */
+@SpringBootTest(properties = {
+        "busca.reindexar-ao-iniciar=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.primeiraapi.repository.DiagnosticoRepositoryIndicesTest$SqlGerado"
+})
+class DiagnosticoRepositoryIndicesTest {
+
+    // Parâmetro comparado com data_diagnostico recebe uma data; os outros (IDs, limite), um número
+    private static final Pattern PARAMETRO = Pattern.compile("\\?");
+    private static final Pattern COMPARA_DATA = Pattern.compile("data_diagnostico\\s*[<>=]+\\s*$",
+            Pattern.CASE_INSENSITIVE);
+
+    @Autowired
+    private DiagnosticoRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void periodoPorPacienteUsaIndiceComposto() {
+        String sql = SqlGerado.capturar(() -> repository.findPeriodoByPacienteId(1L,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0), Long.MAX_VALUE, Limit.of(51)));
+        String plano = planoDe(sql);
+
+        assertThat(plano).containsIgnoringCase(Diagnostico.IDX_PACIENTE_DATA);
+        assertThat(plano).doesNotContainIgnoringCase("DIAGNOSTICOS.tableScan");
+    }
+
+    @Test
+    void periodoPorMedicoUsaIndiceComposto() {
+        String sql = SqlGerado.capturar(() -> repository.findPeriodoByMedicoId(1L,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0), Long.MAX_VALUE, Limit.of(51)));
+        String plano = planoDe(sql);
+
+        assertThat(plano).containsIgnoringCase(Diagnostico.IDX_MEDICO_DATA);
+        assertThat(plano).doesNotContainIgnoringCase("DIAGNOSTICOS.tableScan");
+    }
+
+    private String planoDe(String sql) {
+        List<Object> valores = new ArrayList<>();
+        Matcher parametro = PARAMETRO.matcher(sql);
+        while (parametro.find()) {
+            boolean data = COMPARA_DATA.matcher(sql.substring(0, parametro.start())).find();
+            valores.add(data ? Timestamp.valueOf("2024-02-01 00:00:00") : 51L);
+        }
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, valores.toArray());
+    }
+
+    /**
+     * Guarda o último SELECT em diagnosticos executado pela thread atual
+     */
+    public static class SqlGerado implements StatementInspector {
+
+        private static final ThreadLocal<String> ULTIMO = new ThreadLocal<>();
+
+        static String capturar(Runnable consulta) {
+            ULTIMO.remove();
+            consulta.run();
+            String sql = ULTIMO.get();
+            assertThat(sql).as("SQL gerado pelo Hibernate").isNotNull();
+            return sql;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.toLowerCase().startsWith("select") && sql.toLowerCase().contains("diagnosticos")) {
+                ULTIMO.set(sql);
+            }
+            return sql;
+        }
+    }
+}
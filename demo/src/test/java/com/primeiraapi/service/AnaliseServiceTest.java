@@ -0,0 +1,311 @@
+package com.primeiraapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.primeiraapi.dto.ContagemPeriodo;
+import com.primeiraapi.dto.MedicoRanking;
+import com.primeiraapi.model.Diagnostico;
+import com.primeiraapi.model.Medico;
+import com.primeiraapi.model.Paciente;
+import com.primeiraapi.repository.ContagemDiagnosticoRepository;
+
+/**
+ * Análises sobre uma massa conhecida, em um ano só dela (o banco é compartilhado entre os testes):
+ * contagem por especialidade por dia e por semana (limites de 23:59:59 / 00:00 e de domingo / segunda),
+ * ranking de médicos, primeiras criações simultâneas do mesmo médico no dia, remoção e reconstrução
+ * chegando às mesmas contagens, contagens antigas presas à especialidade da época e criações/remoções
+ * que não esperam a reconstrução.
+ */
+@SpringBootTest(properties = {
+        "busca.reindexar-ao-iniciar=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.primeiraapi.service.AnaliseServiceTest$SegurarContagem"
+})
+class AnaliseServiceTest {
+
+    private static final int SIMULTANEAS = 8;
+
+    @Autowired
+    private AnaliseService analiseService;
+
+    @Autowired
+    private DiagnosticoService diagnosticoService;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private ContagemDiagnosticoRepository contagemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Dois médicos de "Cardiologia-{ano}" e um de "Pediatria-{ano}", em torno da segunda-feira {@code segunda}:
+     * - cardio1: domingo 23:59:59, segunda 00:00, segunda 12:00, domingo seguinte 23:59:59
+     * - cardio2: segunda 09:00
+     * - pediatra: domingo 10:00, segunda seguinte 00:00
+     */
+    private record Massa(LocalDate segunda, Paciente paciente, Medico cardio1, Medico cardio2, Medico pediatra,
+                         String cardiologia, String pediatria, Diagnostico segundaMeiaNoite) {}
+
+    @Test
+    void contagemPorEspecialidadePorDia() {
+        Massa massa = semear(1990);
+        LocalDate domingo = massa.segunda().minusDays(1);
+
+        List<ContagemPeriodo> porDia = daMassa(massa,
+                analiseService.porEspecialidade(domingo.minusDays(7), domingo.plusDays(14), AnaliseService.PERIODO_DIA));
+
+        assertThat(porDia).containsExactlyInAnyOrder(
+                new ContagemPeriodo(massa.cardiologia(), domingo, 1L),
+                new ContagemPeriodo(massa.cardiologia(), massa.segunda(), 3L),
+                new ContagemPeriodo(massa.cardiologia(), domingo.plusDays(7), 1L),
+                new ContagemPeriodo(massa.pediatria(), domingo, 1L),
+                new ContagemPeriodo(massa.pediatria(), massa.segunda().plusDays(7), 1L));
+    }
+
+    @Test
+    void contagemPorEspecialidadePorSemanaComecaNaSegunda() {
+        Massa massa = semear(1991);
+        LocalDate semanaAnterior = massa.segunda().minusDays(7);
+
+        List<ContagemPeriodo> porSemana = daMassa(massa, analiseService.porEspecialidade(
+                semanaAnterior, massa.segunda().plusDays(13), AnaliseService.PERIODO_SEMANA));
+
+        // Domingo 23:59:59 fica na semana anterior; domingo seguinte, na semana da segunda
+        assertThat(porSemana).containsExactly(
+                new ContagemPeriodo(massa.cardiologia(), semanaAnterior, 1L),
+                new ContagemPeriodo(massa.pediatria(), semanaAnterior, 1L),
+                new ContagemPeriodo(massa.cardiologia(), massa.segunda(), 4L),
+                new ContagemPeriodo(massa.pediatria(), massa.segunda().plusDays(7), 1L));
+    }
+
+    @Test
+    void periodoInvalidoELimitesDoIntervalo() {
+        Massa massa = semear(1992);
+
+        assertThatThrownBy(() -> analiseService.porEspecialidade(massa.segunda(), massa.segunda(), "mes"))
+                .isInstanceOf(IllegalArgumentException.class);
+        // Intervalo só com a segunda: o domingo 23:59:59 e a segunda seguinte ficam de fora
+        assertThat(daMassa(massa, analiseService.porEspecialidade(
+                massa.segunda(), massa.segunda(), AnaliseService.PERIODO_DIA)))
+                .containsExactly(new ContagemPeriodo(massa.cardiologia(), massa.segunda(), 3L));
+    }
+
+    @Test
+    void rankingDeMedicosPorVolume() {
+        Massa massa = semear(1993);
+        LocalDate inicio = massa.segunda().minusDays(7);
+        LocalDate fim = massa.segunda().plusDays(14);
+
+        List<MedicoRanking> ranking = analiseService.rankingMedicos(inicio, fim, 10).stream()
+                .filter(item -> Set.of(massa.cardio1().getId(), massa.cardio2().getId(), massa.pediatra().getId())
+                        .contains(item.medicoId()))
+                .toList();
+
+        assertThat(ranking).extracting(MedicoRanking::medicoId)
+                .containsExactly(massa.cardio1().getId(), massa.pediatra().getId(), massa.cardio2().getId());
+        assertThat(ranking).extracting(MedicoRanking::quantidade).containsExactly(4L, 2L, 1L);
+        assertThat(ranking.get(0).especialidade()).isEqualTo(massa.cardiologia());
+        assertThat(analiseService.rankingMedicos(inicio, fim, 1)).hasSize(1);
+    }
+
+    @Test
+    void remocaoEReconstrucaoChegamAsMesmasContagens() {
+        Massa massa = semear(1994);
+        LocalDate inicio = massa.segunda().minusDays(7);
+        LocalDate fim = massa.segunda().plusDays(14);
+
+        diagnosticoService.delete(massa.segundaMeiaNoite().getId());
+        List<ContagemPeriodo> incremental = daMassa(massa,
+                analiseService.porEspecialidade(inicio, fim, AnaliseService.PERIODO_DIA));
+        assertThat(incremental).contains(new ContagemPeriodo(massa.cardiologia(), massa.segunda(), 2L));
+
+        // Contagem corrompida por fora: a reconstrução volta ao que está nos diagnósticos
+        transactionTemplate.executeWithoutResult(status ->
+                contagemRepository.somar(massa.cardio1().getId(), massa.cardiologia(), massa.segunda(), 5L));
+        assertThat(daMassa(massa, analiseService.porEspecialidade(inicio, fim, AnaliseService.PERIODO_DIA)))
+                .contains(new ContagemPeriodo(massa.cardiologia(), massa.segunda(), 7L));
+
+        assertThat(analiseService.reconstruir()).isPositive();
+        assertThat(daMassa(massa, analiseService.porEspecialidade(inicio, fim, AnaliseService.PERIODO_DIA)))
+                .containsExactlyInAnyOrderElementsOf(incremental);
+    }
+
+    @Test
+    void primeirasCriacoesSimultaneasDoMedicoNoDiaSomamTodas() throws Exception {
+        LocalDate dia = LocalDate.of(1995, 3, 15);
+        String especialidade = "Ortopedia-1995";
+        Paciente paciente = pacienteService.create(new Paciente("Paciente Simultâneo", "AN-1995"));
+        Medico medico = medicoService.create(new Medico("Dr. Simultâneo", "AN-CRM-1995", especialidade));
+
+        ExecutorService executor = Executors.newFixedThreadPool(SIMULTANEAS);
+        CyclicBarrier largada = new CyclicBarrier(SIMULTANEAS);
+        try {
+            List<Future<Diagnostico>> criacoes = new ArrayList<>();
+            for (int i = 0; i < SIMULTANEAS; i++) {
+                LocalDateTime hora = dia.atTime(8, i);
+                criacoes.add(executor.submit(() -> {
+                    largada.await(10, TimeUnit.SECONDS);
+                    return criar(paciente, medico, hora);
+                }));
+            }
+            for (Future<Diagnostico> criacao : criacoes) {
+                assertThat(criacao.get(30, TimeUnit.SECONDS).getId()).isNotNull();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(analiseService.porEspecialidade(dia, dia, AnaliseService.PERIODO_DIA))
+                .filteredOn(c -> c.especialidade().equals(especialidade))
+                .containsExactly(new ContagemPeriodo(especialidade, dia, (long) SIMULTANEAS));
+    }
+
+    @Test
+    void mudarAEspecialidadeDoMedicoNaoMoveContagensAntigas() {
+        Massa massa = semear(1997);
+        String neurologia = "Neurologia-1997";
+        Medico dados = new Medico();
+        dados.setEspecialidade(neurologia);
+        medicoService.patch(massa.cardio1().getId(), dados, Set.of("especialidade"));
+
+        criar(massa.paciente(), massa.cardio1(), massa.segunda().atTime(15, 0));
+        diagnosticoService.delete(massa.segundaMeiaNoite().getId());
+
+        List<ContagemPeriodo> esperado = List.of(
+                new ContagemPeriodo(massa.cardiologia(), massa.segunda(), 2L),
+                new ContagemPeriodo(neurologia, massa.segunda(), 1L));
+        assertThat(analiseService.porEspecialidade(massa.segunda(), massa.segunda(), AnaliseService.PERIODO_DIA))
+                .filteredOn(c -> c.especialidade().equals(massa.cardiologia()) || c.especialidade().equals(neurologia))
+                .containsExactlyElementsOf(esperado);
+
+        analiseService.reconstruir();
+        assertThat(analiseService.porEspecialidade(massa.segunda(), massa.segunda(), AnaliseService.PERIODO_DIA))
+                .filteredOn(c -> c.especialidade().equals(massa.cardiologia()) || c.especialidade().equals(neurologia))
+                .containsExactlyElementsOf(esperado);
+    }
+
+    @Test
+    void criacoesERemocoesNaoEsperamAReconstrucao() throws Exception {
+        Massa massa = semear(1998);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        SegurarContagem.armar();
+        try {
+            CompletableFuture<Integer> reconstrucao = CompletableFuture.supplyAsync(analiseService::reconstruir);
+            assertThat(SegurarContagem.segurando.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // Contagem da reconstrução parada no banco: criar e remover terminam mesmo assim
+            executor.submit(() -> criar(massa.paciente(), massa.cardio1(), massa.segunda().atTime(15, 0)))
+                    .get(10, TimeUnit.SECONDS);
+            executor.submit(() -> diagnosticoService.delete(massa.segundaMeiaNoite().getId()))
+                    .get(10, TimeUnit.SECONDS);
+            assertThat(reconstrucao).isNotDone();
+
+            SegurarContagem.liberar();
+            assertThat(reconstrucao.get(30, TimeUnit.SECONDS)).isPositive();
+        } finally {
+            SegurarContagem.liberar();
+            executor.shutdownNow();
+        }
+
+        assertThat(daMassa(massa, analiseService.porEspecialidade(
+                massa.segunda(), massa.segunda(), AnaliseService.PERIODO_DIA)))
+                .containsExactly(new ContagemPeriodo(massa.cardiologia(), massa.segunda(), 3L));
+    }
+
+    private Massa semear(int ano) {
+        LocalDate segunda = LocalDate.of(ano, 1, 15).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate domingo = segunda.minusDays(1);
+        String cardiologia = "Cardiologia-" + ano;
+        String pediatria = "Pediatria-" + ano;
+        Paciente paciente = pacienteService.create(new Paciente("Paciente Análise", "AN-" + ano));
+        Medico cardio1 = medicoService.create(new Medico("Dr. Cardio Um", "AN-CRM-1-" + ano, cardiologia));
+        Medico cardio2 = medicoService.create(new Medico("Dra. Cardio Dois", "AN-CRM-2-" + ano, cardiologia));
+        Medico pediatra = medicoService.create(new Medico("Dr. Pediatra", "AN-CRM-3-" + ano, pediatria));
+
+        criar(paciente, cardio1, domingo.atTime(LocalTime.of(23, 59, 59)));
+        Diagnostico segundaMeiaNoite = criar(paciente, cardio1, segunda.atStartOfDay());
+        criar(paciente, cardio1, segunda.atTime(12, 0));
+        criar(paciente, cardio1, domingo.plusDays(7).atTime(LocalTime.of(23, 59, 59)));
+        criar(paciente, cardio2, segunda.atTime(9, 0));
+        criar(paciente, pediatra, domingo.atTime(10, 0));
+        criar(paciente, pediatra, segunda.plusDays(7).atStartOfDay());
+        return new Massa(segunda, paciente, cardio1, cardio2, pediatra, cardiologia, pediatria, segundaMeiaNoite);
+    }
+
+    private Diagnostico criar(Paciente paciente, Medico medico, LocalDateTime data) {
+        Diagnostico diagnostico = new Diagnostico(paciente, medico, "Análise " + data);
+        diagnostico.setDataDiagnostico(data);
+        return diagnosticoService.create(diagnostico);
+    }
+
+    private static List<ContagemPeriodo> daMassa(Massa massa, List<ContagemPeriodo> contagens) {
+        return contagens.stream()
+                .filter(c -> c.especialidade().equals(massa.cardiologia()) || c.especialidade().equals(massa.pediatria()))
+                .toList();
+    }
+
+    /**
+     * Segura a primeira contagem da reconstrução (GROUP BY em diagnosticos) depois de armado, até ser liberado
+     */
+    public static class SegurarContagem implements StatementInspector {
+
+        private static final AtomicBoolean ARMADO = new AtomicBoolean();
+        static volatile CountDownLatch segurando = new CountDownLatch(1);
+        private static volatile CountDownLatch liberada = new CountDownLatch(0);
+
+        static void armar() {
+            segurando = new CountDownLatch(1);
+            liberada = new CountDownLatch(1);
+            ARMADO.set(true);
+        }
+
+        static void liberar() {
+            ARMADO.set(false);
+            liberada.countDown();
+        }
+
+        @Override
+        public String inspect(String sql) {
+            String minusculo = sql.toLowerCase();
+            if (minusculo.contains("group by medico_id, especialidade_medico") && ARMADO.compareAndSet(true, false)) {
+                segurando.countDown();
+                try {
+                    liberada.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.primeiraapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.primeiraapi.dto.CamposDiagnostico;
+import com.primeiraapi.model.Diagnostico;
+import com.primeiraapi.model.Medico;
+import com.primeiraapi.model.Paciente;
+import com.primeiraapi.repository.DiagnosticoArquivadoRepository;
+import com.primeiraapi.repository.DiagnosticoRepository;
+
+/**
+ * Arquivamento: os diagnósticos antigos saem da tabela principal e continuam nas leituras por ID
+ * (inteiras ou só com os campos pedidos) e por período; uma escrita que disputa o bloco com o arquivador não se perde.
+ */
+@SpringBootTest(properties = {
+        "busca.reindexar-ao-iniciar=false",
+        "arquivamento.idade-dias=365",
+        "arquivamento.pausa-ms=0"
+})
+class ArquivamentoDiagnosticosTest {
+
+    @Autowired
+    private ArquivamentoDiagnosticos arquivamento;
+
+    @Autowired
+    private DiagnosticoService diagnosticoService;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private DiagnosticoRepository diagnosticoRepository;
+
+    @Autowired
+    private DiagnosticoArquivadoRepository arquivadoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void antigosVaoParaOArquivoEContinuamNasLeituras() {
+        Paciente paciente = pacienteService.create(new Paciente("Paciente Arquivo", "ARQ-1"));
+        Medico medico = medicoService.create(new Medico("Dr. Arquivo", "ARQ-CRM-1", "Clínica"));
+        Diagnostico antigo = criar(paciente, medico, "Antigo", LocalDateTime.now().minusDays(500));
+        Diagnostico maisAntigo = criar(paciente, medico, "Mais antigo", LocalDateTime.now().minusDays(600));
+        Diagnostico recente = criar(paciente, medico, "Recente", LocalDateTime.now().minusDays(1));
+
+        assertThat(arquivamento.arquivar()).isGreaterThanOrEqualTo(2);
+
+        assertThat(diagnosticoRepository.existsById(antigo.getId())).isFalse();
+        assertThat(arquivadoRepository.existsById(antigo.getId())).isTrue();
+        assertThat(diagnosticoRepository.existsById(recente.getId())).isTrue();
+
+        assertThat(diagnosticoService.findOrThrow(antigo.getId()).getDescricao()).isEqualTo("Antigo");
+        assertThat(diagnosticoService.findVersaoOrThrow(antigo.getId())).isNotNull();
+        Map<String, Object> projetado = diagnosticoService.findProjetadoOrThrow(
+                CamposDiagnostico.of("descricao,medico.nome", null), antigo.getId());
+        assertThat(projetado).containsEntry("descricao", "Antigo");
+        assertThat(projetado.get("medico")).isEqualTo(Map.of("id", medico.getId(), "nome", "Dr. Arquivo"));
+
+        List<Long> periodo = diagnosticoService.findPeriodoByPacienteId(paciente.getId(),
+                        LocalDate.now().minusDays(700), LocalDate.now(), null, 50)
+                .itens().stream().map(Diagnostico::getId).toList();
+        assertThat(periodo).containsExactly(recente.getId(), antigo.getId(), maisAntigo.getId());
+
+        // Arquivados são só leitura
+        Diagnostico dados = new Diagnostico();
+        dados.setDescricao("Alterado");
+        assertThatThrownBy(() -> diagnosticoService.patch(antigo.getId(), dados, Set.of("descricao")))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void escritaConcorrenteComOArquivadorNaoSePerde() throws Exception {
+        Paciente paciente = pacienteService.create(new Paciente("Paciente Corrida", "ARQ-2"));
+        Medico medico = medicoService.create(new Medico("Dr. Corrida", "ARQ-CRM-2", "Clínica"));
+        Diagnostico antigo = criar(paciente, medico, "Antes da correção", LocalDateTime.now().minusDays(400));
+
+        CountDownLatch atualizado = new CountDownLatch(1);
+        CompletableFuture<Void> escrita = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            Diagnostico dados = new Diagnostico();
+            dados.setDescricao("Depois da correção");
+            diagnosticoService.patch(antigo.getId(), dados, Set.of("descricao"));
+            atualizado.countDown();
+            // Segura a linha travada enquanto o arquivador tenta mover o bloco
+            esperar(500);
+        }));
+        assertThat(atualizado.await(10, TimeUnit.SECONDS)).isTrue();
+
+        arquivamento.arquivar();
+        escrita.get(10, TimeUnit.SECONDS);
+
+        assertThat(diagnosticoRepository.existsById(antigo.getId())).isFalse();
+        assertThat(diagnosticoService.findOrThrow(antigo.getId()).getDescricao()).isEqualTo("Depois da correção");
+    }
+
+    private Diagnostico criar(Paciente paciente, Medico medico, String descricao, LocalDateTime data) {
+        Diagnostico diagnostico = new Diagnostico(paciente, medico, descricao);
+        diagnostico.setDataDiagnostico(data);
+        return diagnosticoService.create(diagnostico);
+    }
+
+    private static void esperar(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
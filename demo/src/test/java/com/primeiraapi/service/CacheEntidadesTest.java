@@ -0,0 +1,95 @@
+package com.primeiraapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.primeiraapi.model.Medico;
+import com.primeiraapi.model.Paciente;
+
+/**
+ * Cache de médicos e pacientes: a leitura depois de uma atualização não volta o valor anterior,
+ * nem quando outra leitura recarrega o cache antes do commit, e alterar a entidade devolvida
+ * não muda o que está no cache.
+ */
+@SpringBootTest(properties = "busca.reindexar-ao-iniciar=false")
+class CacheEntidadesTest {
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void leituraDepoisDoPatchNaoVoltaOValorAnterior() {
+        Medico medico = medicoService.create(new Medico("Dr. Antes", "CACHE-CRM-1", "Clínica"));
+        Long versaoAnterior = medicoService.findVersaoOrThrow(medico.getId());
+        assertThat(medicoService.findOrThrow(medico.getId()).getNome()).isEqualTo("Dr. Antes");
+
+        Medico dados = new Medico();
+        dados.setNome("Dr. Depois");
+        medicoService.patch(medico.getId(), dados, Set.of("nome"));
+
+        assertThat(medicoService.findOrThrow(medico.getId()).getNome()).isEqualTo("Dr. Depois");
+        assertThat(medicoService.findByCrm("CACHE-CRM-1").orElseThrow().getNome()).isEqualTo("Dr. Depois");
+        assertThat(medicoService.findVersaoOrThrow(medico.getId())).isNotEqualTo(versaoAnterior);
+    }
+
+    @Test
+    void leituraAntesDoCommitNaoDeixaValorAnteriorNoCache() throws Exception {
+        Paciente paciente = pacienteService.create(new Paciente("Nome antigo", "CACHE-1"));
+        Long versaoAnterior = pacienteService.findVersaoOrThrow(paciente.getId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Paciente dados = new Paciente();
+            dados.setNome("Nome novo");
+            pacienteService.patch(paciente.getId(), dados, Set.of("nome"));
+            // Outra requisição lê (o valor ainda confirmado) e recarrega o cache antes do commit
+            Paciente lido = CompletableFuture.supplyAsync(() -> pacienteService.findOrThrow(paciente.getId()))
+                    .orTimeout(10, TimeUnit.SECONDS)
+                    .join();
+            assertThat(lido.getNome()).isEqualTo("Nome antigo");
+        });
+
+        assertThat(pacienteService.findOrThrow(paciente.getId()).getNome()).isEqualTo("Nome novo");
+        assertThat(pacienteService.findVersaoOrThrow(paciente.getId())).isNotEqualTo(versaoAnterior);
+    }
+
+    @Test
+    void rollbackDaAtualizacaoNaoFicaNoCache() {
+        Paciente paciente = pacienteService.create(new Paciente("Confirmado", "CACHE-2"));
+        pacienteService.findOrThrow(paciente.getId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Paciente dados = new Paciente();
+            dados.setNome("Desfeito");
+            pacienteService.patch(paciente.getId(), dados, Set.of("nome"));
+            // Leitura dentro da própria transação vê a alteração, mas não a guarda
+            assertThat(pacienteService.findOrThrow(paciente.getId()).getNome()).isEqualTo("Desfeito");
+            status.setRollbackOnly();
+        });
+
+        assertThat(pacienteService.findOrThrow(paciente.getId()).getNome()).isEqualTo("Confirmado");
+    }
+
+    @Test
+    void alterarAEntidadeDevolvidaNaoMudaOCache() {
+        Paciente paciente = pacienteService.create(new Paciente("Original", "CACHE-3"));
+
+        pacienteService.findOrThrow(paciente.getId()).setNome("Alterado fora do serviço");
+
+        assertThat(pacienteService.findOrThrow(paciente.getId()).getNome()).isEqualTo("Original");
+        assertThat(pacienteService.findByCpf("CACHE-3").orElseThrow().getNome()).isEqualTo("Original");
+    }
+}
@@ -0,0 +1,171 @@
+package com.primeiraapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.primeiraapi.model.Diagnostico;
+import com.primeiraapi.model.Medico;
+import com.primeiraapi.model.Paciente;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * N chamadas simultâneas de findById / findPeriodoByPacienteId com a mesma chave executam,
+ * pelas estatísticas do Hibernate, os mesmos comandos SQL de uma única chamada.
+ * A primeira consulta fica presa (StatementInspector) até as outras estarem esperando por ela.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.primeiraapi.service.DiagnosticoServiceQueryCountTest$SegurarConsulta",
+        "busca.reindexar-ao-iniciar=false"
+})
+class DiagnosticoServiceQueryCountTest {
+
+    private static final int REQUISICOES = 20;
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    @Autowired
+    private DiagnosticoService diagnosticoService;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private Statistics statistics;
+    private Paciente paciente;
+    private Diagnostico diagnostico;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        int sufixo = SEQUENCIA.incrementAndGet();
+        paciente = pacienteService.create(new Paciente("Paciente Single-flight", "SF" + sufixo));
+        Medico medico = medicoService.create(new Medico("Dr. Single-flight", "SF-CRM-" + sufixo, "Clínica"));
+        diagnostico = diagnosticoService.create(new Diagnostico(paciente, medico, "Prontuário concorrido"));
+    }
+
+    @Test
+    void findByIdSimultaneosFazemUmaConsulta() throws Exception {
+        long umaChamada = comandosDe(() -> diagnosticoService.findOrThrow(diagnostico.getId()));
+
+        long simultaneas = comandosEmParalelo("diagnosticos.por_id",
+                () -> diagnosticoService.findOrThrow(diagnostico.getId()));
+
+        assertThat(simultaneas).isEqualTo(umaChamada);
+    }
+
+    @Test
+    void findPeriodoSimultaneosFazemUmaConsulta() throws Exception {
+        Supplier<Object> periodo = () -> diagnosticoService.findPeriodoByPacienteId(paciente.getId(),
+                LocalDate.now().minusDays(30), LocalDate.now(), null, 50);
+        long umaChamada = comandosDe(periodo);
+
+        long simultaneas = comandosEmParalelo("diagnosticos.periodo_por_paciente", periodo);
+
+        assertThat(simultaneas).isEqualTo(umaChamada);
+    }
+
+    // Comandos de uma chamada sozinha, depois de uma primeira que aquece o que é carregado uma vez só
+    private long comandosDe(Supplier<Object> leitura) {
+        leitura.get();
+        statistics.clear();
+        leitura.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Dispara REQUISICOES leituras e só deixa a primeira consulta seguir quando
+     * todas as outras já estão esperando o resultado dela
+     */
+    private long comandosEmParalelo(String leitura, Supplier<Object> consulta) throws Exception {
+        double compartilhadasAntes = compartilhadas(leitura);
+        ExecutorService executor = Executors.newFixedThreadPool(REQUISICOES);
+        SegurarConsulta.armar();
+        try {
+            statistics.clear();
+            List<Future<Object>> resultados = new ArrayList<>();
+            for (int i = 0; i < REQUISICOES; i++) {
+                resultados.add(executor.submit(consulta::get));
+            }
+            long prazo = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (compartilhadas(leitura) - compartilhadasAntes < REQUISICOES - 1 && System.nanoTime() < prazo) {
+                Thread.sleep(1);
+            }
+            SegurarConsulta.liberar();
+            for (Future<Object> resultado : resultados) {
+                assertThat(resultado.get(10, TimeUnit.SECONDS)).isNotNull();
+            }
+            assertThat(compartilhadas(leitura) - compartilhadasAntes).isEqualTo(REQUISICOES - 1);
+            return statistics.getPrepareStatementCount();
+        } finally {
+            SegurarConsulta.liberar();
+            executor.shutdownNow();
+        }
+    }
+
+    private double compartilhadas(String leitura) {
+        return registry.counter("servico.leituras", "leitura", leitura, "resultado", "compartilhada").count();
+    }
+
+    /**
+     * Segura o primeiro SELECT em diagnosticos depois de armado, até ser liberado
+     */
+    public static class SegurarConsulta implements StatementInspector {
+
+        private static final AtomicBoolean ARMADO = new AtomicBoolean();
+        private static volatile CountDownLatch liberada = new CountDownLatch(0);
+
+        static void armar() {
+            liberada = new CountDownLatch(1);
+            ARMADO.set(true);
+        }
+
+        static void liberar() {
+            ARMADO.set(false);
+            liberada.countDown();
+        }
+
+        @Override
+        public String inspect(String sql) {
+            String minusculo = sql.toLowerCase();
+            if (minusculo.startsWith("select") && minusculo.contains("diagnosticos")
+                    && ARMADO.compareAndSet(true, false)) {
+                try {
+                    liberada.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.primeiraapi.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispara a mesma tarefa várias vezes em um pool, liberando todas as threads juntas,
+ * para os testes de concorrência dos serviços.
+ */
+final class ExecucaoParalela {
+
+    private static final long PRAZO_SEGUNDOS = 30;
+
+    /**
+     * Ação executada enquanto as tarefas rodam (pode esperar e lançar exceções verificadas)
+     */
+    @FunctionalInterface
+    interface Acao {
+        void executar() throws Exception;
+    }
+
+    private ExecucaoParalela() {
+    }
+
+    /**
+     * Executa a tarefa N vezes e espera todas terminarem; os futuros voltam concluídos,
+     * com o resultado ou a exceção de cada execução
+     */
+    static <T> List<Future<T>> executar(int vezes, int threads, Callable<T> tarefa) throws Exception {
+        return executar(vezes, threads, tarefa, () -> {});
+    }
+
+    /**
+     * Como executar(vezes, threads, tarefa), chamando enquantoRodam logo depois da largada
+     * (ex.: liberar uma consulta presa quando todas as tarefas já chegaram a ela)
+     */
+    static <T> List<Future<T>> executar(int vezes, int threads, Callable<T> tarefa, Acao enquantoRodam)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<T>> futuros = new ArrayList<>();
+            for (int i = 0; i < vezes; i++) {
+                futuros.add(executor.submit(() -> {
+                    largada.await();
+                    return tarefa.call();
+                }));
+            }
+            largada.countDown();
+            enquantoRodam.executar();
+            for (Future<T> futuro : futuros) {
+                try {
+                    futuro.get(PRAZO_SEGUNDOS, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    // verificado por quem chamou
+                }
+            }
+            return futuros;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Executa o cadastro N vezes; para cada execução, "criado" no sucesso
+     * ou a mensagem do IllegalArgumentException (erro de negócio, 400)
+     */
+    static List<String> cadastrar(int vezes, int threads, Runnable cadastro) throws Exception {
+        List<String> resultados = new ArrayList<>();
+        for (Future<String> futuro : executar(vezes, threads, () -> {
+            try {
+                cadastro.run();
+                return "criado";
+            } catch (IllegalArgumentException e) {
+                return e.getMessage();
+            }
+        })) {
+            resultados.add(futuro.get());
+        }
+        return resultados;
+    }
+}
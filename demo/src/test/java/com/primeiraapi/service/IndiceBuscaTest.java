@@ -0,0 +1,111 @@
+package com.primeiraapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.primeiraapi.dto.ResultadoBusca;
+import com.primeiraapi.model.Diagnostico;
+import com.primeiraapi.model.Medico;
+import com.primeiraapi.model.Paciente;
+
+/**
+ * Índice de busca: só o que foi confirmado no banco aparece na busca, e a reindexação
+ * completa não desfaz escritas feitas enquanto ela roda.
+ */
+@SpringBootTest(properties = "busca.reindexar-ao-iniciar=false")
+class IndiceBuscaTest {
+
+    @Autowired
+    private IndiceBusca indice;
+
+    @Autowired
+    private DiagnosticoService diagnosticoService;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void diagnosticoCriadoApareceNaBusca() {
+        Diagnostico criado = diagnosticoService.create(novo("BUSCA-1", "Suspeita de sarcoidose pulmonar"));
+
+        assertThat(idsEncontrados(indice, "sarcoidose")).contains(criado.getId());
+    }
+
+    @Test
+    void rollbackNaoDeixaDocumentoFantasma() {
+        Diagnostico diagnostico = novo("BUSCA-2", "Quadro de acromegalia");
+        transactionTemplate.executeWithoutResult(status -> {
+            diagnosticoService.create(diagnostico);
+            status.setRollbackOnly();
+        });
+
+        assertThat(idsEncontrados(indice, "acromegalia")).isEmpty();
+    }
+
+    @Test
+    void rollbackDaAtualizacaoMantemTextoAnterior() {
+        Diagnostico criado = diagnosticoService.create(novo("BUSCA-3", "Histoplasmose disseminada"));
+        transactionTemplate.executeWithoutResult(status -> {
+            Diagnostico dados = new Diagnostico();
+            dados.setDescricao("Feocromocitoma");
+            diagnosticoService.update(criado.getId(), dados);
+            status.setRollbackOnly();
+        });
+
+        assertThat(idsEncontrados(indice, "histoplasmose")).contains(criado.getId());
+        assertThat(idsEncontrados(indice, "feocromocitoma")).doesNotContain(criado.getId());
+    }
+
+    @Test
+    void reindexacaoNaoSobrescreveEscritasConcorrentes() throws Exception {
+        IndiceBusca isolado = new IndiceBusca();
+        try {
+            isolado.iniciarReindexacao();
+            // Escritas dos serviços depois do início da reindexação
+            isolado.indexarDiagnostico(diagnostico(1L, "Amiloidose confirmada"));
+            isolado.remover(IndiceBusca.TIPO_DIAGNOSTICO, 2L);
+            // Leitura do banco feita antes delas chega depois
+            isolado.reindexarDiagnostico(diagnostico(1L, "Suspeita de porfiria"));
+            isolado.reindexarDiagnostico(diagnostico(2L, "Porfiria aguda"));
+            isolado.reindexarDiagnostico(diagnostico(3L, "Porfiria cutânea"));
+            isolado.concluirReindexacao();
+
+            assertThat(idsEncontrados(isolado, "amiloidose")).containsExactly(1L);
+            assertThat(idsEncontrados(isolado, "porfiria")).containsExactly(3L);
+        } finally {
+            isolado.fechar();
+        }
+    }
+
+    private Diagnostico novo(String sufixo, String descricao) {
+        Paciente paciente = pacienteService.create(new Paciente("Paciente Busca", sufixo));
+        Medico medico = medicoService.create(new Medico("Dr. Busca", "CRM-" + sufixo, "Clínica"));
+        return new Diagnostico(paciente, medico, descricao);
+    }
+
+    private static Diagnostico diagnostico(Long id, String descricao) {
+        Diagnostico diagnostico = new Diagnostico();
+        diagnostico.setId(id);
+        diagnostico.setDescricao(descricao);
+        return diagnostico;
+    }
+
+    private static List<Long> idsEncontrados(IndiceBusca indice, String texto) {
+        indice.atualizarLeitura();
+        return indice.buscar(texto, IndiceBusca.TIPO_DIAGNOSTICO, 0, 50).itens().stream()
+                .map(ResultadoBusca.Item::id)
+                .toList();
+    }
+}
@@ -0,0 +1,184 @@
+package com.primeiraapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.primeiraapi.dto.StatusIngestao;
+import com.primeiraapi.dto.StatusIngestao.Situacao;
+import com.primeiraapi.model.Diagnostico;
+import com.primeiraapi.model.Medico;
+import com.primeiraapi.model.Paciente;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Ingestão assíncrona: fila cheia ou desligada → 503 + Retry-After, o token passa de PENDENTE a
+ * CRIADO, e o desligamento grava tudo o que foi aceito, mesmo com enfileiramentos em andamento.
+ */
+@SpringBootTest(properties = {
+        "busca.reindexar-ao-iniciar=false",
+        "limites.ativo=false",
+        "diagnosticos.ingestao.assincrona=true"
+})
+@AutoConfigureMockMvc
+class IngestaoDiagnosticosTest {
+
+    private static final int PRODUTORES = 8;
+
+    @Autowired
+    private IngestaoDiagnosticos ingestao;
+
+    @Autowired
+    private DiagnosticoService diagnosticoService;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Paciente paciente;
+    private Medico medico;
+
+    @BeforeEach
+    void cadastrar() {
+        String sufixo = UUID.randomUUID().toString().substring(0, 8);
+        paciente = pacienteService.create(new Paciente("Paciente Ingestão", "ING-" + sufixo));
+        medico = medicoService.create(new Medico("Dr. Ingestão", "ING-CRM-" + sufixo, "Clínica"));
+    }
+
+    @Test
+    void tokenPassaDePendenteACriado() throws Exception {
+        UUID token = ingestao.enfileirar(novo("Enfileirado")).orElseThrow();
+
+        StatusIngestao situacao = aguardarGravacao(ingestao, token);
+        assertThat(situacao.situacao()).isEqualTo(Situacao.CRIADO);
+        assertThat(diagnosticoService.findOrThrow(situacao.id()).getDescricao()).isEqualTo("Enfileirado");
+    }
+
+    @Test
+    void filaCheiaRecusa() {
+        IngestaoDiagnosticos parada = isolada(2);
+
+        assertThat(parada.enfileirar(novo("Primeiro"))).isPresent();
+        assertThat(parada.enfileirar(novo("Segundo"))).isPresent();
+        assertThat(parada.enfileirar(novo("Terceiro"))).isEmpty();
+    }
+
+    @Test
+    void desligamentoGravaOQueFicouNaFila() throws Exception {
+        // Gravador nunca iniciado: tudo fica na fila até o desligamento
+        IngestaoDiagnosticos parada = isolada(10);
+        List<UUID> tokens = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            tokens.add(parada.enfileirar(novo("Na fila " + i)).orElseThrow());
+        }
+
+        parada.encerrar();
+
+        for (UUID token : tokens) {
+            assertThat(parada.situacao(token)).get().extracting(StatusIngestao::situacao).isEqualTo(Situacao.CRIADO);
+        }
+        assertThat(parada.enfileirar(novo("Depois do desligamento"))).isEmpty();
+    }
+
+    @Test
+    void enfileiramentosDuranteODesligamentoNaoFicamPendentes() throws Exception {
+        IngestaoDiagnosticos rodando = isolada(100_000);
+        rodando.iniciar();
+        ConcurrentLinkedQueue<UUID> aceitos = new ConcurrentLinkedQueue<>();
+        // Cada produtor só libera o desligamento depois de ter um item aceito, e segue
+        // enfileirando até ser recusado: o desligamento sempre corre junto dos enfileiramentos
+        CyclicBarrier todosAceitos = new CyclicBarrier(PRODUTORES + 1);
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUTORES);
+        try {
+            List<Future<Integer>> produtores = new ArrayList<>();
+            for (int i = 0; i < PRODUTORES; i++) {
+                produtores.add(executor.submit(() -> {
+                    int enfileirados = 0;
+                    while (true) {
+                        Optional<UUID> token = rodando.enfileirar(novo("Concorrente"));
+                        if (token.isEmpty()) {
+                            return enfileirados;
+                        }
+                        aceitos.add(token.get());
+                        if (++enfileirados == 1) {
+                            todosAceitos.await(10, TimeUnit.SECONDS);
+                        }
+                    }
+                }));
+            }
+            todosAceitos.await(10, TimeUnit.SECONDS);
+            rodando.encerrar();
+            for (Future<Integer> produtor : produtores) {
+                assertThat(produtor.get(30, TimeUnit.SECONDS)).isPositive();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(aceitos).hasSizeGreaterThanOrEqualTo(PRODUTORES).allSatisfy(token ->
+                assertThat(rodando.situacao(token)).get().extracting(StatusIngestao::situacao)
+                        .isEqualTo(Situacao.CRIADO));
+        assertThat(rodando.enfileirar(novo("Depois do desligamento"))).isEmpty();
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void postDepoisDoDesligamentoResponde503ComRetryAfter() throws Exception {
+        ingestao.encerrar();
+
+        mockMvc.perform(post("/api/diagnosticos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"paciente\": {\"id\": " + paciente.getId() + "}, "
+                                + "\"medico\": {\"id\": " + medico.getId() + "}, "
+                                + "\"descricao\": \"Recusado\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    private IngestaoDiagnosticos isolada(int capacidade) {
+        return new IngestaoDiagnosticos(diagnosticoService, new SimpleMeterRegistry(), true, capacidade, 50);
+    }
+
+    private Diagnostico novo(String descricao) {
+        return new Diagnostico(paciente, medico, descricao);
+    }
+
+    private static StatusIngestao aguardarGravacao(IngestaoDiagnosticos ingestao, UUID token)
+            throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        StatusIngestao situacao = ingestao.situacao(token).orElseThrow();
+        while (situacao.situacao() == Situacao.PENDENTE && System.nanoTime() < limite) {
+            Thread.sleep(20);
+            situacao = ingestao.situacao(token).orElseThrow();
+        }
+        return situacao;
+    }
+}
@@ -0,0 +1,150 @@
+package com.primeiraapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.primeiraapi.config.LeituraNoPrimario;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * N requisições simultâneas pela mesma chave: a consulta fica presa até todas as outras
+ * estarem esperando por ela, e deve ter sido executada uma única vez.
+ */
+class LeiturasCompartilhadasTest {
+
+    private static final int REQUISICOES = 50;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LeiturasCompartilhadas<Long, String> leituras = new LeiturasCompartilhadas<>(registry, "teste");
+
+    @Test
+    void requisicoesSimultaneasFazemUmaConsulta() throws Exception {
+        AtomicInteger consultas = new AtomicInteger();
+        CountDownLatch liberarConsulta = new CountDownLatch(1);
+
+        List<Future<String>> resultados = executarEmParalelo(() -> leituras.ler(1L, () -> {
+            consultas.incrementAndGet();
+            aguardar(liberarConsulta);
+            return "prontuário";
+        }), () -> compartilhadas() == REQUISICOES - 1, liberarConsulta);
+
+        for (Future<String> resultado : resultados) {
+            assertThat(resultado.get(10, TimeUnit.SECONDS)).isEqualTo("prontuário");
+        }
+        assertThat(consultas).hasValue(1);
+        assertThat(executadas()).isEqualTo(1);
+        assertThat(compartilhadas()).isEqualTo(REQUISICOES - 1);
+    }
+
+    @Test
+    void erroDaConsultaChegaATodos() throws Exception {
+        CountDownLatch liberarConsulta = new CountDownLatch(1);
+
+        List<Future<String>> resultados = executarEmParalelo(() -> leituras.ler(2L, () -> {
+            aguardar(liberarConsulta);
+            throw new IllegalStateException("banco fora do ar");
+        }), () -> compartilhadas() == REQUISICOES - 1, liberarConsulta);
+
+        for (Future<String> resultado : resultados) {
+            assertThatThrownBy(() -> resultado.get(10, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void escritaNaChaveFazAProximaLeituraConsultarDeNovo() throws Exception {
+        CountDownLatch liberarConsulta = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> antes = executor.submit(() -> leituras.ler(3L, () -> {
+                aguardar(liberarConsulta);
+                return "antes da escrita";
+            }));
+            while (executadas() == 0) {
+                Thread.sleep(1);
+            }
+
+            leituras.invalidar(3L);
+            String depois = leituras.ler(3L, () -> "depois da escrita");
+            liberarConsulta.countDown();
+
+            assertThat(depois).isEqualTo("depois da escrita");
+            assertThat(antes.get(10, TimeUnit.SECONDS)).isEqualTo("antes da escrita");
+            assertThat(executadas()).isEqualTo(2);
+            assertThat(compartilhadas()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void leituraNoPrimarioNaoEntraNoGrupoDaReplica() throws Exception {
+        CountDownLatch liberarConsulta = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> daReplica = executor.submit(() -> leituras.ler(4L, () -> {
+                aguardar(liberarConsulta);
+                return "da réplica";
+            }));
+            while (executadas() == 0) {
+                Thread.sleep(1);
+            }
+
+            LeituraNoPrimario.ativar();
+            try {
+                assertThat(leituras.ler(4L, () -> "do primário")).isEqualTo("do primário");
+            } finally {
+                LeituraNoPrimario.limpar();
+            }
+            liberarConsulta.countDown();
+
+            assertThat(daReplica.get(10, TimeUnit.SECONDS)).isEqualTo("da réplica");
+            assertThat(executadas()).isEqualTo(2);
+            assertThat(compartilhadas()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Dispara REQUISICOES leituras e só libera a consulta quando todas já chegaram
+     */
+    private List<Future<String>> executarEmParalelo(Supplier<String> leitura, Supplier<Boolean> todasChegaram,
+                                                    CountDownLatch liberarConsulta) throws Exception {
+        return ExecucaoParalela.executar(REQUISICOES, REQUISICOES, leitura::get, () -> {
+            long prazo = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!todasChegaram.get() && System.nanoTime() < prazo) {
+                Thread.sleep(1);
+            }
+            liberarConsulta.countDown();
+        });
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double executadas() {
+        return registry.counter("servico.leituras", "leitura", "teste", "resultado", "executada").count();
+    }
+
+    private double compartilhadas() {
+        return registry.counter("servico.leituras", "leitura", "teste", "resultado", "compartilhada").count();
+    }
+}
@@ -0,0 +1,36 @@
+package com.primeiraapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.primeiraapi.model.Medico;
+
+/**
+ * Dispara centenas de cadastros com o mesmo CRM ao mesmo tempo:
+ * apenas um deve ser criado e todos os outros devem receber o erro de negócio (400),
+ * nunca a violação de restrição crua do banco.
+ */
+@SpringBootTest
+class MedicoServiceConcorrenciaTest {
+
+    private static final int REQUISICOES = 200;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Test
+    void crmDuplicadoConcorrenteCriaApenasUmMedico() throws Exception {
+        List<String> resultados = ExecucaoParalela.cadastrar(REQUISICOES, THREADS, () -> {
+            medicoService.create(new Medico("Dr. Concorrente", "CONC-CRM-1", "Clínica"));
+        });
+
+        assertThat(resultados).filteredOn("criado"::equals).hasSize(1);
+        assertThat(resultados).filteredOn("CRM já cadastrado"::equals).hasSize(REQUISICOES - 1);
+    }
+}
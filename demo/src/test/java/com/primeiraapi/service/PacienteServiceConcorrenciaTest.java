@@ -0,0 +1,113 @@
+package com.primeiraapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.primeiraapi.model.Paciente;
+import com.primeiraapi.repository.PacienteRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Dispara centenas de cadastros com o mesmo CPF ao mesmo tempo:
+ * apenas um deve ser criado e todos os outros devem receber o erro de negócio (400),
+ * nunca a violação de restrição crua do banco.
+ * Compara também o cadastro atual (um INSERT) com o anterior (consulta pelo CPF e depois INSERT).
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "busca.reindexar-ao-iniciar=false"
+})
+class PacienteServiceConcorrenciaTest {
+
+    private static final int REQUISICOES = 200;
+    private static final int THREADS = 32;
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    private static final Logger log = LoggerFactory.getLogger(PacienteServiceConcorrenciaTest.class);
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void cpfDuplicadoConcorrenteCriaApenasUmPaciente() throws Exception {
+        List<String> resultados = ExecucaoParalela.cadastrar(REQUISICOES, THREADS, () -> {
+            pacienteService.create(new Paciente("Paciente Concorrente", "CONC-CPF-1"));
+        });
+
+        assertThat(resultados).filteredOn("criado"::equals).hasSize(1);
+        assertThat(resultados).filteredOn("CPF já cadastrado"::equals).hasSize(REQUISICOES - 1);
+    }
+
+    @Test
+    void cadastroComUmInsertFazMenosIdasAoBancoQueVerificarAntes() throws Exception {
+        Medicao antes = medir("CA", cpf -> {
+            // Caminho anterior: existsByCpf e só então o INSERT
+            if (pacienteRepository.existsByCpf(cpf)) {
+                throw new IllegalArgumentException("CPF já cadastrado");
+            }
+            pacienteService.create(new Paciente("Paciente Antes", cpf));
+        });
+        Medicao depois = medir("CD", cpf -> pacienteService.create(new Paciente("Paciente Depois", cpf)));
+
+        log.info("Cadastro de {} pacientes em {} threads: antes {} | depois {}", REQUISICOES, THREADS, antes, depois);
+        // Uma ida ao banco por cadastro em vez de duas (mais a busca de um bloco da sequência a cada 50)
+        assertThat(depois.comandos()).isLessThanOrEqualTo(REQUISICOES + REQUISICOES / 50 + 1);
+        assertThat(antes.comandos()).isGreaterThanOrEqualTo(2L * REQUISICOES);
+    }
+
+    private record Medicao(long comandos, double p50Ms, double p99Ms) {
+
+        @Override
+        public String toString() {
+            return String.format("comandos=%d p50=%.2fms p99=%.2fms", comandos, p50Ms, p99Ms);
+        }
+    }
+
+    /**
+     * Cadastra REQUISICOES CPFs novos em paralelo com o caminho informado,
+     * medindo a latência de cada cadastro e os comandos SQL preparados no total
+     * (CPFs curtos: a coluna tem 14 caracteres)
+     */
+    private Medicao medir(String prefixo, Consumer<String> cadastro) throws Exception {
+        String lote = prefixo + SEQUENCIA.incrementAndGet();
+        cadastro.accept(lote + "-A");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        AtomicInteger proximo = new AtomicInteger();
+        List<Future<Long>> futuros = ExecucaoParalela.executar(REQUISICOES, THREADS, () -> {
+            String cpf = lote + "-" + proximo.getAndIncrement();
+            long inicio = System.nanoTime();
+            cadastro.accept(cpf);
+            return System.nanoTime() - inicio;
+        });
+        long[] latencias = new long[REQUISICOES];
+        for (int i = 0; i < REQUISICOES; i++) {
+            latencias[i] = futuros.get(i).get();
+        }
+        Arrays.sort(latencias);
+        return new Medicao(statistics.getPrepareStatementCount(),
+                latencias[REQUISICOES / 2] / 1_000_000.0,
+                latencias[(int) Math.ceil(REQUISICOES * 0.99) - 1] / 1_000_000.0);
+    }
+}
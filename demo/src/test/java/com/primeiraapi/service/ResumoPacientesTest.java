@@ -0,0 +1,107 @@
+package com.primeiraapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.primeiraapi.model.Diagnostico;
+import com.primeiraapi.model.Medico;
+import com.primeiraapi.model.Paciente;
+import com.primeiraapi.model.ResumoPaciente;
+
+/**
+ * Criações simultâneas para o mesmo paciente (inclusive a primeira, que cria a linha do resumo)
+ * não perdem contagem; a remoção do último diagnóstico volta ao anterior; o reparo chega ao mesmo resumo.
+ */
+@SpringBootTest(properties = "busca.reindexar-ao-iniciar=false")
+class ResumoPacientesTest {
+
+    private static final int CRIACOES = 40;
+
+    @Autowired
+    private ResumoPacientes resumos;
+
+    @Autowired
+    private DiagnosticoService diagnosticoService;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Test
+    void resumoAcompanhaCriacoesERemocoes() throws Exception {
+        Paciente paciente = pacienteService.create(new Paciente("Paciente Resumo", "RESUMO-1"));
+        Medico clinico = medicoService.create(new Medico("Dr. Clínico", "RESUMO-CRM-1", "Clínica"));
+        Medico cardiologista = medicoService.create(new Medico("Dra. Cardio", "RESUMO-CRM-2", "Cardiologia"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<Diagnostico>> futuros = new ArrayList<>();
+            for (int i = 0; i < CRIACOES; i++) {
+                Medico medico = i % 2 == 0 ? clinico : cardiologista;
+                String descricao = "Consulta " + i;
+                futuros.add(executor.submit(() -> {
+                    largada.await();
+                    return diagnosticoService.create(new Diagnostico(paciente, medico, descricao));
+                }));
+            }
+            largada.countDown();
+            for (Future<Diagnostico> futuro : futuros) {
+                futuro.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ResumoPaciente resumo = resumos.findOrThrow(paciente.getId());
+        assertThat(resumo.getQuantidade()).isEqualTo(CRIACOES);
+        assertThat(resumo.getEspecialidades()).containsExactly("Cardiologia", "Clínica");
+
+        Diagnostico ultimo = diagnosticoService.create(new Diagnostico(paciente, cardiologista, "Retorno"));
+        assertThat(resumos.findOrThrow(paciente.getId()).getUltimoDiagnosticoId()).isEqualTo(ultimo.getId());
+
+        diagnosticoService.delete(ultimo.getId());
+        ResumoPaciente depoisDaRemocao = resumos.findOrThrow(paciente.getId());
+        assertThat(depoisDaRemocao.getQuantidade()).isEqualTo(CRIACOES);
+        assertThat(depoisDaRemocao.getUltimoDiagnosticoId()).isNotEqualTo(ultimo.getId()).isNotNull();
+
+        resumos.reparar();
+        ResumoPaciente reparado = resumos.findOrThrow(paciente.getId());
+        assertThat(reparado.getQuantidade()).isEqualTo(depoisDaRemocao.getQuantidade());
+        assertThat(reparado.getUltimoDiagnosticoId()).isEqualTo(depoisDaRemocao.getUltimoDiagnosticoId());
+        assertThat(reparado.getEspecialidades()).isEqualTo(depoisDaRemocao.getEspecialidades());
+    }
+
+    @Test
+    void remocaoDepoisDeMudarAEspecialidadeDoMedico() {
+        Paciente paciente = pacienteService.create(new Paciente("Paciente Especialidade", "RESUMO-2"));
+        Medico medico = medicoService.create(new Medico("Dr. Mudança", "RESUMO-CRM-3", "Clínica"));
+        Diagnostico primeiro = diagnosticoService.create(new Diagnostico(paciente, medico, "Primeira consulta"));
+        diagnosticoService.create(new Diagnostico(paciente, medico, "Segunda consulta"));
+        assertThat(resumos.findOrThrow(paciente.getId()).getEspecialidades()).containsExactly("Clínica");
+
+        Medico dados = new Medico();
+        dados.setEspecialidade("Pediatria");
+        medicoService.patch(medico.getId(), dados, Set.of("especialidade"));
+        diagnosticoService.delete(primeiro.getId());
+
+        // Sem "Clínica" sobrando: nenhum diagnóstico restante é de clínico
+        assertThat(resumos.findOrThrow(paciente.getId()).getEspecialidades()).containsExactly("Pediatria");
+        resumos.reparar();
+        assertThat(resumos.findOrThrow(paciente.getId()).getEspecialidades()).containsExactly("Pediatria");
+    }
+}